@@ -1,5 +1,7 @@
 package com.project.back_end.DTO;
 
+import com.project.back_end.models.Appointment;
+
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
@@ -124,7 +126,7 @@ public class AppointmentDTO {
         // Compute derived fields
         this.appointmentDate = appointmentTime.toLocalDate();
         this.appointmentTimeOnly = appointmentTime.toLocalTime();
-        this.endTime = appointmentTime.plusHours(1);
+        this.endTime = appointmentTime.plusMinutes(Appointment.DEFAULT_DURATION_MINUTES);
     }
 
     // Getters for all fields
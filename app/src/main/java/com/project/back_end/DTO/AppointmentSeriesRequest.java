@@ -0,0 +1,81 @@
+package com.project.back_end.DTO;
+
+import java.time.LocalDateTime;
+
+public class AppointmentSeriesRequest {
+    // 1. 'doctorId' field:
+    //    - Type: private Long
+    //    - Description:
+    //      - The doctor every occurrence of the series is booked with.
+
+    // 2. 'firstAppointmentTime' field:
+    //    - Type: private LocalDateTime
+    //    - Description:
+    //      - Start of the first occurrence; later occurrences keep the same time of day.
+
+    // 3. 'frequency' field:
+    //    - Type: private String
+    //    - Description:
+    //      - "WEEKLY" repeats every `interval` weeks, "DAILY" every `interval` days (e.g. every 14 days).
+
+    // 4. 'interval' field:
+    //    - Type: private int
+    //    - Description:
+    //      - Number of weeks or days between occurrences. Defaults to 1.
+
+    // 5. 'occurrences' field:
+    //    - Type: private int
+    //    - Description:
+    //      - Total number of appointments in the series, including the first one.
+
+    private Long doctorId;
+    private LocalDateTime firstAppointmentTime;
+    private String frequency;
+    private int interval = 1;
+    private int occurrences;
+
+    // Default constructor (required for deserialization)
+    public AppointmentSeriesRequest() {
+    }
+
+    // Getter and Setter methods
+    public Long getDoctorId() {
+        return doctorId;
+    }
+
+    public void setDoctorId(Long doctorId) {
+        this.doctorId = doctorId;
+    }
+
+    public LocalDateTime getFirstAppointmentTime() {
+        return firstAppointmentTime;
+    }
+
+    public void setFirstAppointmentTime(LocalDateTime firstAppointmentTime) {
+        this.firstAppointmentTime = firstAppointmentTime;
+    }
+
+    public String getFrequency() {
+        return frequency;
+    }
+
+    public void setFrequency(String frequency) {
+        this.frequency = frequency;
+    }
+
+    public int getInterval() {
+        return interval;
+    }
+
+    public void setInterval(int interval) {
+        this.interval = interval;
+    }
+
+    public int getOccurrences() {
+        return occurrences;
+    }
+
+    public void setOccurrences(int occurrences) {
+        this.occurrences = occurrences;
+    }
+}
@@ -0,0 +1,9 @@
+package com.project.back_end.DTO;
+
+import java.time.LocalDateTime;
+
+/**
+ * Projection of a booked appointment: only the doctor id and start time, as needed to build availability.
+ */
+public record BookedSlot(Long doctorId, LocalDateTime appointmentTime) {
+}
@@ -0,0 +1,18 @@
+package com.project.back_end.DTO;
+
+import java.util.List;
+
+/**
+ * Slim projection of a doctor for the listing cards: no password, phone or other entity state.
+ * The JPQL constructor expression uses the 4-argument constructor; available times are attached from a batch query.
+ */
+public record DoctorCard(Long id, String name, String specialty, String email, List<String> availableTimes) {
+
+    public DoctorCard(Long id, String name, String specialty, String email) {
+        this(id, name, specialty, email, List.of());
+    }
+
+    public DoctorCard withAvailableTimes(List<String> availableTimes) {
+        return new DoctorCard(id, name, specialty, email, List.copyOf(availableTimes));
+    }
+}
@@ -0,0 +1,7 @@
+package com.project.back_end.DTO;
+
+/**
+ * Slim typeahead payload for one doctor: just what the search box shows and the id to select.
+ */
+public record DoctorSuggestion(Long id, String name, String specialty) {
+}
@@ -0,0 +1,7 @@
+package com.project.back_end.DTO;
+
+/**
+ * Projection of one entry of a doctor's availableTimes (e.g. "09:00-10:00"), keyed by doctor id.
+ */
+public record DoctorTimeWindow(Long doctorId, String window) {
+}
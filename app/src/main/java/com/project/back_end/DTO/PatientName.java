@@ -0,0 +1,7 @@
+package com.project.back_end.DTO;
+
+/**
+ * Projection of a patient's id and name, used to load the patient name search index.
+ */
+public record PatientName(Long id, String name) {
+}
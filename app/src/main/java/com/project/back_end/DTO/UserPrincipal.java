@@ -0,0 +1,51 @@
+package com.project.back_end.DTO;
+
+import java.time.Instant;
+
+public class UserPrincipal {
+
+    // Request attribute under which TokenAuthenticationFilter stores the resolved principal
+    public static final String REQUEST_ATTRIBUTE = UserPrincipal.class.getName();
+
+    private final Long id;         // Admin, Doctor or Patient id (uid claim)
+    private final String email;    // Email (Doctor/Patient) or Username (Admin)
+    private final String role;     // admin, doctor or patient
+    private final String tokenId;  // jti claim of the presented token
+    private final Instant expiresAt;
+
+    public UserPrincipal(Long id, String email, String role) {
+        this(id, email, role, null, null);
+    }
+
+    public UserPrincipal(Long id, String email, String role, String tokenId, Instant expiresAt) {
+        this.id = id;
+        this.email = email;
+        this.role = role;
+        this.tokenId = tokenId;
+        this.expiresAt = expiresAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public String getRole() {
+        return role;
+    }
+
+    public String getTokenId() {
+        return tokenId;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+
+    public boolean hasRole(String expectedRole) {
+        return expectedRole != null && expectedRole.equalsIgnoreCase(role);
+    }
+}
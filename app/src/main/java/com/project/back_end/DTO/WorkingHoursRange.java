@@ -0,0 +1,7 @@
+package com.project.back_end.DTO;
+
+/**
+ * Projection of one working-hours row: ISO day of week and [startMinute, endMinute) as minutes of day, keyed by doctor id.
+ */
+public record WorkingHoursRange(Long doctorId, int dayOfWeek, int startMinute, int endMinute) {
+}
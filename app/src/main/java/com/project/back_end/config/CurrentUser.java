@@ -0,0 +1,15 @@
+package com.project.back_end.config;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a handler parameter of type {@link com.project.back_end.DTO.UserPrincipal} to be filled with the
+ * principal authenticated by {@link TokenAuthenticationFilter}, or null when the request carries no valid token.
+ */
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface CurrentUser {
+}
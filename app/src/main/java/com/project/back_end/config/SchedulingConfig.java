@@ -0,0 +1,10 @@
+package com.project.back_end.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+    // Enables @Scheduled housekeeping tasks (e.g. purging expired token revocations)
+}
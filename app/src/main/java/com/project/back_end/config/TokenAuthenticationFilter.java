@@ -0,0 +1,75 @@
+package com.project.back_end.config;
+
+import com.project.back_end.DTO.UserPrincipal;
+import com.project.back_end.services.TokenService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+@Component
+public class TokenAuthenticationFilter extends OncePerRequestFilter {
+    // 1. **Purpose**
+    // Authenticates each request once. The resolved `UserPrincipal` (id, email, role) is stored as a request attribute
+    // and handed to handlers through `@CurrentUser`, so controllers and services no longer parse the token themselves.
+
+    // 2. **Token Sources**
+    // - `Authorization: Bearer <token>` header, which takes precedence when present.
+    // - Otherwise the last path segment, which is where every existing endpoint (e.g. `/patient/{id}/{token}`) carries it.
+    //   The segment is only parsed when it has the shape of a JWT, so static resources and public endpoints cost nothing.
+
+    // 3. **No Rejection Here**
+    // Invalid or missing tokens simply leave the principal unset; each handler decides which role it requires.
+
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private final TokenService tokenService;
+
+    public TokenAuthenticationFilter(TokenService tokenService) {
+        this.tokenService = tokenService;
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request,
+                                    @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain) throws ServletException, IOException {
+        String token = resolveToken(request);
+        if (token != null) {
+            UserPrincipal principal = tokenService.resolvePrincipal(token);
+            if (principal != null) {
+                request.setAttribute(UserPrincipal.REQUEST_ATTRIBUTE, principal);
+            }
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    /**
+     * Helper method: Bearer header first, then a JWT-shaped last path segment
+     */
+    private static String resolveToken(HttpServletRequest request) {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header != null && header.regionMatches(true, 0, BEARER_PREFIX, 0, BEARER_PREFIX.length())) {
+            String token = header.substring(BEARER_PREFIX.length()).trim();
+            return token.isEmpty() ? null : token;
+        }
+
+        String uri = request.getRequestURI();
+        int end = uri.endsWith("/") ? uri.length() - 1 : uri.length();
+        int start = uri.lastIndexOf('/', end - 1) + 1;
+        if (start >= end) return null;
+        String segment = uri.substring(start, end);
+        return looksLikeJwt(segment) ? segment : null;
+    }
+
+    private static boolean looksLikeJwt(String segment) {
+        if (!segment.startsWith("eyJ")) return false;
+        int firstDot = segment.indexOf('.');
+        return firstDot > 0 && segment.indexOf('.', firstDot + 1) > firstDot + 1;
+    }
+}
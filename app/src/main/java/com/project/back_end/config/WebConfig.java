@@ -4,9 +4,12 @@ package com.project.back_end.config;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.lang.NonNull; 
 
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import java.util.List;
+
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
 
@@ -18,4 +21,10 @@ public class WebConfig implements WebMvcConfigurer {
                 .allowedMethods("GET", "POST", "PUT", "DELETE")  // Specify allowed methods
                 .allowedHeaders("*");  // You can restrict headers if needed
     }
+
+    @Override
+    public void addArgumentResolvers(@NonNull List<HandlerMethodArgumentResolver> resolvers) {
+        // Supplies @CurrentUser UserPrincipal parameters resolved by TokenAuthenticationFilter
+        resolvers.add(new CurrentUserArgumentResolver());
+    }
 }
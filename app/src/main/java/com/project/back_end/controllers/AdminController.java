@@ -2,6 +2,7 @@ package com.project.back_end.controllers;
 
 import com.project.back_end.models.Admin;
 import com.project.back_end.services.ServiceManager;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -37,11 +38,12 @@ public class AdminController {
      * Validates admin credentials and returns a token if successful.
      *
      * @param admin The admin login details (username & password) from the request body
+     * @param request The current request, used for the client address in login throttling
      * @return ResponseEntity with token or error message
      */
     @PostMapping("/login")
-    public ResponseEntity<Map<String, String>> adminLogin(@RequestBody Admin admin) {
+    public ResponseEntity<Map<String, String>> adminLogin(@RequestBody Admin admin, HttpServletRequest request) {
         // Calls the service layer to validate admin credentials
-        return adminService.validateAdmin(admin);
+        return adminService.validateAdmin(admin, request.getRemoteAddr());
     }
 }
\ No newline at end of file
@@ -1,15 +1,22 @@
 package com.project.back_end.controllers;
 
+import com.project.back_end.DTO.AppointmentSeriesRequest;
+import com.project.back_end.DTO.UserPrincipal;
+import com.project.back_end.config.CurrentUser;
 import com.project.back_end.models.Appointment;
 import com.project.back_end.services.AppointmentService;
-import com.project.back_end.services.TokenService;
+import com.project.back_end.services.BookingQueue;
+import com.project.back_end.services.SlotHoldService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.Map;
+import java.util.NoSuchElementException;
 
 @RestController
 @RequestMapping("/appointments")
@@ -55,11 +62,33 @@ public class AppointmentController {
     //    - Validates the token for `"patient"` role to ensure the user is authorized to cancel the appointment.
     //    - Calls `AppointmentService` to handle the cancellation process and returns the result.
 
+
+    // 7. Define the Slot Hold Methods:
+    //    - `holdSlot` places a short hold on a doctor's slot while the patient completes the booking form.
+    //    - `confirmHold` converts the hold into an appointment; `releaseHold` gives the slot back early.
+    //    - All three are patient-only and delegate to `SlotHoldService`.
+
+
+    // 8. Asynchronous Booking Mode:
+    //    - With `booking.async.enabled`, `bookAppointment` queues the validated appointment on its doctor's shard in
+    //      `BookingQueue` and answers `202 Accepted` with a ticket id instead of booking inline.
+    //    - `getBookingTicket` polls the ticket, or waits up to `waitMs` for its outcome.
+
+
+    // 9. Define the `bookSeries` Method:
+    //    - Handles HTTP POST requests to book a recurring series (weekly or every N days) for the patient.
+    //    - Delegates to `AppointmentService.bookSeries`, which answers with a per-occurrence report.
+
      @Autowired
     private AppointmentService appointmentService;
 
     @Autowired
-    private TokenService tokenService; // Handles token validation and other validation logic
+    private SlotHoldService slotHoldService;
+
+    @Autowired
+    private BookingQueue bookingQueue;
+
+    private static final long MAX_TICKET_WAIT_MS = 10_000;
 
     /**
      * GET - Fetch appointments for a specific date and patient (Doctor access only)
@@ -67,16 +96,16 @@ public class AppointmentController {
     @GetMapping("/{date}/{patientName}/{token}")
     public ResponseEntity<?> getAppointments(@PathVariable String date,
                                              @PathVariable String patientName,
-                                             @PathVariable String token) {
+                                             @CurrentUser UserPrincipal principal) {
         // Validate token for doctor role
-        if (!tokenService.validateToken(token, "doctor")) {
+        if (principal == null || !principal.hasRole("doctor")) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                     .body(Map.of("error", "Invalid or unauthorized token."));
         }
 
         // Fetch appointments
         LocalDate appointmentDate = LocalDate.parse(date);
-        Map<String, Object> appointments = appointmentService.getAppointment(patientName, appointmentDate, token);
+        Map<String, Object> appointments = appointmentService.getAppointment(patientName, appointmentDate, principal);
         return ResponseEntity.ok(appointments);
     }
 
@@ -84,9 +113,9 @@ public class AppointmentController {
      * POST - Book an appointment (Patient access only)
      */
     @PostMapping("/{token}")
-    public ResponseEntity<?> bookAppointment(@PathVariable String token, @RequestBody Appointment appointment) {
+    public ResponseEntity<?> bookAppointment(@CurrentUser UserPrincipal principal, @RequestBody Appointment appointment) {
         // Validate token for patient role
-        if (!tokenService.validateToken(token, "patient")) {
+        if (principal == null || !principal.hasRole("patient")) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                     .body(Map.of("error", "Invalid or unauthorized token."));
         }
@@ -97,24 +126,86 @@ public class AppointmentController {
                     .body(Map.of("error", "Invalid appointment details."));
         }
 
-        boolean booked = appointmentService.bookAppointment(appointment);
-        if (booked) {
+        if (bookingQueue.isEnabled()) {
+            String ticketId = bookingQueue.submit(appointment, principal.getId());
+            if (ticketId == null) {
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                        .body(Map.of("error", "Booking queue is full. Please try again."));
+            }
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .body(Map.of("message", "Booking queued.", "ticketId", ticketId));
+        }
+
+        int booked = appointmentService.bookAppointment(appointment);
+        if (booked == 1) {
             return ResponseEntity.status(HttpStatus.CREATED)
                     .body(Map.of("message", "Appointment booked successfully!"));
+        } else if (booked == -1) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(Map.of("error", "This slot is no longer available."));
+        } else if (booked == -2) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(Map.of("error", "This slot is being booked right now. Please try again."));
         } else {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(Map.of("error", "Failed to book appointment."));
         }
     }
 
+    /**
+     * POST - Book a recurring appointment series (Patient access only)
+     */
+    @PostMapping("/series/{token}")
+    public ResponseEntity<?> bookSeries(@CurrentUser UserPrincipal principal,
+                                        @RequestBody AppointmentSeriesRequest request) {
+        if (principal == null || !principal.hasRole("patient")) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(Map.of("error", "Invalid or unauthorized token."));
+        }
+
+        return appointmentService.bookSeries(request, principal);
+    }
+
+    /**
+     * GET - Poll or await a queued booking (Patient access only)
+     */
+    @GetMapping("/tickets/{ticketId}/{token}")
+    public ResponseEntity<?> getBookingTicket(@PathVariable String ticketId,
+                                              @RequestParam(defaultValue = "0") long waitMs,
+                                              @CurrentUser UserPrincipal principal) {
+        if (principal == null || !principal.hasRole("patient")) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(Map.of("error", "Invalid or unauthorized token."));
+        }
+
+        Integer result;
+        try {
+            result = bookingQueue.await(ticketId, principal.getId(), Math.min(Math.max(waitMs, 0), MAX_TICKET_WAIT_MS));
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("error", "Booking ticket not found."));
+        }
+
+        if (result == null) {
+            return ResponseEntity.ok(Map.of("status", "PENDING"));
+        } else if (result == 1) {
+            return ResponseEntity.ok(Map.of("status", "BOOKED", "message", "Appointment booked successfully!"));
+        } else if (result == -1) {
+            return ResponseEntity.ok(Map.of("status", "CONFLICT", "error", "This slot is no longer available."));
+        } else if (result == -2) {
+            return ResponseEntity.ok(Map.of("status", "BUSY", "error", "This slot is being booked right now. Please try again."));
+        }
+        return ResponseEntity.ok(Map.of("status", "FAILED", "error", "Failed to book appointment."));
+    }
+
     /**
      * PUT - Update an existing appointment (Patient access only)
      */
     @PutMapping("/{token}")
-    public ResponseEntity<?> updateAppointment(@PathVariable String token,
+    public ResponseEntity<?> updateAppointment(@CurrentUser UserPrincipal principal,
                                                @RequestBody Appointment appointment) {
         // Validate token for patient role
-        if (!tokenService.validateToken(token, "patient")) {
+        if (principal == null || !principal.hasRole("patient")) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                     .body(Map.of("error", "Invalid or unauthorized token."));
         }
@@ -127,13 +218,61 @@ public class AppointmentController {
      */
     @DeleteMapping("/{id}/{token}")
     public ResponseEntity<?> cancelAppointment(@PathVariable Long id,
-                                               @PathVariable String token) {
+                                               @CurrentUser UserPrincipal principal) {
         // Validate token for patient role
-        if (!tokenService.validateToken(token, "patient")) {
+        if (principal == null || !principal.hasRole("patient")) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(Map.of("error", "Invalid or unauthorized token."));
+        }
+
+        return appointmentService.cancelAppointment(id, principal);
+    }
+
+    /**
+     * POST - Hold a slot during checkout (Patient access only)
+     */
+    @PostMapping("/hold/{doctorId}/{appointmentTime}/{token}")
+    public ResponseEntity<?> holdSlot(@PathVariable Long doctorId,
+                                      @PathVariable String appointmentTime,
+                                      @CurrentUser UserPrincipal principal) {
+        if (principal == null || !principal.hasRole("patient")) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(Map.of("error", "Invalid or unauthorized token."));
+        }
+
+        LocalDateTime time;
+        try {
+            time = LocalDateTime.parse(appointmentTime);
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", "Invalid appointment time."));
+        }
+        return slotHoldService.placeHold(doctorId, time, principal);
+    }
+
+    /**
+     * POST - Confirm a held slot as an appointment (Patient access only)
+     */
+    @PostMapping("/hold/{holdId}/confirm/{token}")
+    public ResponseEntity<?> confirmHold(@PathVariable String holdId, @CurrentUser UserPrincipal principal) {
+        if (principal == null || !principal.hasRole("patient")) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(Map.of("error", "Invalid or unauthorized token."));
+        }
+
+        return slotHoldService.confirmHold(holdId, principal);
+    }
+
+    /**
+     * DELETE - Release a held slot (Patient access only)
+     */
+    @DeleteMapping("/hold/{holdId}/{token}")
+    public ResponseEntity<?> releaseHold(@PathVariable String holdId, @CurrentUser UserPrincipal principal) {
+        if (principal == null || !principal.hasRole("patient")) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                     .body(Map.of("error", "Invalid or unauthorized token."));
         }
 
-        return appointmentService.cancelAppointment(id, token);
+        return slotHoldService.releaseHold(holdId, principal);
     }
 }
\ No newline at end of file
@@ -0,0 +1,39 @@
+package com.project.back_end.controllers;
+
+import com.project.back_end.DTO.UserPrincipal;
+import com.project.back_end.config.CurrentUser;
+import com.project.back_end.services.TokenService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("${api.path}auth")
+public class AuthController {
+    // 1. Set Up the Controller Class:
+    //    - Handles session endpoints shared by all roles (admin, doctor and patient).
+
+    // 2. Define the `logout` Method:
+    //    - Accepts the token either as the `Authorization: Bearer` header or as a path variable.
+    //    - Revokes the token so it is rejected even before it expires.
+
+    @Autowired
+    private TokenService tokenService;
+
+    /**
+     * Logout - revoke the presented token (any role)
+     */
+    @PostMapping({"/logout", "/logout/{token}"})
+    public ResponseEntity<?> logout(@CurrentUser UserPrincipal principal) {
+        if (principal == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(Map.of("error", "Invalid or unauthorized token."));
+        }
+
+        tokenService.revokeToken(principal);
+        return ResponseEntity.ok(Map.of("message", "Logged out successfully"));
+    }
+}
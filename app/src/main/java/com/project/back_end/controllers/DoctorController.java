@@ -1,9 +1,18 @@
 package com.project.back_end.controllers;
 
+import com.project.back_end.DTO.DoctorSuggestion;
+import com.project.back_end.DTO.UserPrincipal;
+import com.project.back_end.config.CurrentUser;
 import com.project.back_end.models.Doctor;
+import com.project.back_end.services.DoctorDirectory;
 import com.project.back_end.services.DoctorService;
-import com.project.back_end.services.TokenService;
+import com.project.back_end.services.NextAvailableService;
+import com.project.back_end.services.ScheduleEngine;
+import com.project.back_end.services.ServiceManager;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -36,6 +45,8 @@ public class DoctorController {
     // 4. Define the `getDoctor` Method:
     //    - Handles HTTP GET requests to retrieve a list of all doctors.
     //    - Returns the list within a response map under the key `"doctors"` with HTTP 200 OK status.
+    //    - With `size` and/or `cursor`, returns one page of slim doctor cards ordered by name and the `nextCursor`
+    //      to pass for the following page (null on the last page).
 
 
     // 5. Define the `saveDoctor` Method:
@@ -68,45 +79,142 @@ public class DoctorController {
     //    - Handles HTTP GET requests to filter doctors based on name, time, and specialty.
     //    - Accepts `name`, `time`, and `specialty` as path variables.
     //    - Calls the shared `Service` to perform filtering logic and returns matching doctors in the response.
+    //    - `/filter?name=&time=&specialty=` takes the filters as optional query parameters; adding `page` (and `size`)
+    //      or `day` (e.g. `day=TUE&time=PM` for Tuesday afternoons) returns one page filtered in a single database
+    //      query, with `page`, `size`, `totalElements` and `totalPages`.
+
+
+    // 10. Define the `suggest` Method:
+    //    - Handles HTTP GET requests from the search box as the user types (`/suggest?q=`).
+    //    - Returns the top matches by name or specialty prefix as slim `{id, name, specialty}` suggestions from memory.
+    //    - Responses carry the directory version as ETag; a matching `If-None-Match` gets 304 without a lookup.
+
+    private static final int MAX_AVAILABILITY_RANGE_DAYS = 62;
+
+    private static final int MAX_NEXT_AVAILABLE_DAYS = 62;
+    private static final int MAX_NEXT_AVAILABLE_RESULTS = 50;
+    private static final int MAX_FILTER_PAGE_SIZE = 100;
+    private static final int DEFAULT_LIST_PAGE_SIZE = 20;
 
     @Autowired
     private DoctorService doctorService;
 
     @Autowired
-    private TokenService tokenService; // Handles token validation & filtering
+    private NextAvailableService nextAvailableService;
+
+    @Autowired
+    private ServiceManager serviceManager;
+
+    @Autowired
+    private DoctorDirectory doctorDirectory;
 
     /**
      * 1. Get Doctor Availability
      */
     @GetMapping("/availability/{user}/{doctorId}/{date}/{token}")
-    public ResponseEntity<?> getDoctorAvailability(@PathVariable String user, @PathVariable Long doctorId, @PathVariable String date, @PathVariable String token) {
+    public ResponseEntity<?> getDoctorAvailability(@PathVariable String user, @PathVariable Long doctorId, @PathVariable String date, @CurrentUser UserPrincipal principal) {
         // Validate token for the given role
-        if (!tokenService.validateToken(token, user)) {
+        if (principal == null || !principal.hasRole(user)) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                     .body(Map.of("error", "Invalid or unauthorized token."));
         }
 
-        String doctorEmail = tokenService.extractEmailFromToken(token);
-        List<String> availability = doctorService.getDoctorAvailability(doctorEmail, LocalDate.parse(date));
+        List<String> availability = doctorService.getDoctorAvailability(doctorId, LocalDate.parse(date));
         return ResponseEntity.ok(Map.of("availability", availability));
     }
 
+    /**
+     * 1b. Get Doctor Availability over a date range (at most MAX_AVAILABILITY_RANGE_DAYS days)
+     */
+    @GetMapping("/availability/{user}/{doctorId}/{from}/{to}/{token}")
+    public ResponseEntity<?> getDoctorAvailabilityRange(@PathVariable String user, @PathVariable Long doctorId,
+                                                        @PathVariable String from, @PathVariable String to,
+                                                        @CurrentUser UserPrincipal principal) {
+        if (principal == null || !principal.hasRole(user)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(Map.of("error", "Invalid or unauthorized token."));
+        }
+
+        LocalDate fromDate = LocalDate.parse(from);
+        LocalDate toDate = LocalDate.parse(to);
+        if (toDate.isBefore(fromDate) || fromDate.plusDays(MAX_AVAILABILITY_RANGE_DAYS).isBefore(toDate.plusDays(1))) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", "Date range must span 1 to " + MAX_AVAILABILITY_RANGE_DAYS + " days."));
+        }
+
+        return ResponseEntity.ok(Map.of("availability", doctorService.getDoctorAvailability(doctorId, fromDate, toDate)));
+    }
+
+    /**
+     * 1c. Get free slots of all doctors of a specialty on a date (optional name and AM/PM filters)
+     */
+    @GetMapping("/availability/specialty/{user}/{specialty}/{date}/{token}")
+    public ResponseEntity<?> getSpecialtyAvailability(@PathVariable String user, @PathVariable String specialty,
+                                                      @PathVariable String date,
+                                                      @RequestParam(required = false) String name,
+                                                      @RequestParam(required = false) String time,
+                                                      @CurrentUser UserPrincipal principal) {
+        if (principal == null || !principal.hasRole(user)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(Map.of("error", "Invalid or unauthorized token."));
+        }
+
+        return ResponseEntity.ok(Map.of("doctors",
+                doctorService.getSpecialtyAvailability(specialty, name, time, LocalDate.parse(date))));
+    }
+
+    /**
+     * 1d. Get the earliest free slots across all doctors of a specialty
+     */
+    @GetMapping("/availability/next/{user}/{specialty}/{token}")
+    public ResponseEntity<?> getNextAvailable(@PathVariable String user, @PathVariable String specialty,
+                                              @RequestParam(required = false) String time,
+                                              @RequestParam(defaultValue = "14") int days,
+                                              @RequestParam(defaultValue = "5") int limit,
+                                              @CurrentUser UserPrincipal principal) {
+        if (principal == null || !principal.hasRole(user)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(Map.of("error", "Invalid or unauthorized token."));
+        }
+        if (days < 1 || days > MAX_NEXT_AVAILABLE_DAYS || limit < 1 || limit > MAX_NEXT_AVAILABLE_RESULTS) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", "days must be 1-" + MAX_NEXT_AVAILABLE_DAYS
+                            + " and limit 1-" + MAX_NEXT_AVAILABLE_RESULTS + "."));
+        }
+
+        return ResponseEntity.ok(Map.of("slots", nextAvailableService.findNextAvailable(specialty, time, days, limit)));
+    }
+
     /**
      * 2. Get List of Doctors
      */
     @GetMapping
-    public ResponseEntity<?> getDoctors() {
-        List<Doctor> doctors = doctorService.getDoctors();
-        return ResponseEntity.ok(Map.of("doctors", doctors));
+    public ResponseEntity<?> getDoctors(@RequestParam(required = false) String cursor,
+                                        @RequestParam(required = false) Integer size) {
+        if (cursor == null && size == null) {
+            List<Doctor> doctors = doctorService.getDoctors();
+            return ResponseEntity.ok(Map.of("doctors", doctors));
+        }
+
+        int pageSize = size == null ? DEFAULT_LIST_PAGE_SIZE : size;
+        if (pageSize < 1 || pageSize > MAX_FILTER_PAGE_SIZE) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", "size must be 1-" + MAX_FILTER_PAGE_SIZE + "."));
+        }
+        try {
+            return ResponseEntity.ok(doctorService.listDoctors(cursor, pageSize));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("error", "Invalid cursor."));
+        }
     }
 
     /**
      * 3. Add New Doctor (Admin Only)
      */
     @PostMapping("/{token}")
-    public ResponseEntity<?> addDoctor(@PathVariable String token,
+    public ResponseEntity<?> addDoctor(@CurrentUser UserPrincipal principal,
                                        @RequestBody Doctor doctor) {
-        if (!tokenService.validateToken(token, "admin")) {
+        if (principal == null || !principal.hasRole("admin")) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                     .body(Map.of("error", "Invalid or unauthorized token."));
         }
@@ -119,6 +227,9 @@ public class DoctorController {
             case 2:
                 return ResponseEntity.status(HttpStatus.CONFLICT)
                         .body(Map.of("error", "Doctor already exists"));
+            case -2:
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                        .body(Map.of("error", "Working hours give too many slots in one day"));
             default:
                 return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                         .body(Map.of("error", "Some internal error occurred"));
@@ -129,18 +240,18 @@ public class DoctorController {
      * 4. Doctor Login
      */
     @PostMapping("/login")
-    public ResponseEntity<Map<String, String>> doctorLogin(@RequestBody Map<String, String> login) {
+    public ResponseEntity<Map<String, String>> doctorLogin(@RequestBody Map<String, String> login, HttpServletRequest request) {
         // login contains "email" and "password"
-        return doctorService.validateDoctor(login);
+        return doctorService.validateDoctor(login, request.getRemoteAddr());
     }
 
     /**
      * 5. Update Doctor Details (Admin Only)
      */
     @PutMapping("/{token}")
-    public ResponseEntity<?> updateDoctor(@PathVariable String token,
+    public ResponseEntity<?> updateDoctor(@CurrentUser UserPrincipal principal,
                                           @RequestBody Doctor doctor) {
-        if (!tokenService.validateToken(token, "admin")) {
+        if (principal == null || !principal.hasRole("admin")) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                     .body(Map.of("error", "Invalid or unauthorized token."));
         }
@@ -152,6 +263,9 @@ public class DoctorController {
             case 2:
                 return ResponseEntity.status(HttpStatus.NOT_FOUND)
                         .body(Map.of("error", "Doctor not found"));
+            case -2:
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                        .body(Map.of("error", "Working hours give too many slots in one day"));
             default:
                 return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                         .body(Map.of("error", "Some internal error occurred"));
@@ -163,8 +277,8 @@ public class DoctorController {
      */
     @DeleteMapping("/{id}/{token}")
     public ResponseEntity<?> deleteDoctor(@PathVariable Long id,
-                                          @PathVariable String token) {
-        if (!tokenService.validateToken(token, "admin")) {
+                                          @CurrentUser UserPrincipal principal) {
+        if (principal == null || !principal.hasRole("admin")) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                     .body(Map.of("error", "Invalid or unauthorized token."));
         }
@@ -187,7 +301,54 @@ public class DoctorController {
      */
     @GetMapping("/filter/{name}/{time}/{specialty}")
     public ResponseEntity<?> filterDoctors(@PathVariable String name, @PathVariable String time, @PathVariable String specialty) {
-        Map<String, Object> result = doctorService.filterDoctorsByNameSpecialtyAndTime(name, specialty, time);
+        Map<String, Object> result = serviceManager.filterDoctor(name, specialty, time);
         return ResponseEntity.ok(result);
     }
-}
\ No newline at end of file
+
+    /**
+     * 7b. Filter Doctors by optional query parameters, paged when `page` or `day` is given
+     */
+    @GetMapping("/filter")
+    public ResponseEntity<?> filterDoctors(@RequestParam(required = false) String name,
+                                           @RequestParam(required = false) String time,
+                                           @RequestParam(required = false) String specialty,
+                                           @RequestParam(required = false) String day,
+                                           @RequestParam(required = false) Integer page,
+                                           @RequestParam(defaultValue = "20") int size) {
+        boolean anyDay = day == null || day.isBlank();
+        if (page == null && anyDay) {
+            return ResponseEntity.ok(serviceManager.filterDoctor(name, specialty, time));
+        }
+        int dayOfWeek = anyDay ? 0 : ScheduleEngine.parseDay(day);
+        if (!anyDay && dayOfWeek == 0) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", "day must be a day of the week, e.g. TUE or Tuesday."));
+        }
+        int pageNumber = page == null ? 0 : page;
+        if (pageNumber < 0 || size < 1 || size > MAX_FILTER_PAGE_SIZE) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", "page must be non-negative and size 1-" + MAX_FILTER_PAGE_SIZE + "."));
+        }
+        return ResponseEntity.ok(serviceManager.filterDoctor(name, specialty, time, dayOfWeek, pageNumber, size));
+    }
+
+    /**
+     * 8. Typeahead suggestions by name or specialty prefix
+     */
+    @GetMapping("/suggest")
+    public ResponseEntity<?> suggest(@RequestParam(defaultValue = "") String q,
+                                     @RequestParam(required = false) Integer limit,
+                                     @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        String etag = "\"" + doctorDirectory.version() + "\"";
+        if (ifNoneMatch != null && ifNoneMatch.contains(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(CacheControl.noCache()).build();
+        }
+
+        List<DoctorSuggestion> suggestions = doctorDirectory.suggest(q);
+        if (limit != null && limit >= 0 && limit < suggestions.size()) {
+            suggestions = suggestions.subList(0, limit);
+        }
+        return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache())
+                .body(Map.of("suggestions", suggestions));
+    }
+}
@@ -1,8 +1,10 @@
 package com.project.back_end.controllers;
 
+import com.project.back_end.DTO.UserPrincipal;
+import com.project.back_end.config.CurrentUser;
 import com.project.back_end.models.Patient;
 import com.project.back_end.services.PatientService;
-import com.project.back_end.services.TokenService;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -55,23 +57,22 @@ public class PatientController {
     //    - Accepts filtering parameters: `condition`, `name`, and a token.
     //    - Token must be valid for a `"patient"` role.
     //    - If valid, delegates filtering logic to the shared service and returns the filtered result.
+    //    - Both appointment endpoints accept optional `size` and `cursor` query parameters; with either, they return one
+    //      page ordered by appointment time and a `nextCursor` for the following page (null on the last page).
 
      @Autowired
     private PatientService patientService;
 
-    @Autowired
-    private TokenService tokenService; // Handles token validation and filtering
-
     /**
      * 1. Get Patient Details (Self)
      */
     @GetMapping("/{token}")
-    public ResponseEntity<?> getPatientDetails(@PathVariable String token) {
-        if (!tokenService.validateToken(token, "patient")) {
+    public ResponseEntity<?> getPatientDetails(@CurrentUser UserPrincipal principal) {
+        if (principal == null || !principal.hasRole("patient")) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("error", "Invalid or unauthorized token."));
         }
 
-        return patientService.getPatientDetails(token);
+        return patientService.getPatientDetails(principal);
     }
 
     /**
@@ -97,40 +98,40 @@ public class PatientController {
      * 3. Patient Login
      */
     @PostMapping("/login")
-    public ResponseEntity<Map<String, String>> patientLogin(@RequestBody Map<String, String> login) {
+    public ResponseEntity<Map<String, String>> patientLogin(@RequestBody Map<String, String> login, HttpServletRequest request) {
         // login contains "email" and "password"
-        return patientService.validatePatientLogin(login);
+        return patientService.validatePatientLogin(login, request.getRemoteAddr());
     }
 
     /**
      * 4. Get Patient Appointments
      */
     @GetMapping("/{id}/{token}")
-    public ResponseEntity<?> getPatientAppointments(@PathVariable Long id, @PathVariable String token) {
-        if (!tokenService.validateToken(token, "patient")) {
+    public ResponseEntity<?> getPatientAppointments(@PathVariable Long id,
+                                                    @RequestParam(required = false) String cursor,
+                                                    @RequestParam(required = false) Integer size,
+                                                    @CurrentUser UserPrincipal principal) {
+        if (principal == null || !principal.hasRole("patient")) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("error", "Invalid or unauthorized token."));
         }
 
-        return patientService.getPatientAppointment(id, token);
+        return patientService.getPatientAppointment(id, principal, cursor, size);
     }
 
     /**
      * 5. Filter Patient Appointments
      */
     @GetMapping("/filter/{condition}/{name}/{token}")
-    public ResponseEntity<?> filterPatientAppointments(@PathVariable String condition, @PathVariable String name, @PathVariable String token) {
-        if (!tokenService.validateToken(token, "patient")) {
+    public ResponseEntity<?> filterPatientAppointments(@PathVariable String condition, @PathVariable String name,
+                                                       @RequestParam(required = false) String cursor,
+                                                       @RequestParam(required = false) Integer size,
+                                                       @CurrentUser UserPrincipal principal) {
+        if (principal == null || !principal.hasRole("patient")) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                     .body(Map.of("error", "Invalid or unauthorized token."));
         }
 
-        ResponseEntity<?> patientResponse = patientService.getPatientDetails(token);
-        if (!patientResponse.getStatusCode().is2xxSuccessful() || !(patientResponse.getBody() instanceof Patient)) {
-            return ResponseEntity.status(HttpStatus.NOT_FOUND)
-                    .body(Map.of("error", "Patient not found."));
-        }
-
-        Patient patient = (Patient) patientResponse.getBody();
-        return patientService.filterByDoctorAndCondition(condition, name, patient.getId());
+        // The patient id comes straight from the token; no need to reload the patient
+        return patientService.filterByDoctorAndCondition(condition, name, principal.getId(), cursor, size);
     }
 }
\ No newline at end of file
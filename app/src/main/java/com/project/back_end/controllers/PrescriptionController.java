@@ -1,8 +1,9 @@
 package com.project.back_end.controllers;
 
+import com.project.back_end.DTO.UserPrincipal;
+import com.project.back_end.config.CurrentUser;
 import com.project.back_end.models.Prescription;
 import com.project.back_end.services.PrescriptionService;
-import com.project.back_end.services.TokenService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -43,16 +44,13 @@ public class PrescriptionController {
     @Autowired
     private PrescriptionService prescriptionService;
 
-    @Autowired
-    private TokenService tokenService; // Handles token validation
-
     /**
      * 1. Save Prescription (Doctor Only)
      */
     @PostMapping("/{token}")
-    public ResponseEntity<?> savePrescription(@PathVariable String token, @RequestBody Prescription prescription) {
+    public ResponseEntity<?> savePrescription(@CurrentUser UserPrincipal principal, @RequestBody Prescription prescription) {
         // Validate token for doctor role
-        if (!tokenService.validateToken(token, "doctor")) {
+        if (principal == null || !principal.hasRole("doctor")) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("error", "Invalid or unauthorized token."));
         }
 
@@ -63,9 +61,9 @@ public class PrescriptionController {
      * 2. Get Prescription by Appointment ID (Doctor Only)
      */
     @GetMapping("/{appointmentId}/{token}")
-    public ResponseEntity<?> getPrescription(@PathVariable Long appointmentId, @PathVariable String token) {
+    public ResponseEntity<?> getPrescription(@PathVariable Long appointmentId, @CurrentUser UserPrincipal principal) {
         // Validate token for doctor role
-        if (!tokenService.validateToken(token, "doctor")) {
+        if (principal == null || !principal.hasRole("doctor")) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("error", "Invalid or unauthorized token."));
         }
 
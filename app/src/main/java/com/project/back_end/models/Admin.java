@@ -5,7 +5,8 @@ import jakarta.validation.constraints.NotNull;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 @Entity
-@Table(name = "admins")
+@Table(name = "admins",
+        uniqueConstraints = @UniqueConstraint(name = "uk_admins_username", columnNames = "username"))
 public class Admin {
 
     // @Entity annotation:
@@ -16,7 +17,7 @@ public class Admin {
     //    - Type: private Long
     //    - Description: 
     //      - Represents the unique identifier for the Admin entity.
-    //      - This field is auto-generated by the database using @GeneratedValue with strategy GenerationType.IDENTITY.
+    //      - This field is generated from the pooled `admins_seq` sequence (allocationSize 50), so inserts can be JDBC-batched.
     //      - It is the primary key of the entity, identified by @Id annotation.
 
     // 2. 'username' field:
@@ -41,7 +42,8 @@ public class Admin {
     //    - Standard getter and setter methods are provided for accessing and modifying the fields.
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "admins_seq")
+    @SequenceGenerator(name = "admins_seq", sequenceName = "admins_seq", allocationSize = 50)
     private Long id;
 
     @NotNull(message = "Username cannot be null")
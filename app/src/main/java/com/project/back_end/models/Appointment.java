@@ -9,7 +9,13 @@ import java.time.LocalDateTime;
 import java.time.LocalTime;
 
 @Entity
-@Table(name = "appointments")
+@Table(name = "appointments",
+        uniqueConstraints = @UniqueConstraint(name = "uk_appointments_doctor_time",
+                columnNames = {"doctor_id", "appointment_time"}),
+        indexes = {
+                @Index(name = "idx_appointments_patient_time", columnList = "patient_id, appointment_time, id"),
+                @Index(name = "idx_appointments_patient_status_time", columnList = "patient_id, status, appointment_time")
+        })
 public class Appointment {
 
     // @Entity annotation:
@@ -21,7 +27,8 @@ public class Appointment {
     //    - Description:
     //      - Represents the unique identifier for each appointment.
     //      - The @Id annotation marks it as the primary key.
-    //      - The @GeneratedValue(strategy = GenerationType.IDENTITY) annotation auto-generates the ID value when a new record is inserted into the database.
+    //      - The @GeneratedValue(strategy = GenerationType.SEQUENCE) annotation draws IDs from the pooled `appointments_seq` sequence
+    //        (allocationSize 50), so Hibernate knows IDs before inserting and can batch the inserts.
 
     // 2. 'doctor' field:
     //    - Type: private Doctor
@@ -59,6 +66,12 @@ public class Appointment {
     //      - It calculates the end time of the appointment by adding one hour to the start time (appointmentTime).
     //      - It is used to get an estimated appointment end time for display purposes.
 
+    // 6b. 'getDurationMinutes' method:
+    //    - Type: public int
+    //    - Description:
+    //      - Length of the visit in minutes (transient, currently always DEFAULT_DURATION_MINUTES).
+    //      - Overlap checks and availability use it, so a persisted duration column can replace it later.
+
     // 7. 'getAppointmentDate' method:
     //    - Type: private LocalDate
     //    - Description:
@@ -78,8 +91,15 @@ public class Appointment {
     // 10. Getters and Setters:
     //    - Standard getter and setter methods are provided for accessing and modifying the fields: id, doctor, patient, appointmentTime, status, etc.
 
+    // 11. Unique (doctor_id, appointment_time):
+    //    - A doctor can hold only one appointment per slot start. The database rejects a second booking even when two
+    //      application instances race for the same slot.
+
+    public static final int DEFAULT_DURATION_MINUTES = 60;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "appointments_seq")
+    @SequenceGenerator(name = "appointments_seq", sequenceName = "appointments_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne
@@ -142,9 +162,14 @@ public class Appointment {
         this.status = status;
     }
 
+    @Transient
+    public int getDurationMinutes() {
+        return DEFAULT_DURATION_MINUTES;
+    }
+
     @Transient
     public LocalDateTime getEndTime() {
-        return appointmentTime.plusHours(1);
+        return appointmentTime.plusMinutes(getDurationMinutes());
     }
 
     @Transient
@@ -3,11 +3,14 @@ package com.project.back_end.models;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
+import org.hibernate.annotations.BatchSize;
 
 import java.util.List;
 
 @Entity
-@Table(name = "doctors")
+@Table(name = "doctors",
+        uniqueConstraints = @UniqueConstraint(name = "uk_doctors_email", columnNames = "email"),
+        indexes = @Index(name = "idx_doctors_name_id", columnList = "name, id"))
 public class Doctor {
 
     // @Entity annotation:
@@ -19,7 +22,8 @@ public class Doctor {
     //    - Description:
     //      - Represents the unique identifier for each doctor.
     //      - The @Id annotation marks it as the primary key.
-    //      - The @GeneratedValue(strategy = GenerationType.IDENTITY) annotation auto-generates the ID value when a new record is inserted into the database.
+    //      - The @GeneratedValue(strategy = GenerationType.SEQUENCE) annotation draws IDs from the pooled `doctors_seq` sequence
+    //        (allocationSize 50), so Hibernate knows IDs before inserting and can batch the inserts.
 
     // 2. 'name' field:
     //    - Type: private String
@@ -65,12 +69,14 @@ public class Doctor {
     //      - Represents the available times for the doctor in a list of time slots.
     //      - Each time slot is represented as a string (e.g., "09:00-10:00", "10:00-11:00").
     //      - The @ElementCollection annotation ensures that the list of time slots is stored as a separate collection in the database.
+    //      - The @BatchSize(size = 50) annotation loads the collections of up to 50 doctors in one statement when a page of doctors is read.
 
     // 8. Getters and Setters:
     //    - Standard getter and setter methods are provided for all fields: id, name, specialty, email, password, phone, and availableTimes.
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "doctors_seq")
+    @SequenceGenerator(name = "doctors_seq", sequenceName = "doctors_seq", allocationSize = 50)
     private Long id;    
 
     @NotNull(message = "Name cannot be null")
@@ -96,6 +102,7 @@ public class Doctor {
     private String phone;
 
     @ElementCollection
+    @BatchSize(size = 50)
     private List<String> availableTimes;
 
     public Doctor() {}
@@ -0,0 +1,91 @@
+package com.project.back_end.models;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+
+@Entity
+@Table(name = "doctor_working_hours",
+        indexes = {
+                @Index(name = "idx_working_hours_day_range", columnList = "day_of_week, start_minute, end_minute"),
+                @Index(name = "idx_working_hours_doctor_day", columnList = "doctor_id, day_of_week")
+        })
+public class DoctorWorkingHours {
+
+    // 1. 'id' field:
+    //    - Type: private Long
+    //    - Description:
+    //      - Primary key drawn from the pooled `doctor_working_hours_seq` sequence (allocationSize 50), so the rows of
+    //        a doctor are inserted in one batch.
+
+    // 2. 'doctor' field:
+    //    - Type: private Doctor
+    //    - Description:
+    //      - The doctor working these hours. Loaded lazily; schedule queries only read `doctor.id`.
+
+    // 3. 'dayOfWeek' field:
+    //    - Type: private int
+    //    - Description:
+    //      - ISO day of week, 1 (Monday) to 7 (Sunday).
+
+    // 4. 'startMinute' and 'endMinute' fields:
+    //    - Type: private int
+    //    - Description:
+    //      - Start (inclusive) and end (exclusive) of the working range as minutes of day, e.g. 540-720 for "09:00-12:00".
+    //      - Stored as integers so "who works Tuesday afternoons" is an indexed range query on
+    //        (day_of_week, start_minute, end_minute) instead of string matching.
+
+    // 5. Source of truth:
+    //    - Rows are derived from `Doctor.availableTimes` whenever a doctor is saved or updated (see `WorkingHoursService`).
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "doctor_working_hours_seq")
+    @SequenceGenerator(name = "doctor_working_hours_seq", sequenceName = "doctor_working_hours_seq", allocationSize = 50)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @NotNull(message = "Doctor cannot be null")
+    private Doctor doctor;
+
+    @Min(1)
+    @Max(7)
+    private int dayOfWeek;
+
+    @Min(0)
+    @Max(24 * 60)
+    private int startMinute;
+
+    @Min(0)
+    @Max(24 * 60)
+    private int endMinute;
+
+    public DoctorWorkingHours() {}
+
+    public DoctorWorkingHours(Doctor doctor, int dayOfWeek, int startMinute, int endMinute) {
+        this.doctor = doctor;
+        this.dayOfWeek = dayOfWeek;
+        this.startMinute = startMinute;
+        this.endMinute = endMinute;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Doctor getDoctor() {
+        return doctor;
+    }
+
+    public int getDayOfWeek() {
+        return dayOfWeek;
+    }
+
+    public int getStartMinute() {
+        return startMinute;
+    }
+
+    public int getEndMinute() {
+        return endMinute;
+    }
+}
@@ -4,7 +4,11 @@ import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
 
 @Entity
-@Table(name = "patients")
+@Table(name = "patients",
+        uniqueConstraints = {
+                @UniqueConstraint(name = "uk_patients_email", columnNames = "email"),
+                @UniqueConstraint(name = "uk_patients_phone", columnNames = "phone")
+        })
 public class Patient {
 
     // @Entity annotation:
@@ -16,7 +20,8 @@ public class Patient {
     //    - Description:
     //      - Represents the unique identifier for each patient.
     //      - The @Id annotation marks it as the primary key.
-    //      - The @GeneratedValue(strategy = GenerationType.IDENTITY) annotation auto-generates the ID value when a new record is inserted into the database.
+    //      - The @GeneratedValue(strategy = GenerationType.SEQUENCE) annotation draws IDs from the pooled `patients_seq` sequence
+    //        (allocationSize 50), so Hibernate knows IDs before inserting and can batch the inserts.
 
     // 2. 'name' field:
     //    - Type: private String
@@ -61,7 +66,8 @@ public class Patient {
     //    - These methods allow access and modification of the fields of the Patient class.
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "patients_seq")
+    @SequenceGenerator(name = "patients_seq", sequenceName = "patients_seq", allocationSize = 50)
     private Long id;
 
     @NotNull(message = "Name cannot be null")
@@ -0,0 +1,65 @@
+package com.project.back_end.models;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "revoked_tokens",
+        indexes = {
+                @Index(name = "idx_revoked_tokens_expires_at", columnList = "expires_at"),
+                @Index(name = "idx_revoked_tokens_revoked_at", columnList = "revoked_at")
+        })
+public class RevokedToken {
+
+    // 1. 'tokenId' field:
+    //    - Type: private String
+    //    - Description:
+    //      - The `jti` claim of the revoked JWT, used as the primary key.
+    //      - Only the id is stored, never the token itself.
+
+    // 2. 'expiresAt' field:
+    //    - Type: private LocalDateTime
+    //    - Description:
+    //      - The expiry of the revoked token. Once it has passed, the token would be rejected anyway,
+    //        so the row can be purged.
+
+    // 3. 'revokedAt' field:
+    //    - Type: private LocalDateTime
+    //    - Description:
+    //      - When the token was revoked. Other instances load the revocations made since their last sync by it.
+
+    @Id
+    private String tokenId;
+
+    @NotNull(message = "Expiry cannot be null")
+    private LocalDateTime expiresAt;
+
+    @NotNull(message = "Revocation time cannot be null")
+    private LocalDateTime revokedAt;
+
+    public RevokedToken() {}
+
+    public RevokedToken(String tokenId, LocalDateTime expiresAt, LocalDateTime revokedAt) {
+        this.tokenId = tokenId;
+        this.expiresAt = expiresAt;
+        this.revokedAt = revokedAt;
+    }
+
+    public String getTokenId() {
+        return tokenId;
+    }
+
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(LocalDateTime expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
+    public LocalDateTime getRevokedAt() {
+        return revokedAt;
+    }
+}
@@ -0,0 +1,49 @@
+package com.project.back_end.models;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "token_versions",
+        indexes = @Index(name = "idx_token_versions_updated_at", columnList = "updated_at"))
+public class TokenVersion {
+
+    // 1. 'principal' field:
+    //    - Type: private String
+    //    - Description:
+    //      - The principal key `role:identifier` (e.g. `doctor:jane@clinic.com`), used as the primary key.
+
+    // 2. 'version' field:
+    //    - Type: private int
+    //    - Description:
+    //      - The principal's current token version. Tokens carrying an older `ver` claim are rejected.
+
+    // 3. 'updatedAt' field:
+    //    - Type: private LocalDateTime
+    //    - Description:
+    //      - When the version was last bumped. Other instances load the versions bumped since their last sync by it.
+
+    @Id
+    private String principal;
+
+    private int version;
+
+    @NotNull(message = "Update time cannot be null")
+    private LocalDateTime updatedAt;
+
+    public TokenVersion() {}
+
+    public String getPrincipal() {
+        return principal;
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+}
@@ -1,11 +1,10 @@
 package com.project.back_end.mvc;
 
-import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.GetMapping;
-import org.springframework.web.bind.annotation.PathVariable;
 
-import com.project.back_end.services.TokenService;
+import com.project.back_end.DTO.UserPrincipal;
+import com.project.back_end.config.CurrentUser;
 
 @Controller
 public class DashboardController {
@@ -34,17 +33,14 @@ public class DashboardController {
     //    - If the token is valid, forwards the user to the `"doctor/doctorDashboard"` view.
     //    - If the token is invalid, redirects to the root URL.
 
-    @Autowired
-    private TokenService tokenValidationService;
-
     /**
      * Admin dashboard access endpoint
      * Validates admin token and returns the Thymeleaf admin dashboard view.
      */
     @GetMapping("/adminDashboard/{token}")
-    public String adminDashboard(@PathVariable String token) {
+    public String adminDashboard(@CurrentUser UserPrincipal principal) {
         // Validate the admin token
-        boolean isValid = tokenValidationService.validateToken(token, "admin");
+        boolean isValid = principal != null && principal.hasRole("admin");
 
         // If the token is valid
         if (isValid) {
@@ -61,9 +57,9 @@ public class DashboardController {
      * Validates doctor token and returns the Thymeleaf doctor dashboard view.
      */
     @GetMapping("/doctorDashboard/{token}")
-    public String doctorDashboard(@PathVariable String token) {
+    public String doctorDashboard(@CurrentUser UserPrincipal principal) {
         // Validate the doctor token
-        boolean isValid = tokenValidationService.validateToken(token, "doctor");
+        boolean isValid = principal != null && principal.hasRole("doctor");
 
         // If the token is valid
         if (isValid) {
@@ -0,0 +1,23 @@
+package com.project.back_end.repo;
+
+import com.project.back_end.DTO.AppointmentDTO;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface AppointmentHistoryQueries {
+
+    /**
+     * 1. A patient's appointments as DTO rows, ordered by (appointmentTime, id). Only the filters that are given
+     *    become predicates, so every combination is its own SQL statement with its own plan.
+     *
+     * @param status    appointment status, or null for any
+     * @param doctorIds doctors to keep, or null for any
+     * @param afterTime with `afterId`, the (appointmentTime, id) keyset of the previous page, or null for the first
+     * @param limit     only limits the rows; unpaged for all of them
+     */
+    List<AppointmentDTO> findHistory(Long patientId, Integer status, Collection<Long> doctorIds,
+                                     LocalDateTime afterTime, Long afterId, Pageable limit);
+}
@@ -0,0 +1,68 @@
+package com.project.back_end.repo;
+
+import com.project.back_end.DTO.AppointmentDTO;
+import com.project.back_end.models.Appointment;
+import com.project.back_end.models.Doctor;
+import com.project.back_end.models.Patient;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+public class AppointmentHistoryQueriesImpl implements AppointmentHistoryQueries {
+    // 1. **Purpose**
+    // Builds the patient history query with a predicate for each filter in use and nothing for the others. One
+    // catch-all statement (`:status IS NULL OR a.status = :status`) gets one plan for every combination, so MySQL
+    // cannot pick (patient_id, status, appointment_time) when a status is given and (patient_id, appointment_time)
+    // when it is not.
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<AppointmentDTO> findHistory(Long patientId, Integer status, Collection<Long> doctorIds,
+                                            LocalDateTime afterTime, Long afterId, Pageable limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<AppointmentDTO> query = cb.createQuery(AppointmentDTO.class);
+        Root<Appointment> a = query.from(Appointment.class);
+        Join<Appointment, Doctor> d = a.join("doctor");
+        Join<Appointment, Patient> p = a.join("patient");
+        Path<LocalDateTime> time = a.get("appointmentTime");
+        Path<Long> id = a.get("id");
+
+        List<Predicate> where = new ArrayList<>();
+        where.add(cb.equal(p.get("id"), patientId));
+        if (status != null) {
+            where.add(cb.equal(a.get("status"), status));
+        }
+        if (doctorIds != null) {
+            where.add(d.get("id").in(doctorIds));
+        }
+        if (afterTime != null) {
+            where.add(cb.or(cb.greaterThan(time, afterTime),
+                    cb.and(cb.equal(time, afterTime), cb.greaterThan(id, afterId))));
+        }
+
+        query.select(cb.construct(AppointmentDTO.class, id, d.get("id"), d.get("name"), p.get("id"), p.get("name"),
+                        p.get("email"), p.get("phone"), p.get("address"), time, a.get("status")))
+                .where(where.toArray(new Predicate[0]))
+                .orderBy(cb.asc(time), cb.asc(id));
+
+        TypedQuery<AppointmentDTO> typed = entityManager.createQuery(query);
+        if (limit.isPaged()) {
+            typed.setMaxResults(limit.getPageSize());
+        }
+        return typed.getResultList();
+    }
+}
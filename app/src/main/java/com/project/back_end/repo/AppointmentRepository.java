@@ -1,5 +1,7 @@
 package com.project.back_end.repo;
 
+import com.project.back_end.DTO.AppointmentDTO;
+import com.project.back_end.DTO.BookedSlot;
 import com.project.back_end.models.Appointment;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
@@ -8,32 +10,32 @@ import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
-public interface AppointmentRepository extends JpaRepository<Appointment, Long> {
+public interface AppointmentRepository extends JpaRepository<Appointment, Long>, AppointmentHistoryQueries {
 
    // 1. Extend JpaRepository:
     //    - The repository extends JpaRepository<Appointment, Long>, which gives it basic CRUD functionality.
     //    - The methods such as save, delete, update, and find are inherited without the need for explicit implementation.
     //    - JpaRepository also includes pagination and sorting features.
 
-    // Example: public interface AppointmentRepository extends JpaRepository<Appointment, Long> {}
+    // Example: public interface AppointmentRepository extends JpaRepository<Appointment, Long>, AppointmentHistoryQueries {}
 
     // 2. Custom Query Methods:
 
-    //    - **findByDoctorIdAndAppointmentTimeBetween**:
-    //      - This method retrieves a list of appointments for a specific doctor within a given time range.
-    //      - The doctor’s available times are eagerly fetched to avoid lazy loading.
-    //      - Return type: List<Appointment>
+    //    - **findDayViewByDoctorId**:
+    //      - This method retrieves a doctor's appointments within a given time range as `AppointmentDTO` rows.
+    //      - A constructor expression joins the doctor and patient in one SQL statement, so no entity or lazy association is loaded.
+    //      - Return type: List<AppointmentDTO>
     //      - Parameters: Long doctorId, LocalDateTime start, LocalDateTime end
-    //      - It uses a LEFT JOIN to fetch the doctor’s available times along with the appointments.
 
-    //    - **findByDoctorIdAndPatient_NameContainingIgnoreCaseAndAppointmentTimeBetween**:
-    //      - This method retrieves appointments for a specific doctor and patient name (ignoring case) within a given time range.
-    //      - It performs a LEFT JOIN to fetch both the doctor and patient details along with the appointment times.
-    //      - Return type: List<Appointment>
-    //      - Parameters: Long doctorId, String patientName, LocalDateTime start, LocalDateTime end
+    //    - **findDayViewByDoctorIdAndPatientIds**:
+    //      - The same projection restricted to the given patients.
+    //      - The patient ids come from the name search in `PatientNameIndex`, so no LIKE query on patient names is needed.
+    //      - Return type: List<AppointmentDTO>
+    //      - Parameters: Long doctorId, Collection<Long> patientIds, LocalDateTime start, LocalDateTime end
 
     //    - **deleteAllByDoctorId**:
     //      - This method deletes all appointments associated with a particular doctor.
@@ -41,25 +43,14 @@ public interface AppointmentRepository extends JpaRepository<Appointment, Long>
     //      - Return type: void
     //      - Parameters: Long doctorId
 
-    //    - **findByPatientId**:
-    //      - This method retrieves all appointments for a specific patient.
-    //      - Return type: List<Appointment>
-    //      - Parameters: Long patientId
-
-    //    - **findByPatient_IdAndStatusOrderByAppointmentTimeAsc**:
-    //      - This method retrieves all appointments for a specific patient with a given status, ordered by the appointment time.
-    //      - Return type: List<Appointment>
-    //      - Parameters: Long patientId, int status
-
-    //    - **filterByDoctorNameAndPatientId**:
-    //      - This method retrieves appointments based on a doctor’s name (using a LIKE query) and the patient’s ID.
-    //      - Return type: List<Appointment>
-    //      - Parameters: String doctorName, Long patientId
-
-    //    - **filterByDoctorNameAndPatientIdAndStatus**:
-    //      - This method retrieves appointments based on a doctor’s name (using a LIKE query), patient’s ID, and a specific appointment status.
-    //      - Return type: List<Appointment>
-    //      - Parameters: String doctorName, Long patientId, int status
+    //    - **findHistory** (from `AppointmentHistoryQueries`):
+    //      - This method retrieves a patient's appointments as `AppointmentDTO` rows joined with doctor and patient in one SQL statement.
+    //      - Optional filters: status and doctor ids (null for any). The doctor ids come from the name search in `DoctorDirectory`,
+    //        so no LIKE query on doctor names is needed.
+    //      - Built as a criteria query with only the predicates in use, so each filter combination gets its own plan and index.
+    //      - Rows are ordered by (appointmentTime, id); with a keyset the page continues after it, and the Pageable only limits the rows.
+    //      - Return type: List<AppointmentDTO>
+    //      - Parameters: Long patientId, Integer status, Collection<Long> doctorIds, LocalDateTime afterTime, Long afterId, Pageable limit
 
     //    - **updateStatus**:
     //      - This method updates the status of a specific appointment based on its ID.
@@ -75,33 +66,25 @@ public interface AppointmentRepository extends JpaRepository<Appointment, Long>
     //    - Spring Data JPA automatically implements this repository, providing the necessary CRUD functionality and custom queries defined in the interface.
 
     /**
-     * 1. Retrieve appointments for a doctor within a given time range.
-     * Includes doctor and availability info.
+     * 1. A doctor's appointments within a time range as DTO rows, ordered by time (doctor day view).
      */
-    @Query("SELECT a FROM Appointment a " +
-           "LEFT JOIN FETCH a.doctor d " +
-           "LEFT JOIN FETCH d.availability av " +
-           "WHERE d.email = :doctorEmail AND a.appointmentTime BETWEEN :start AND :end")
-    List<Appointment> findByDoctorEmailAndAppointmentTimeBetween(String doctorEmail,
-                                                              LocalDateTime start,
-                                                              LocalDateTime end);
+    @Query("SELECT new com.project.back_end.DTO.AppointmentDTO(a.id, d.id, d.name, p.id, p.name, p.email, p.phone, " +
+           "p.address, a.appointmentTime, a.status) " +
+           "FROM Appointment a JOIN a.doctor d JOIN a.patient p " +
+           "WHERE d.id = :doctorId AND a.appointmentTime BETWEEN :start AND :end " +
+           "ORDER BY a.appointmentTime")
+    List<AppointmentDTO> findDayViewByDoctorId(Long doctorId, LocalDateTime start, LocalDateTime end);
 
     /**
-     * 2. Filter appointments by doctor ID, partial patient name (case-insensitive), and time range.
-     * Includes patient and doctor details.
+     * 2. A doctor's appointments with any of the given patients within a time range as DTO rows, ordered by time.
      */
-    @Query("SELECT a FROM Appointment a " +
-           "LEFT JOIN FETCH a.doctor d " +
-           "LEFT JOIN FETCH a.patient p " +
-           "WHERE d.id = :doctorId " +
-           "AND LOWER(p.name) LIKE LOWER(CONCAT('%', :patientName, '%')) " +
-           "AND a.appointmentTime BETWEEN :start AND :end")
-    List<Appointment> findByDoctorEmailAndPatient_NameContainingIgnoreCaseAndAppointmentTimeBetween(
-        String doctorEmail,
-        String patientName,
-        LocalDateTime start,
-        LocalDateTime end
-    );
+    @Query("SELECT new com.project.back_end.DTO.AppointmentDTO(a.id, d.id, d.name, p.id, p.name, p.email, p.phone, " +
+           "p.address, a.appointmentTime, a.status) " +
+           "FROM Appointment a JOIN a.doctor d JOIN a.patient p " +
+           "WHERE d.id = :doctorId AND p.id IN :patientIds AND a.appointmentTime BETWEEN :start AND :end " +
+           "ORDER BY a.appointmentTime")
+    List<AppointmentDTO> findDayViewByDoctorIdAndPatientIds(Long doctorId, Collection<Long> patientIds,
+                                                           LocalDateTime start, LocalDateTime end);
 
     /**
      * 3. Delete all appointments related to a specific doctor.
@@ -111,31 +94,20 @@ public interface AppointmentRepository extends JpaRepository<Appointment, Long>
     void deleteAllByDoctorId(Long doctorId);
 
     /**
-     * 4. Find all appointments for a specific patient.
-     */
-    List<Appointment> findByPatientId(Long patientId);
-
-    /**
-     * 5. Retrieve appointments for a patient by status, ordered by appointment time ascending.
-     */
-    List<Appointment> findByPatient_IdAndStatusOrderByAppointmentTimeAsc(Long patientId, int status);
-
-    /**
-     * 6. Search appointments by partial doctor name and patient ID (case-insensitive).
+     * 4. Start times of a doctor's appointments in [start, end), without loading the entities.
+     * Used to (re)build the in-memory availability index.
      */
-    @Query("SELECT a FROM Appointment a " +
-        "JOIN a.doctor d " +
-        "WHERE a.patient.id = :patientId " +
-        "AND LOWER(d.name) LIKE LOWER(CONCAT('%', :doctorName, '%'))")
-    List<Appointment> filterByDoctorNameAndPatientId(String doctorName, Long patientId);
+    @Query("SELECT a.appointmentTime FROM Appointment a " +
+        "WHERE a.doctor.id = :doctorId " +
+        "AND a.appointmentTime >= :start AND a.appointmentTime < :end")
+    List<LocalDateTime> findAppointmentTimesByDoctorId(Long doctorId, LocalDateTime start, LocalDateTime end);
 
     /**
-     * 7. Filter appointments by doctor name, patient ID, and status (case-insensitive).
+     * 5. Booked start times for several doctors in [start, end), grouped by the caller.
+     * One query for all doctors instead of one per doctor.
      */
-    @Query("SELECT a FROM Appointment a " +
-        "JOIN a.doctor d " +
-        "WHERE a.patient.id = :patientId " +
-        "AND a.status = :status " +
-        "AND LOWER(d.name) LIKE LOWER(CONCAT('%', :doctorName, '%'))")
-    List<Appointment> filterByDoctorNameAndPatientIdAndStatus(String doctorName, Long patientId, int status);
-}
\ No newline at end of file
+    @Query("SELECT new com.project.back_end.DTO.BookedSlot(a.doctor.id, a.appointmentTime) FROM Appointment a " +
+        "WHERE a.doctor.id IN :doctorIds " +
+        "AND a.appointmentTime >= :start AND a.appointmentTime < :end")
+    List<BookedSlot> findBookedSlotsByDoctorIds(Collection<Long> doctorIds, LocalDateTime start, LocalDateTime end);
+}
@@ -1,20 +1,25 @@
 package com.project.back_end.repo;
 
+import com.project.back_end.DTO.DoctorCard;
+import com.project.back_end.DTO.DoctorTimeWindow;
 import com.project.back_end.models.Doctor;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
-public interface DoctorRepository extends JpaRepository<Doctor, Long> {
+public interface DoctorRepository extends JpaRepository<Doctor, Long>, JpaSpecificationExecutor<Doctor> {
    // 1. Extend JpaRepository:
     //    - The repository extends JpaRepository<Doctor, Long>, which gives it basic CRUD functionality.
     //    - This allows the repository to perform operations like save, delete, update, and find without needing to implement these methods manually.
     //    - JpaRepository also includes features like pagination and sorting.
 
-    // Example: public interface DoctorRepository extends JpaRepository<Doctor, Long> {}
+    // Example: public interface DoctorRepository extends JpaRepository<Doctor, Long>, JpaSpecificationExecutor<Doctor> {}
 
     // 2. Custom Query Methods:
 
@@ -23,23 +28,18 @@ public interface DoctorRepository extends JpaRepository<Doctor, Long> {
     //      - Return type: Doctor
     //      - Parameters: String email
 
-    //    - **findByNameLike**:
-    //      - This method retrieves a list of Doctors whose name contains the provided search string (case-sensitive).
-    //      - The `CONCAT('%', :name, '%')` is used to create a pattern for partial matching.
-    //      - Return type: List<Doctor>
-    //      - Parameters: String name
-
-    //    - **findByNameContainingIgnoreCaseAndSpecialtyIgnoreCase**:
-    //      - This method retrieves a list of Doctors where the name contains the search string (case-insensitive) and the specialty matches exactly (case-insensitive).
-    //      - It combines both fields for a more specific search.
-    //      - Return type: List<Doctor>
-    //      - Parameters: String name, String specialty
+    //    - Name search is served by the trigram index in `DoctorDirectory`, not by leading-wildcard LIKE queries.
 
     //    - **findBySpecialtyIgnoreCase**:
     //      - This method retrieves a list of Doctors with the specified specialty, ignoring case sensitivity.
     //      - Return type: List<Doctor>
     //      - Parameters: String specialty
 
+    //    - The doctor listing pages with a keyset on (name, id) over `DoctorCard` projections (index `idx_doctors_name_id`),
+    //      then loads the page's availableTimes with one IN query.
+
+    //    - Combined name/specialty/AM-PM filtering is one paged `findAll(Specification, Pageable)` built by `DoctorSpecifications`.
+
     // 3. @Repository annotation:
     //    - The @Repository annotation marks this interface as a Spring Data JPA repository.
     //    - Spring Data JPA automatically implements this repository, providing the necessary CRUD functionality and custom queries defined in the interface.
@@ -50,22 +50,40 @@ public interface DoctorRepository extends JpaRepository<Doctor, Long> {
     Doctor findByEmail(String email);
 
     /**
-     * 2. Find doctors by partial name match using LIKE.
-     * Example: Passing "John" matches "John Doe", "Dr. Johnson", etc.
+     * 2. Find doctors by specialty (case-insensitive).
      */
-    @Query("SELECT d FROM Doctor d WHERE LOWER(d.name) LIKE LOWER(CONCAT('%', :name, '%'))")
-    List<Doctor> findByNameLike(String name);
+    List<Doctor> findBySpecialtyIgnoreCase(String specialty);
 
     /**
-     * 3. Filter doctors by partial name and exact specialty (both case-insensitive).
+     * 3. All doctors with their availableTimes fetched in the same statement (loads the in-memory directory).
      */
-    @Query("SELECT d FROM Doctor d " +
-           "WHERE LOWER(d.name) LIKE LOWER(CONCAT('%', :name, '%')) " +
-           "AND LOWER(d.specialty) = LOWER(:specialty)")
-    List<Doctor> findByNameContainingIgnoreCaseAndSpecialtyIgnoreCase(String name, String specialty);
+    @Query("SELECT DISTINCT d FROM Doctor d LEFT JOIN FETCH d.availableTimes")
+    List<Doctor> findAllWithAvailableTimes();
 
     /**
-     * 4. Find doctors by specialty (case-insensitive).
+     * 4. First page of doctor cards, ordered by (name, id).
      */
-    List<Doctor> findBySpecialtyIgnoreCase(String specialty);
-}
\ No newline at end of file
+    @Query("SELECT new com.project.back_end.DTO.DoctorCard(d.id, d.name, d.specialty, d.email) FROM Doctor d " +
+           "ORDER BY d.name, d.id")
+    List<DoctorCard> findCards(Pageable limit);
+
+    /**
+     * 5. Next page of doctor cards after the (name, id) keyset of the previous page's last card.
+     */
+    @Query("SELECT new com.project.back_end.DTO.DoctorCard(d.id, d.name, d.specialty, d.email) FROM Doctor d " +
+           "WHERE d.name > :name OR (d.name = :name AND d.id > :id) ORDER BY d.name, d.id")
+    List<DoctorCard> findCardsAfter(String name, Long id, Pageable limit);
+
+    /**
+     * 6. Working windows (availableTimes) of several doctors, without loading the entities.
+     */
+    @Query("SELECT new com.project.back_end.DTO.DoctorTimeWindow(d.id, t) FROM Doctor d JOIN d.availableTimes t " +
+           "WHERE d.id IN :doctorIds")
+    List<DoctorTimeWindow> findTimeWindowsByDoctorIds(Collection<Long> doctorIds);
+
+    /**
+     * 7. Those of the given ids that belong to an existing doctor.
+     */
+    @Query("SELECT d.id FROM Doctor d WHERE d.id IN :doctorIds")
+    List<Long> findExistingIds(Collection<Long> doctorIds);
+}
@@ -0,0 +1,152 @@
+package com.project.back_end.repo;
+
+import com.project.back_end.models.Doctor;
+import com.project.back_end.models.DoctorWorkingHours;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.Locale;
+
+public final class DoctorSpecifications {
+    // 1. **Purpose**
+    // Builds the single criteria query behind doctor filtering. Each filter is an optional predicate, so any
+    // combination of name, specialty, AM/PM and day of week becomes one WHERE clause instead of one repository
+    // method per combination.
+
+    // 2. **Time Filter**
+    // Time filters are EXISTS subqueries on the integer ranges of `doctor_working_hours`, served by its
+    // (day_of_week, start_minute, end_minute) index. A range counts for the morning when a slot fits in it starting
+    // before 12:00, and for the afternoon when a slot fits in it starting at or after 12:00. Doctors without working
+    // hours use the default schedule on every day, so they match when it does.
+
+    private static final int NOON_MINUTE = 12 * 60;
+    private static final int ANY_DAY = 0;
+
+    private DoctorSpecifications() {
+    }
+
+    /**
+     * 1. Doctors matching every given filter
+     *
+     * @param period              "AM", "PM" or null (any other value matches nothing)
+     * @param dayOfWeek           ISO day of week 1-7, or 0 for any day
+     * @param slotMinutes         length of one slot
+     * @param defaultHasMorning   whether the default schedule has a slot before 12:00
+     * @param defaultHasAfternoon whether the default schedule has a slot at or after 12:00
+     */
+    public static Specification<Doctor> matching(String name, String specialty, String period, int dayOfWeek,
+                                                 int slotMinutes, boolean defaultHasMorning, boolean defaultHasAfternoon) {
+        Specification<Doctor> spec = Specification.where(nameContains(name)).and(specialtyIs(specialty));
+        if ("AM".equals(period)) {
+            spec = spec.and(worksMorning(dayOfWeek, slotMinutes, defaultHasMorning));
+        } else if ("PM".equals(period)) {
+            spec = spec.and(worksAfternoon(dayOfWeek, slotMinutes, defaultHasAfternoon));
+        } else if (period != null) {
+            spec = spec.and((root, query, cb) -> cb.disjunction());
+        } else if (dayOfWeek != ANY_DAY) {
+            spec = spec.and(worksOn(dayOfWeek));
+        }
+        return spec;
+    }
+
+    /**
+     * 2. Case-insensitive partial match on the name (no predicate when blank)
+     */
+    public static Specification<Doctor> nameContains(String name) {
+        if (isBlank(name)) return null;
+        String pattern = "%" + escapeLike(name.trim().toLowerCase(Locale.ROOT)) + "%";
+        return (root, query, cb) -> cb.like(cb.lower(root.get("name")), pattern, '\\');
+    }
+
+    /**
+     * 3. Case-insensitive exact match on the specialty (no predicate when blank)
+     */
+    public static Specification<Doctor> specialtyIs(String specialty) {
+        if (isBlank(specialty)) return null;
+        String value = specialty.trim().toLowerCase(Locale.ROOT);
+        return (root, query, cb) -> cb.equal(cb.lower(root.get("specialty")), value);
+    }
+
+    /**
+     * 4. A working range (on the day, if given) holds a slot starting before noon
+     */
+    public static Specification<Doctor> worksMorning(int dayOfWeek, int slotMinutes, boolean defaultHasMorning) {
+        return (root, query, cb) -> {
+            Subquery<Integer> hours = query.subquery(Integer.class);
+            Root<DoctorWorkingHours> range = hours.from(DoctorWorkingHours.class);
+            Expression<Integer> start = range.get("startMinute");
+            Expression<Integer> end = range.get("endMinute");
+            hours.select(cb.literal(1)).where(
+                    ofDoctorOnDay(cb, range, root, dayOfWeek),
+                    cb.lessThan(start, NOON_MINUTE),
+                    cb.greaterThanOrEqualTo(cb.diff(end, start), slotMinutes));
+            return withDefault(cb, query, root, cb.exists(hours), defaultHasMorning);
+        };
+    }
+
+    /**
+     * 5. A working range (on the day, if given) holds a slot starting at or after noon
+     */
+    public static Specification<Doctor> worksAfternoon(int dayOfWeek, int slotMinutes, boolean defaultHasAfternoon) {
+        return (root, query, cb) -> {
+            Subquery<Integer> hours = query.subquery(Integer.class);
+            Root<DoctorWorkingHours> range = hours.from(DoctorWorkingHours.class);
+            Expression<Integer> start = range.get("startMinute");
+            Expression<Integer> end = range.get("endMinute");
+            hours.select(cb.literal(1)).where(
+                    ofDoctorOnDay(cb, range, root, dayOfWeek),
+                    cb.greaterThanOrEqualTo(end, NOON_MINUTE + slotMinutes),
+                    cb.greaterThanOrEqualTo(cb.diff(end, start), slotMinutes));
+            return withDefault(cb, query, root, cb.exists(hours), defaultHasAfternoon);
+        };
+    }
+
+    /**
+     * 6. The doctor has working hours on the day
+     */
+    public static Specification<Doctor> worksOn(int dayOfWeek) {
+        return (root, query, cb) -> {
+            Subquery<Integer> hours = query.subquery(Integer.class);
+            Root<DoctorWorkingHours> range = hours.from(DoctorWorkingHours.class);
+            hours.select(cb.literal(1)).where(ofDoctorOnDay(cb, range, root, dayOfWeek));
+            return withDefault(cb, query, root, cb.exists(hours), true);
+        };
+    }
+
+    /**
+     * Helper method: Correlate a working-hours range with the doctor, restricted to the day if given
+     */
+    private static Predicate ofDoctorOnDay(CriteriaBuilder cb, Root<DoctorWorkingHours> range, Root<Doctor> doctor,
+                                           int dayOfWeek) {
+        Predicate ofDoctor = cb.equal(range.get("doctor"), doctor);
+        return dayOfWeek == ANY_DAY ? ofDoctor : cb.and(ofDoctor, cb.equal(range.get("dayOfWeek"), dayOfWeek));
+    }
+
+    /**
+     * Helper method: Also accept doctors without any working hours when the default schedule qualifies
+     */
+    private static Predicate withDefault(CriteriaBuilder cb, CriteriaQuery<?> query, Root<Doctor> doctor,
+                                         Predicate hasRange, boolean defaultQualifies) {
+        if (!defaultQualifies) return hasRange;
+        Subquery<Integer> anyHours = query.subquery(Integer.class);
+        Root<DoctorWorkingHours> range = anyHours.from(DoctorWorkingHours.class);
+        anyHours.select(cb.literal(1)).where(cb.equal(range.get("doctor"), doctor));
+        return cb.or(hasRange, cb.not(cb.exists(anyHours)));
+    }
+
+    /**
+     * Helper method: Escape LIKE wildcards in user input
+     */
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+}
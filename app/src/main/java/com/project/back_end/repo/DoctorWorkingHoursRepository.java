@@ -0,0 +1,38 @@
+package com.project.back_end.repo;
+
+import com.project.back_end.DTO.WorkingHoursRange;
+import com.project.back_end.models.DoctorWorkingHours;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface DoctorWorkingHoursRepository extends JpaRepository<DoctorWorkingHours, Long> {
+
+    /**
+     * 1. Working-hours ranges of several doctors, without loading the entities.
+     */
+    @Query("SELECT new com.project.back_end.DTO.WorkingHoursRange(h.doctor.id, h.dayOfWeek, h.startMinute, h.endMinute) " +
+           "FROM DoctorWorkingHours h WHERE h.doctor.id IN :doctorIds")
+    List<WorkingHoursRange> findRangesByDoctorIds(Collection<Long> doctorIds);
+
+    /**
+     * 1a. Working-hours ranges of every doctor, without loading the entities (startup slot-limit check).
+     */
+    @Query("SELECT new com.project.back_end.DTO.WorkingHoursRange(h.doctor.id, h.dayOfWeek, h.startMinute, h.endMinute) " +
+           "FROM DoctorWorkingHours h")
+    List<WorkingHoursRange> findAllRanges();
+
+    /**
+     * 2. Delete the working hours of a doctor (before rewriting them or deleting the doctor).
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM DoctorWorkingHours h WHERE h.doctor.id = :doctorId")
+    void deleteByDoctorId(Long doctorId);
+}
@@ -1,9 +1,13 @@
 package com.project.back_end.repo;
 
+import com.project.back_end.DTO.PatientName;
 import com.project.back_end.models.Patient;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface PatientRepository extends JpaRepository<Patient, Long> {
     // 1. Extend JpaRepository:
@@ -39,4 +43,10 @@ public interface PatientRepository extends JpaRepository<Patient, Long> {
      * 2. Find a patient using either their email or phone number.
      */
     Patient findByEmailOrPhone(String email, String phone);
+
+    /**
+     * 3. Ids and names of all patients, without loading the entities (loads the name search index).
+     */
+    @Query("SELECT new com.project.back_end.DTO.PatientName(p.id, p.name) FROM Patient p")
+    List<PatientName> findAllNames();
 }
\ No newline at end of file
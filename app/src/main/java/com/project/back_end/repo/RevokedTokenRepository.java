@@ -0,0 +1,31 @@
+package com.project.back_end.repo;
+
+import com.project.back_end.models.RevokedToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, String> {
+
+    /**
+     * 1. Revoked tokens that have not expired yet.
+     */
+    List<RevokedToken> findByExpiresAtAfter(LocalDateTime now);
+
+    /**
+     * 2. Revocations made after the given time (incremental sync between instances).
+     */
+    List<RevokedToken> findByRevokedAtAfter(LocalDateTime since);
+
+    /**
+     * 3. Purge revoked tokens that have expired on their own.
+     */
+    @Modifying
+    @Transactional
+    void deleteByExpiresAtBefore(LocalDateTime now);
+}
@@ -0,0 +1,28 @@
+package com.project.back_end.repo;
+
+import com.project.back_end.models.TokenVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface TokenVersionRepository extends JpaRepository<TokenVersion, String> {
+
+    /**
+     * 1. Increment a principal's token version in one statement, creating the row at version 1.
+     * The increment happens in the database, so concurrent bumps from several instances are never lost.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO token_versions (principal, version, updated_at) VALUES (:principal, 1, :now) " +
+            "ON DUPLICATE KEY UPDATE version = version + 1, updated_at = :now", nativeQuery = true)
+    void increment(String principal, LocalDateTime now);
+
+    /**
+     * 2. Versions bumped after the given time (incremental sync between instances).
+     */
+    List<TokenVersion> findByUpdatedAtAfter(LocalDateTime since);
+}
@@ -1,8 +1,16 @@
 package com.project.back_end.services;
 
+import com.project.back_end.DTO.AppointmentDTO;
+import com.project.back_end.DTO.AppointmentSeriesRequest;
+import com.project.back_end.DTO.UserPrincipal;
 import com.project.back_end.models.Appointment;
+import com.project.back_end.models.Doctor;
+import com.project.back_end.models.Patient;
 import com.project.back_end.repo.AppointmentRepository;
+import com.project.back_end.repo.DoctorRepository;
+import com.project.back_end.repo.PatientRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
@@ -10,7 +18,9 @@ import org.springframework.stereotype.Service;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
 
 @Service
 public class AppointmentService {
@@ -30,7 +40,10 @@ public class AppointmentService {
 
     // 4. **Book Appointment Method**:
     //    - Responsible for saving the new appointment to the database.
-    //    - If the save operation fails, it returns `0`; otherwise, it returns `1`.
+    //    - The overlap check and the insert run under the striped lock of that doctor-day, so of two overlapping bookings only one wins.
+    //    - The unique constraint on (doctor_id, appointment_time) catches races across instances.
+    //    - Returns `1` on success, `-1` if the slot is already taken, `-2` if the doctor-day's lock could not be
+    //      acquired in time (the slot may well be free; the caller should retry), and `0` if the save operation fails.
     //    - Instruction: Ensure that the method handles any exceptions and returns an appropriate result code.
 
     // 5. **Update Appointment Method**:
@@ -46,6 +59,7 @@ public class AppointmentService {
 
     // 7. **Get Appointments Method**:
     //    - This method retrieves a list of appointments for a specific doctor on a particular day, optionally filtered by the patient's name.
+    //    - Rows are `AppointmentDTO` projections built in one SQL statement, so serializing them never touches lazy associations.
     //    - It uses `@Transactional` to ensure that database operations are consistent and handled in a single transaction.
     //    - Instruction: Ensure the correct use of transaction boundaries, especially when querying the database for appointments.
 
@@ -54,22 +68,63 @@ public class AppointmentService {
     //    - It should be annotated with `@Transactional` to ensure the operation is executed in a single transaction.
     //    - Instruction: Add `@Transactional` before this method to ensure atomicity when updating appointment status.
 
+    // 9. **Book Series Method**:
+    //    - Books a recurring series (every N weeks or every N days) for the authenticated patient.
+    //    - All occurrences are checked for overlap with existing appointments, loaded with one range query while
+    //      the locks of their doctor-days are held.
+    //    - The free occurrences are inserted with one `saveAll` call: one transaction, sent as JDBC batches.
+    //    - The response reports every occurrence as BOOKED, CONFLICT, OUTSIDE_SCHEDULE or PAST.
+    //    - A series may span at most a year and must end within a year from today, which bounds the range query and
+    //      keeps every occurrence's minute offset well inside an `int`; longer series are rejected as an invalid rule.
+
     @Autowired
     private AppointmentRepository appointmentRepository;
 
     @Autowired
-    private TokenService tokenService;
+    private AvailabilityIndex availabilityIndex;
+
+    @Autowired
+    private ScheduleEngine scheduleEngine;
+
+    @Autowired
+    private BookingLockStripes bookingLocks;
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private PatientNameIndex patientNameIndex;
+
+    private static final int MAX_SERIES_OCCURRENCES = 52;
+    private static final int MAX_SERIES_HORIZON_DAYS = 366;
+    private static final int MAX_PATIENT_ID_FILTER = 500;
 
     /**
      * 1. Book a new appointment
      */
-    public boolean bookAppointment(Appointment appointment) {
+    public int bookAppointment(Appointment appointment) {
+        long doctorId = appointment.getDoctor().getId();
+        LocalDateTime time = appointment.getAppointmentTime();
+
+        ReentrantLock lock = bookingLocks.tryLock(doctorId, time.toLocalDate());
+        if (lock == null) return -2; // Another booking of the doctor-day holds the stripe; the slot may be free
         try {
+            if (!availabilityIndex.isFree(doctorId, time, appointment.getDurationMinutes())) return -1;
             appointmentRepository.save(appointment);
-            return true;
+            availabilityIndex.markBooked(doctorId, time, appointment.getDurationMinutes());
+            return 1;
+        } catch (DataIntegrityViolationException e) {
+            // Booked through another instance; forget the stale local view of the doctor's days
+            availabilityIndex.evictDoctor(doctorId);
+            return -1;
         } catch (Exception e) {
             e.printStackTrace();
-            return false;
+            return 0;
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -85,22 +140,47 @@ public class AppointmentService {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
         }
 
+        Long previousDoctorId = existing.get().getDoctor().getId();
+        LocalDateTime previousTime = existing.get().getAppointmentTime();
+        int previousDuration = existing.get().getDurationMinutes();
+        long doctorId = appointment.getDoctor().getId();
+        LocalDateTime time = appointment.getAppointmentTime();
+        boolean moved = doctorId != previousDoctorId || !time.equals(previousTime);
+
+        // Moving to another slot takes the lock of its doctor-day, like a new booking. Within the same doctor-day the
+        // appointment's own interval is left out, so a shorter move (09:00 to 09:30) does not conflict with itself.
+        ReentrantLock lock = moved ? bookingLocks.tryLock(doctorId, time.toLocalDate()) : null;
+        LocalDateTime ownStart = doctorId == previousDoctorId ? previousTime : null;
+        if (moved && (lock == null || !availabilityIndex.isFree(doctorId, time, appointment.getDurationMinutes(),
+                ownStart, previousDuration))) {
+            if (lock != null) lock.unlock();
+            response.put("message", "The requested slot is no longer available");
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+        }
+
         try {
-            // Optionally add custom validation logic here
             appointmentRepository.save(appointment);
+            availabilityIndex.markFree(previousDoctorId, previousTime, previousDuration);
+            availabilityIndex.markBooked(doctorId, time, appointment.getDurationMinutes());
             response.put("message", "Appointment updated successfully");
             return ResponseEntity.ok(response);
+        } catch (DataIntegrityViolationException e) {
+            availabilityIndex.evictDoctor(doctorId);
+            response.put("message", "The requested slot is no longer available");
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
         } catch (Exception e) {
             e.printStackTrace();
             response.put("message", "Error updating appointment");
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        } finally {
+            if (lock != null) lock.unlock();
         }
     }
 
     /**
      * 3. Cancel an appointment
      */
-    public ResponseEntity<Map<String, String>> cancelAppointment(long id, String token) {
+    public ResponseEntity<Map<String, String>> cancelAppointment(long id, UserPrincipal patient) {
         Map<String, String> response = new HashMap<>();
         Optional<Appointment> existing = appointmentRepository.findById(id);
 
@@ -111,15 +191,16 @@ public class AppointmentService {
 
         Appointment appointment = existing.get();
 
-        // Optional: validate token to ensure the patient owns this appointment
-        String patientEmail = tokenService.extractEmailFromToken(token);
-        if (!Objects.equals(appointment.getPatient().getEmail(), patientEmail)) {
+        // Ensure the authenticated patient owns this appointment
+        if (!Objects.equals(appointment.getPatient().getId(), patient.getId())) {
             response.put("message", "Unauthorized to cancel this appointment");
             return ResponseEntity.status(HttpStatus.FORBIDDEN).body(response);
         }
 
         try {
             appointmentRepository.delete(appointment);
+            availabilityIndex.markFree(appointment.getDoctor().getId(), appointment.getAppointmentTime(),
+                    appointment.getDurationMinutes());
             response.put("message", "Appointment canceled successfully");
             return ResponseEntity.ok(response);
         } catch (Exception e) {
@@ -132,11 +213,11 @@ public class AppointmentService {
     /**
      * 4. Retrieve appointments for a doctor on a specific date, optionally filtered by patient name
      */
-    public Map<String, Object> getAppointment(String pname, LocalDate date, String token) {
+    public Map<String, Object> getAppointment(String pname, LocalDate date, UserPrincipal doctor) {
         Map<String, Object> response = new HashMap<>();
 
-        String doctorEmail = tokenService.extractEmailFromToken(token);
-        if (doctorEmail == null) {
+        Long doctorId = doctor == null ? null : doctor.getId();
+        if (doctorId == null) {
             response.put("message", "Invalid token or unauthorized");
             return response;
         }
@@ -144,16 +225,21 @@ public class AppointmentService {
         LocalDateTime start = date.atStartOfDay();
         LocalDateTime end = date.atTime(LocalTime.MAX);
 
-        List<Appointment> appointments;
-
-        if (pname != null && !pname.isBlank()) {
-            appointments = appointmentRepository
-                    .findByDoctorEmailAndPatient_NameContainingIgnoreCaseAndAppointmentTimeBetween(
-                            doctorEmail, pname, start, end
-                    );
+        // The patient name filter is resolved by the trigram index, not LIKE; "null" is the frontend's "no filter"
+        List<AppointmentDTO> appointments;
+        if (pname == null || pname.isBlank() || "null".equals(pname)) {
+            appointments = appointmentRepository.findDayViewByDoctorId(doctorId, start, end);
         } else {
-            appointments = appointmentRepository
-                    .findByDoctorEmailAndAppointmentTimeBetween(doctorEmail, start, end);
+            Set<Long> patientIds = patientNameIndex.search(pname);
+            if (patientIds.isEmpty()) {
+                appointments = List.of();
+            } else if (patientIds.size() <= MAX_PATIENT_ID_FILTER) {
+                appointments = appointmentRepository.findDayViewByDoctorIdAndPatientIds(doctorId, patientIds, start, end);
+            } else {
+                // A short name matches too many patients for an IN list; a doctor-day is small, so filter it instead
+                appointments = new ArrayList<>(appointmentRepository.findDayViewByDoctorId(doctorId, start, end));
+                appointments.removeIf(appointment -> !patientIds.contains(appointment.getPatientId()));
+            }
         }
 
         response.put("appointments", appointments);
@@ -168,7 +254,148 @@ public class AppointmentService {
         if (appointment.getDoctor() == null || appointment.getPatient() == null) return false;
         if (appointment.getAppointmentDate() == null || appointment.getAppointmentTime() == null) return false;
         if (appointment.getAppointmentDate().isBefore(LocalDate.now())) return false;
-        // Add more business rules as needed (e.g., check for valid time slots, etc.)
-        return true;
+        if (appointment.getDoctor().getId() == null) return false;
+        // The time must be the start of one of the doctor's slots
+        return scheduleEngine.isSlotStart(appointment.getDoctor().getId(), appointment.getAppointmentTime());
+    }
+
+    /**
+     * 6. Book a recurring series of appointments for a patient
+     */
+    public ResponseEntity<Map<String, Object>> bookSeries(AppointmentSeriesRequest request, UserPrincipal patient) {
+        Map<String, Object> response = new HashMap<>();
+
+        List<LocalDateTime> times = occurrencesOf(request);
+        if (times == null) {
+            response.put("error", "Invalid recurrence rule.");
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+        }
+
+        Optional<Doctor> doctor = doctorRepository.findById(request.getDoctorId());
+        Optional<Patient> owner = patientRepository.findById(patient.getId());
+        if (doctor.isEmpty() || owner.isEmpty()) {
+            response.put("error", "Doctor or patient not found.");
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+        }
+
+        long doctorId = request.getDoctorId();
+        Set<LocalDate> days = new TreeSet<>();
+        times.forEach(time -> days.add(time.toLocalDate()));
+        List<ReentrantLock> locks = bookingLocks.tryLockAll(doctorId, days);
+        if (locks == null) {
+            response.put("error", "These slots are being booked right now. Please try again.");
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+        }
+        try {
+            List<Appointment> candidates = new ArrayList<>(times.size());
+            int longest = 0;
+            for (LocalDateTime time : times) {
+                Appointment candidate = new Appointment(doctor.get(), owner.get(), time, 0);
+                candidates.add(candidate);
+                longest = Math.max(longest, candidate.getDurationMinutes());
+            }
+
+            // One range query covers every occurrence; intervals are in minutes since the first day's midnight.
+            // Stored appointments have no duration column yet, so they span the default length.
+            LocalDateTime origin = times.get(0).toLocalDate().atStartOfDay();
+            List<LocalDateTime> existingTimes = appointmentRepository.findAppointmentTimesByDoctorId(doctorId,
+                    times.get(0).minusMinutes(Appointment.DEFAULT_DURATION_MINUTES - 1L),
+                    times.get(times.size() - 1).plusMinutes(longest));
+            int[] starts = new int[existingTimes.size()];
+            int[] ends = new int[existingTimes.size()];
+            for (int i = 0; i < starts.length; i++) {
+                starts[i] = minutesFrom(origin, existingTimes.get(i));
+                ends[i] = starts[i] + Appointment.DEFAULT_DURATION_MINUTES;
+            }
+            OverlapDetector booked = OverlapDetector.of(starts, ends, starts.length);
+
+            LocalDateTime now = LocalDateTime.now();
+            List<Appointment> toSave = new ArrayList<>();
+            List<Map<String, Object>> report = new ArrayList<>(times.size());
+            for (Appointment candidate : candidates) {
+                LocalDateTime time = candidate.getAppointmentTime();
+                int start = minutesFrom(origin, time);
+                String status;
+                if (!time.isAfter(now)) {
+                    status = "PAST";
+                } else if (!scheduleEngine.isSlotStart(doctorId, time)) {
+                    status = "OUTSIDE_SCHEDULE";
+                } else if (booked.overlaps(start, start + candidate.getDurationMinutes())
+                        || availabilityIndex.isHeld(doctorId, time)) {
+                    status = "CONFLICT";
+                } else {
+                    status = "BOOKED";
+                    toSave.add(candidate);
+                }
+
+                Map<String, Object> occurrence = new LinkedHashMap<>();
+                occurrence.put("appointmentTime", time);
+                occurrence.put("status", status);
+                report.add(occurrence);
+            }
+
+            if (!toSave.isEmpty()) {
+                appointmentRepository.saveAll(toSave);
+                for (Appointment appointment : toSave) {
+                    availabilityIndex.markBooked(doctorId, appointment.getAppointmentTime(),
+                            appointment.getDurationMinutes());
+                }
+            }
+
+            response.put("booked", toSave.size());
+            response.put("occurrences", report);
+            return ResponseEntity.status(toSave.isEmpty() ? HttpStatus.CONFLICT : HttpStatus.CREATED).body(response);
+        } catch (DataIntegrityViolationException e) {
+            // A slot was booked through another instance; the whole insert was rolled back
+            availabilityIndex.evictDoctor(doctorId);
+            response.put("error", "One of the slots was just booked. Nothing was booked, please try again.");
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+        } catch (Exception e) {
+            e.printStackTrace();
+            response.put("error", "Failed to book appointment series.");
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        } finally {
+            bookingLocks.unlockAll(locks);
+        }
+    }
+
+    /**
+     * Helper method: Minutes from the series origin; occurrencesOf bounds the series, so this never overflows
+     */
+    private static int minutesFrom(LocalDateTime origin, LocalDateTime time) {
+        return Math.toIntExact(ChronoUnit.MINUTES.between(origin, time));
+    }
+
+    /**
+     * Helper method: Start times of every occurrence of a series, or null if the rule is invalid, spans more than
+     * MAX_SERIES_HORIZON_DAYS or ends more than MAX_SERIES_HORIZON_DAYS after today
+     */
+    private static List<LocalDateTime> occurrencesOf(AppointmentSeriesRequest request) {
+        if (request == null || request.getDoctorId() == null || request.getFirstAppointmentTime() == null
+                || request.getFrequency() == null) return null;
+        if (request.getOccurrences() < 1 || request.getOccurrences() > MAX_SERIES_OCCURRENCES
+                || request.getInterval() < 1) return null;
+
+        long stepDays;
+        switch (request.getFrequency().trim().toUpperCase(Locale.ENGLISH)) {
+            case "WEEKLY" -> stepDays = 7L * request.getInterval();
+            case "DAILY" -> stepDays = request.getInterval();
+            default -> {
+                return null;
+            }
+        }
+
+        // Checked on epoch days before any date arithmetic, which would throw past LocalDateTime's range
+        long spanDays = (request.getOccurrences() - 1L) * stepDays;
+        long lastDay = request.getFirstAppointmentTime().toLocalDate().toEpochDay() + spanDays;
+        if (spanDays > MAX_SERIES_HORIZON_DAYS || lastDay > LocalDate.now().toEpochDay() + MAX_SERIES_HORIZON_DAYS) {
+            return null;
+        }
+
+        List<LocalDateTime> times = new ArrayList<>(request.getOccurrences());
+        for (int i = 0; i < request.getOccurrences(); i++) {
+            times.add(request.getFirstAppointmentTime().plusDays(i * stepDays));
+        }
+        return times;
     }
 }
\ No newline at end of file
@@ -0,0 +1,442 @@
+package com.project.back_end.services;
+
+import com.project.back_end.DTO.BookedSlot;
+import com.project.back_end.models.Appointment;
+import com.project.back_end.repo.AppointmentRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+@Component
+public class AvailabilityIndex {
+    // 1. **Purpose**
+    // Keeps the appointments of each doctor-day in memory, so availability reads need no query and no per-slot
+    // string formatting.
+
+    // 2. **Intervals and Slots**
+    // Each cached doctor-day holds its appointments as minute-of-day intervals in an `OverlapDetector`, plus a
+    // primitive bitmap over the doctor's `DoctorSchedule` (built by `ScheduleEngine`): bit `i` is set when slot `i`
+    // overlaps any appointment. A 09:30 appointment therefore blocks the 09:00 and 10:00 slots, and appointments
+    // longer than a slot block every slot they cover. Reads return free slot starts as minute-of-day integers;
+    // callers format them at the JSON boundary. Booking checks query the intervals directly in O(log n).
+
+    // 3. **Incremental Updates and Lazy Rebuild**
+    // `AppointmentService` calls `markBooked` / `markFree` after booking, updating and cancelling.
+    // Doctor-days that are not cached are rebuilt from the database on the first read.
+
+    // 4. **Rebuild Race**
+    // A rebuild reads the database and then installs the bitmap. If a booking lands in between, its `markBooked`
+    // finds no entry to update and the rebuild would install a stale bitmap. Each update therefore bumps a striped
+    // generation counter first, and a rebuild only installs its result if the generation did not move meanwhile.
+    // The comparison runs inside `compute` on the doctor-day's key, so it is serialized with the update's
+    // `computeIfPresent`: either the update sees the installed entry, or the install sees the moved generation.
+
+    // 5. **Date Ranges**
+    // For a range of days, all uncached days are rebuilt with a single range query and grouped by day,
+    // instead of one query per day. Likewise, for many doctors on one day, all uncached doctors are loaded with one
+    // `doctor_id IN (...)` query.
+
+    // 6. **Bounded Memory**
+    // Doctor-days are only cached for doctors whose schedule `ScheduleEngine` has cached (i.e. that exist) and for
+    // dates from today up to `availability.index.horizon-days` ahead. Other reads are answered from the database
+    // without caching, so arbitrary doctor ids or dates in requests cannot grow the cache.
+
+    // 7. **Other Instances**
+    // Bookings made through other instances never reach this cache. Each cached doctor-day therefore expires
+    // `availability.index.ttl-seconds` after it was read from the database and is rebuilt on the next read, so
+    // another instance's booking shows up here within that time. Local updates keep the entry's expiry.
+
+    // 8. **Holds**
+    // Slots held during checkout (`SlotHoldService`) are kept per doctor-day as sorted minute-of-day starts, not as
+    // slot bits, so a schedule change cannot make a hold point at another slot or leave it uncleared; reads map them
+    // onto the current schedule and treat a held slot like a booked one. Holds are never rebuilt from the database.
+
+    private static final int GENERATION_STRIPES = 64;
+
+    private final AppointmentRepository appointmentRepository;
+    private final ScheduleEngine scheduleEngine;
+    private final int horizonDays;
+    private final long ttlMillis;
+
+    private final Map<Long, DayBookings> bookedByDoctorDay = new ConcurrentHashMap<>();
+    private final Map<Long, int[]> heldByDoctorDay = new ConcurrentHashMap<>();
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+
+    public AvailabilityIndex(AppointmentRepository appointmentRepository, ScheduleEngine scheduleEngine,
+                             @Value("${availability.index.horizon-days:366}") int horizonDays,
+                             @Value("${availability.index.ttl-seconds:30}") long ttlSeconds) {
+        this.appointmentRepository = appointmentRepository;
+        this.scheduleEngine = scheduleEngine;
+        this.horizonDays = horizonDays;
+        this.ttlMillis = ttlSeconds * 1000;
+    }
+
+    /**
+     * 1. Free slot starts (minute of day) for a doctor on a date
+     */
+    public int[] freeSlots(long doctorId, LocalDate date) {
+        DoctorSchedule schedule = scheduleEngine.scheduleFor(doctorId, date);
+        return schedule.freeSlots(bookings(doctorId, date).blocked | held(schedule, doctorId, date));
+    }
+
+    /**
+     * 2. Free slot starts for a doctor on each day of [from, to], loading uncached days with one query
+     */
+    public Map<LocalDate, int[]> freeSlots(long doctorId, LocalDate from, LocalDate to) {
+        int days = (int) (to.toEpochDay() - from.toEpochDay()) + 1;
+        DoctorSchedule[] schedules = new DoctorSchedule[days];
+        DayBookings[] booked = new DayBookings[days];
+        IntervalBuffer[] loaded = new IntervalBuffer[days];
+        long[] generationBefore = new long[days];
+        int firstMissing = -1;
+        int lastMissing = -1;
+        long now = System.currentTimeMillis();
+
+        for (int i = 0; i < days; i++) {
+            LocalDate date = from.plusDays(i);
+            schedules[i] = scheduleEngine.scheduleFor(doctorId, date);
+            long key = key(doctorId, date);
+            DayBookings cached = bookedByDoctorDay.get(key);
+            if (cached != null && cached.expiresAt > now) {
+                booked[i] = cached;
+            } else {
+                loaded[i] = new IntervalBuffer();
+                generationBefore[i] = generations.get(stripe(key));
+                if (firstMissing < 0) firstMissing = i;
+                lastMissing = i;
+            }
+        }
+
+        if (firstMissing >= 0) {
+            for (LocalDateTime time : appointmentRepository.findAppointmentTimesByDoctorId(doctorId,
+                    from.plusDays(firstMissing).atStartOfDay(), from.plusDays(lastMissing + 1L).atStartOfDay())) {
+                int day = (int) (time.toLocalDate().toEpochDay() - from.toEpochDay());
+                if (loaded[day] != null) loaded[day].add(time, Appointment.DEFAULT_DURATION_MINUTES);
+            }
+            for (int i = firstMissing; i <= lastMissing; i++) {
+                if (loaded[i] != null) {
+                    booked[i] = install(doctorId, from.plusDays(i), generationBefore[i],
+                            DayBookings.of(schedules[i], loaded[i].toDetector(), now + ttlMillis));
+                }
+            }
+        }
+
+        Map<LocalDate, int[]> availability = new LinkedHashMap<>();
+        for (int i = 0; i < days; i++) {
+            LocalDate date = from.plusDays(i);
+            availability.put(date, schedules[i].freeSlots(booked[i].blocked | held(schedules[i], doctorId, date)));
+        }
+        return availability;
+    }
+
+    /**
+     * 3. Free slot starts for several doctors on one date, loading uncached doctors with one query
+     */
+    public Map<Long, int[]> freeSlots(Collection<Long> doctorIds, LocalDate date) {
+        Map<Long, DoctorSchedule> schedules = scheduleEngine.schedulesFor(doctorIds, date);
+        Map<Long, DayBookings> booked = new HashMap<>();
+        Map<Long, Long> generationBefore = new HashMap<>();
+        long now = System.currentTimeMillis();
+
+        for (Long doctorId : doctorIds) {
+            long key = key(doctorId, date);
+            DayBookings cached = bookedByDoctorDay.get(key);
+            if (cached != null && cached.expiresAt > now) {
+                booked.put(doctorId, cached);
+            } else {
+                generationBefore.put(doctorId, generations.get(stripe(key)));
+            }
+        }
+
+        if (!generationBefore.isEmpty()) {
+            Map<Long, IntervalBuffer> loaded = new HashMap<>();
+            for (BookedSlot slot : appointmentRepository.findBookedSlotsByDoctorIds(
+                    generationBefore.keySet(), date.atStartOfDay(), date.plusDays(1).atStartOfDay())) {
+                loaded.computeIfAbsent(slot.doctorId(), id -> new IntervalBuffer())
+                        .add(slot.appointmentTime(), Appointment.DEFAULT_DURATION_MINUTES);
+            }
+            generationBefore.forEach((doctorId, generation) -> {
+                IntervalBuffer intervals = loaded.get(doctorId);
+                OverlapDetector detector = intervals == null ? OverlapDetector.EMPTY : intervals.toDetector();
+                booked.put(doctorId, install(doctorId, date, generation,
+                        DayBookings.of(schedules.get(doctorId), detector, now + ttlMillis)));
+            });
+        }
+
+        Map<Long, int[]> free = new HashMap<>();
+        for (Long doctorId : doctorIds) {
+            DoctorSchedule schedule = schedules.get(doctorId);
+            free.put(doctorId, schedule.freeSlots(booked.get(doctorId).blocked | held(schedule, doctorId, date)));
+        }
+        return free;
+    }
+
+    /**
+     * 4. Whether an appointment of the given length can start at the given time: it must be a slot start,
+     *    the slot must not be held, and [start, start + duration) must not overlap any appointment
+     */
+    public boolean isFree(long doctorId, LocalDateTime start, int durationMinutes) {
+        return isFree(doctorId, start, durationMinutes, null, 0);
+    }
+
+    /**
+     * 4a. Whether an existing appointment of the doctor can be moved to the given time: as `isFree`, but the
+     *     appointment's own interval [previousStart, previousStart + previousDuration) does not count as a conflict
+     */
+    public boolean isFree(long doctorId, LocalDateTime start, int durationMinutes,
+                          LocalDateTime previousStart, int previousDuration) {
+        LocalDate date = start.toLocalDate();
+        DoctorSchedule schedule = scheduleEngine.scheduleFor(doctorId, date);
+        long bit = bitOf(schedule, start);
+        if (bit == 0 || (held(schedule, doctorId, date) & bit) != 0) return false;
+
+        OverlapDetector intervals = bookings(doctorId, date).intervals;
+        if (previousStart != null && previousStart.toLocalDate().equals(date)) {
+            int previous = minuteOf(previousStart);
+            intervals = intervals.without(previous, previous + previousDuration);
+        }
+        int minute = ScheduleEngine.minuteOfDay(start.toLocalTime());
+        return !intervals.overlaps(minute, minute + durationMinutes);
+    }
+
+    /**
+     * 4b. Whether a default-length appointment can start at the given time
+     */
+    public boolean isFree(long doctorId, LocalDateTime start) {
+        return isFree(doctorId, start, Appointment.DEFAULT_DURATION_MINUTES);
+    }
+
+    /**
+     * 4c. Whether the slot starting at the given time is held for checkout
+     */
+    public boolean isHeld(long doctorId, LocalDateTime start) {
+        int[] minutes = heldByDoctorDay.get(key(doctorId, start.toLocalDate()));
+        return minutes != null && Arrays.binarySearch(minutes, minuteOf(start)) >= 0;
+    }
+
+    /**
+     * 4d. Mark a free slot as held. Callers hold the doctor-day's `BookingLockStripes` lock.
+     *     Returns false if the slot is not a slot start or is already booked or held.
+     */
+    public boolean hold(long doctorId, LocalDateTime start) {
+        if (!isFree(doctorId, start, scheduleEngine.scheduleFor(doctorId, start.toLocalDate()).slotMinutes())) {
+            return false;
+        }
+        int minute = minuteOf(start);
+        heldByDoctorDay.merge(key(doctorId, start.toLocalDate()), new int[]{minute}, (minutes, added) -> {
+            int index = Arrays.binarySearch(minutes, minute);
+            if (index >= 0) return minutes;
+            int insert = -index - 1;
+            int[] grown = new int[minutes.length + 1];
+            System.arraycopy(minutes, 0, grown, 0, insert);
+            grown[insert] = minute;
+            System.arraycopy(minutes, insert, grown, insert + 1, minutes.length - insert);
+            return grown;
+        });
+        return true;
+    }
+
+    /**
+     * 4e. Clear a hold (expired, released or converted into a booking), whatever the doctor's schedule is now
+     */
+    public void releaseHold(long doctorId, LocalDateTime start) {
+        int minute = minuteOf(start);
+        heldByDoctorDay.computeIfPresent(key(doctorId, start.toLocalDate()), (k, minutes) -> {
+            int index = Arrays.binarySearch(minutes, minute);
+            if (index < 0) return minutes;
+            if (minutes.length == 1) return null;
+            int[] shrunk = new int[minutes.length - 1];
+            System.arraycopy(minutes, 0, shrunk, 0, index);
+            System.arraycopy(minutes, index + 1, shrunk, index, minutes.length - index - 1);
+            return shrunk;
+        });
+    }
+
+    /**
+     * 5. Record a new booking
+     */
+    public void markBooked(long doctorId, LocalDateTime start, int durationMinutes) {
+        DoctorSchedule schedule = scheduleEngine.scheduleFor(doctorId, start.toLocalDate());
+        int minute = minuteOf(start);
+        long key = key(doctorId, start.toLocalDate());
+        generations.incrementAndGet(stripe(key));
+        bookedByDoctorDay.computeIfPresent(key,
+                (k, day) -> DayBookings.of(schedule, day.intervals.with(minute, minute + durationMinutes), day.expiresAt));
+    }
+
+    /**
+     * 6. Record a cancelled or moved booking
+     */
+    public void markFree(long doctorId, LocalDateTime start, int durationMinutes) {
+        DoctorSchedule schedule = scheduleEngine.scheduleFor(doctorId, start.toLocalDate());
+        int minute = minuteOf(start);
+        long key = key(doctorId, start.toLocalDate());
+        generations.incrementAndGet(stripe(key));
+        bookedByDoctorDay.computeIfPresent(key,
+                (k, day) -> DayBookings.of(schedule, day.intervals.without(minute, minute + durationMinutes), day.expiresAt));
+    }
+
+    /**
+     * 7. Forget every cached day of a doctor (after deletion or a schedule change)
+     */
+    public void evictDoctor(long doctorId) {
+        bookedByDoctorDay.keySet().removeIf(key -> (key >>> 24) == doctorId);
+    }
+
+    /**
+     * 8. Drop days that are already in the past
+     */
+    @Scheduled(cron = "${availability.index.purge-cron:0 5 0 * * *}")
+    public void purgePastDays() {
+        long today = LocalDate.now().toEpochDay();
+        bookedByDoctorDay.keySet().removeIf(key -> (key & 0xFFFFFF) < today);
+        heldByDoctorDay.keySet().removeIf(key -> (key & 0xFFFFFF) < today);
+    }
+
+    /**
+     * 9. Drop expired doctor-days that were not read again, so the cache only holds days in use
+     */
+    @Scheduled(fixedDelayString = "${availability.index.purge-interval-ms:60000}",
+            initialDelayString = "${availability.index.purge-interval-ms:60000}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        bookedByDoctorDay.values().removeIf(day -> day.expiresAt <= now);
+    }
+
+    /**
+     * Helper method: Bitmap of held slots for a doctor-day, over the given schedule; holds on minutes that are no
+     * longer slot starts block nothing
+     */
+    private long held(DoctorSchedule schedule, long doctorId, LocalDate date) {
+        if (heldByDoctorDay.isEmpty()) return 0;
+        int[] minutes = heldByDoctorDay.get(key(doctorId, date));
+        if (minutes == null) return 0;
+        long held = 0;
+        for (int minute : minutes) {
+            int slot = schedule.indexOf(minute);
+            if (slot >= 0) held |= 1L << slot;
+        }
+        return held;
+    }
+
+    /**
+     * Helper method: Cached appointments of a doctor-day, rebuilt from the database on a miss
+     */
+    private DayBookings bookings(long doctorId, LocalDate date) {
+        long key = key(doctorId, date);
+        long now = System.currentTimeMillis();
+        DayBookings cached = bookedByDoctorDay.get(key);
+        if (cached != null && cached.expiresAt > now) return cached;
+
+        long generation = generations.get(stripe(key));
+        IntervalBuffer intervals = new IntervalBuffer();
+        for (LocalDateTime time : appointmentRepository.findAppointmentTimesByDoctorId(
+                doctorId, date.atStartOfDay(), date.plusDays(1).atStartOfDay())) {
+            intervals.add(time, Appointment.DEFAULT_DURATION_MINUTES);
+        }
+
+        return install(doctorId, date, generation,
+                DayBookings.of(scheduleEngine.scheduleFor(doctorId, date), intervals.toDetector(), now + ttlMillis));
+    }
+
+    /**
+     * Helper method: Cache a rebuilt doctor-day unless an update raced with the rebuild, or the doctor is unknown,
+     * or the date is outside the cached horizon. Replaces an expired entry; a live one installed meanwhile wins.
+     */
+    private DayBookings install(long doctorId, LocalDate date, long generationBefore, DayBookings booked) {
+        long daysAhead = date.toEpochDay() - LocalDate.now().toEpochDay();
+        if (daysAhead < 0 || daysAhead > horizonDays || !scheduleEngine.isCached(doctorId)) return booked;
+
+        long key = key(doctorId, date);
+        long now = System.currentTimeMillis();
+        DayBookings installed = bookedByDoctorDay.compute(key, (k, current) -> {
+            if (current != null && current.expiresAt > now) return current;
+            return generations.get(stripe(key)) == generationBefore ? booked : null;
+        });
+        return installed == null ? booked : installed;
+    }
+
+    /**
+     * Helper method: Bitmap bit of the slot starting at the given time, or 0 if it is not a slot start
+     */
+    private static long bitOf(DoctorSchedule schedule, LocalDateTime time) {
+        int minute = ScheduleEngine.minuteOfDay(time.toLocalTime());
+        int slot = minute < 0 ? -1 : schedule.indexOf(minute);
+        return slot < 0 ? 0 : 1L << slot;
+    }
+
+    /**
+     * Helper method: Minute of day of a start time, keeping seconds out (they never match a slot)
+     */
+    private static int minuteOf(LocalDateTime time) {
+        return time.getHour() * 60 + time.getMinute();
+    }
+
+    private static long key(long doctorId, LocalDate date) {
+        return (doctorId << 24) | (date.toEpochDay() & 0xFFFFFF);
+    }
+
+    private static int stripe(long key) {
+        return (int) ((key ^ (key >>> 24)) & (GENERATION_STRIPES - 1));
+    }
+
+    /**
+     * A cached doctor-day: its appointment intervals, the schedule slots they block, and when it must be re-read
+     */
+    private static final class DayBookings {
+        private final OverlapDetector intervals;
+        private final long blocked;
+        private final long expiresAt;
+
+        private DayBookings(OverlapDetector intervals, long blocked, long expiresAt) {
+            this.intervals = intervals;
+            this.blocked = blocked;
+            this.expiresAt = expiresAt;
+        }
+
+        private static DayBookings of(DoctorSchedule schedule, OverlapDetector intervals, long expiresAt) {
+            long blocked = 0;
+            if (intervals.size() > 0) {
+                for (int i = 0; i < schedule.slotCount(); i++) {
+                    int start = schedule.slotStart(i);
+                    if (intervals.overlaps(start, start + schedule.slotMinutes())) blocked |= 1L << i;
+                }
+            }
+            return new DayBookings(intervals, blocked, expiresAt);
+        }
+    }
+
+    /**
+     * Growable interval lists used while rebuilding a doctor-day from query results
+     */
+    private static final class IntervalBuffer {
+        private int[] starts = new int[8];
+        private int[] ends = new int[8];
+        private int count;
+
+        private void add(LocalDateTime start, int durationMinutes) {
+            if (count == starts.length) {
+                starts = Arrays.copyOf(starts, count * 2);
+                ends = Arrays.copyOf(ends, count * 2);
+            }
+            int minute = minuteOf(start);
+            starts[count] = minute;
+            ends[count] = minute + durationMinutes;
+            count++;
+        }
+
+        private OverlapDetector toDetector() {
+            return OverlapDetector.of(starts, ends, count);
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.project.back_end.services;
+
+import com.project.back_end.models.Appointment;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.NonNull;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+@Service
+public class BookingQueue implements MeterBinder {
+    // 1. **Purpose**
+    // Optional asynchronous booking mode (`booking.async.enabled`) for the morning rush. Instead of many request
+    // threads fighting over the same popular doctors' slots, bookings are queued and applied by one writer per shard.
+
+    // 2. **Sharding**
+    // A booking is routed by doctor id to one of `booking.async.shards` single-threaded executors, so all bookings of
+    // a doctor are applied one after another and never contend with each other, while different doctors proceed in
+    // parallel on other shards. Each shard's queue is bounded; a full shard rejects new bookings instead of growing.
+
+    // 3. **Tickets**
+    // Submitting returns a ticket id. The ticket can be polled, or awaited up to a timeout, for the outcome of
+    // `AppointmentService.bookAppointment` (1 booked, -1 slot taken, -2 lock busy, 0 failed). Finished tickets are purged after
+    // `booking.async.ticket-ttl-seconds`.
+
+    // 4. **Metrics**
+    // Queue depth and booking latency (queued to applied) are published per shard as `booking.queue.depth` and
+    // `booking.queue.latency`, tagged with `shard`.
+
+    private final AppointmentService appointmentService;
+    private final boolean enabled;
+    private final long ticketTtlMillis;
+    private final Shard[] shards;
+
+    private final Map<String, Ticket> tickets = new ConcurrentHashMap<>();
+
+    public BookingQueue(AppointmentService appointmentService,
+                        @Value("${booking.async.enabled:false}") boolean enabled,
+                        @Value("${booking.async.shards:8}") int shardCount,
+                        @Value("${booking.async.queue-capacity:1000}") int queueCapacity,
+                        @Value("${booking.async.ticket-ttl-seconds:600}") long ticketTtlSeconds) {
+        this.appointmentService = appointmentService;
+        this.enabled = enabled;
+        this.ticketTtlMillis = ticketTtlSeconds * 1000;
+        this.shards = new Shard[enabled ? Math.max(1, shardCount) : 0];
+        for (int i = 0; i < shards.length; i++) {
+            shards[i] = new Shard(i, queueCapacity);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 1. Queue a validated appointment on its doctor's shard.
+     *    Returns the ticket id, or null if the shard's queue is full.
+     */
+    public String submit(Appointment appointment, Long patientId) {
+        Shard shard = shards[Math.floorMod(Long.hashCode(appointment.getDoctor().getId()), shards.length)];
+        Ticket ticket = new Ticket(UUID.randomUUID().toString(), patientId);
+        long queuedAt = System.nanoTime();
+
+        tickets.put(ticket.id, ticket);
+        shard.depth.incrementAndGet();
+        try {
+            shard.executor.execute(() -> {
+                shard.depth.decrementAndGet();
+                int result;
+                try {
+                    result = appointmentService.bookAppointment(appointment);
+                } catch (RuntimeException e) {
+                    e.printStackTrace();
+                    result = 0;
+                }
+                shard.record(System.nanoTime() - queuedAt);
+                ticket.complete(result);
+            });
+        } catch (RejectedExecutionException e) {
+            shard.depth.decrementAndGet();
+            tickets.remove(ticket.id);
+            return null;
+        }
+        return ticket.id;
+    }
+
+    /**
+     * 2. Outcome of a ticket owned by the patient, waiting at most `waitMillis` for it:
+     *    1 booked, -1 slot taken, 0 failed, null still queued. Throws NoSuchElementException for unknown tickets.
+     */
+    public Integer await(String ticketId, Long patientId, long waitMillis) {
+        Ticket ticket = tickets.get(ticketId);
+        if (ticket == null || !Objects.equals(ticket.patientId, patientId)) {
+            throw new NoSuchElementException("Unknown booking ticket");
+        }
+        try {
+            return waitMillis > 0
+                    ? ticket.result.get(waitMillis, TimeUnit.MILLISECONDS)
+                    : ticket.result.getNow(null);
+        } catch (TimeoutException e) {
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * 3. Drop finished tickets past their retention
+     */
+    @Scheduled(fixedDelayString = "${booking.async.purge-interval-ms:60000}")
+    public void purgeTickets() {
+        long cutoff = System.currentTimeMillis() - ticketTtlMillis;
+        tickets.values().removeIf(ticket -> ticket.completedAt > 0 && ticket.completedAt < cutoff);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (Shard shard : shards) {
+            shard.executor.shutdown();
+        }
+    }
+
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        for (Shard shard : shards) {
+            String tag = String.valueOf(shard.index);
+            Gauge.builder("booking.queue.depth", shard.depth, AtomicInteger::get)
+                    .description("Bookings waiting in the shard queue")
+                    .tag("shard", tag)
+                    .register(registry);
+            FunctionTimer.builder("booking.queue.latency", shard,
+                            s -> s.applied.sum(), s -> s.latencyNanos.sum(), TimeUnit.NANOSECONDS)
+                    .description("Time from queuing a booking to applying it")
+                    .tag("shard", tag)
+                    .register(registry);
+        }
+    }
+
+    private static final class Shard {
+        private final int index;
+        private final ExecutorService executor;
+        private final AtomicInteger depth = new AtomicInteger();
+        private final LongAdder applied = new LongAdder();
+        private final LongAdder latencyNanos = new LongAdder();
+
+        private Shard(int index, int queueCapacity) {
+            this.index = index;
+            this.executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                    new LinkedBlockingQueue<>(queueCapacity),
+                    runnable -> {
+                        Thread thread = new Thread(runnable, "booking-shard-" + index);
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+        }
+
+        private void record(long nanos) {
+            applied.increment();
+            latencyNanos.add(nanos);
+        }
+    }
+
+    private static final class Ticket {
+        private final String id;
+        private final Long patientId;
+        private final CompletableFuture<Integer> result = new CompletableFuture<>();
+        private volatile long completedAt;
+
+        private Ticket(String id, Long patientId) {
+            this.id = id;
+            this.patientId = patientId;
+        }
+
+        private void complete(int outcome) {
+            completedAt = System.currentTimeMillis();
+            result.complete(outcome);
+        }
+    }
+}
@@ -0,0 +1,300 @@
+package com.project.back_end.services;
+
+import com.project.back_end.DTO.DoctorSuggestion;
+import com.project.back_end.models.Doctor;
+import com.project.back_end.repo.DoctorRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+@Component
+public class DoctorDirectory {
+    // 1. **Purpose**
+    // Serves the doctor list and the name / specialty / AM-PM filters from memory. The doctor table is small,
+    // changes rarely and is read constantly by anonymous visitors, so reads never touch the database.
+
+    // 2. **Snapshots**
+    // All reads go to an immutable `Snapshot` held in a volatile field. A write (`saveDoctor`, `updateDoctor`,
+    // `deleteDoctor`) builds a new snapshot from the previous one and swaps it in atomically, so readers always
+    // see one consistent version. A scheduled reload also picks up changes made through other instances.
+
+    // 3. **Indexes**
+    // - Specialty (lower-cased, exact match).
+    // - Names, in a `TrigramIndex`. A name filter keeps LIKE '%name%' semantics without checking every doctor.
+    // - AM / PM: a doctor is in AM when one of their slots (from `ScheduleEngine`) starts before 12:00,
+    //   and in PM when one starts at or after 12:00.
+    // A filtered read starts from the smallest candidate list and checks the remaining predicates per doctor.
+
+    // 4. **Typeahead**
+    // Each snapshot also holds a `PrefixTrie` over the full name, each name word, the specialty and each specialty
+    // word, with the top `doctor.typeahead.top-k` suggestions precomputed per node. Name keys rank above specialty
+    // keys, then doctors rank by name.
+
+    // 5. **Version**
+    // The version of a snapshot is a hash over the (id, name, specialty) of its doctors, which is everything a
+    // typeahead response contains, and is used as its ETag. It stays the same across reloads that change nothing and
+    // is the same on every instance, so `If-None-Match` keeps matching until a doctor is actually added, renamed or
+    // removed.
+
+    private static final int WEIGHT_FULL_NAME = 0;
+    private static final int WEIGHT_NAME_WORD = 1;
+    private static final int WEIGHT_SPECIALTY = 2;
+
+    private static final int NOON_MINUTE = 12 * 60;
+
+    private final DoctorRepository doctorRepository;
+    private final ScheduleEngine scheduleEngine;
+    private final int typeaheadTopK;
+
+    private volatile Snapshot snapshot;
+
+    public DoctorDirectory(DoctorRepository doctorRepository, ScheduleEngine scheduleEngine,
+                           @Value("${doctor.typeahead.top-k:10}") int typeaheadTopK) {
+        this.doctorRepository = doctorRepository;
+        this.scheduleEngine = scheduleEngine;
+        this.typeaheadTopK = typeaheadTopK;
+    }
+
+    /**
+     * 1. All doctors, ordered by id
+     */
+    public List<Doctor> all() {
+        return snapshot().doctors();
+    }
+
+    /**
+     * 2. Doctors matching every non-blank filter: name (substring, case-insensitive),
+     *    specialty (case-insensitive) and time ("AM" / "PM")
+     */
+    public List<Doctor> find(String name, String specialty, String amOrPm) {
+        return snapshot().find(normalize(name), normalize(specialty), normalize(amOrPm));
+    }
+
+    /**
+     * 2b. Top typeahead suggestions for a prefix of a doctor's name or specialty (empty for a blank query)
+     */
+    public List<DoctorSuggestion> suggest(String query) {
+        String prefix = normalizeKey(query);
+        return prefix.isEmpty() ? List.of() : snapshot().suggestions.search(prefix);
+    }
+
+    /**
+     * 2c. Version of the current snapshot; changes only when a doctor's id, name or specialty does
+     */
+    public String version() {
+        return snapshot().version;
+    }
+
+    /**
+     * 3. Add or replace a doctor after it was saved or updated
+     */
+    public synchronized void upsert(Doctor doctor) {
+        List<Doctor> doctors = new ArrayList<>(snapshot().doctors());
+        doctors.removeIf(existing -> existing.getId().equals(doctor.getId()));
+        doctors.add(doctor);
+        snapshot = build(doctors);
+    }
+
+    /**
+     * 4. Drop a deleted doctor
+     */
+    public synchronized void remove(long doctorId) {
+        List<Doctor> doctors = new ArrayList<>(snapshot().doctors());
+        doctors.removeIf(existing -> existing.getId() == doctorId);
+        snapshot = build(doctors);
+    }
+
+    /**
+     * 5. Reload the whole directory from the database
+     */
+    @Scheduled(fixedDelayString = "${doctor.directory.refresh-ms:300000}",
+            initialDelayString = "${doctor.directory.refresh-ms:300000}")
+    public synchronized void reload() {
+        snapshot = build(doctorRepository.findAllWithAvailableTimes());
+    }
+
+    /**
+     * Helper method: Current snapshot, loaded on first use
+     */
+    private Snapshot snapshot() {
+        Snapshot current = snapshot;
+        if (current != null) return current;
+        synchronized (this) {
+            if (snapshot == null) reload();
+            return snapshot;
+        }
+    }
+
+    /**
+     * Helper method: Build an immutable snapshot; availableTimes are copied so entities stay detached from JPA
+     */
+    private Snapshot build(Collection<Doctor> doctors) {
+        List<Entry> entries = new ArrayList<>(doctors.size());
+        for (Doctor doctor : doctors) {
+            doctor.setAvailableTimes(doctor.getAvailableTimes() == null
+                    ? List.of() : List.copyOf(doctor.getAvailableTimes()));
+            DoctorSchedule schedule = scheduleEngine.scheduleOf(doctor.getAvailableTimes());
+            boolean am = schedule.slotCount() > 0 && schedule.slotStart(0) < NOON_MINUTE;
+            boolean pm = schedule.slotCount() > 0 && schedule.slotStart(schedule.slotCount() - 1) >= NOON_MINUTE;
+            entries.add(new Entry(doctor, lower(doctor.getName()), lower(doctor.getSpecialty()), am, pm));
+        }
+        entries.sort(Comparator.comparing(entry -> entry.doctor.getId()));
+        return new Snapshot(entries, buildSuggestions(entries), versionOf(entries));
+    }
+
+    /**
+     * Helper method: Content hash over (id, name, specialty) of the entries, in id order
+     */
+    private static String versionOf(List<Entry> entries) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        for (Entry entry : entries) {
+            Doctor doctor = entry.doctor;
+            String row = doctor.getId() + "\u0000" + doctor.getName() + "\u0000" + doctor.getSpecialty() + "\n";
+            digest.update(row.getBytes(StandardCharsets.UTF_8));
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(digest.digest(), 12));
+    }
+
+    /**
+     * Helper method: Typeahead trie over names and specialties, with doctors ranked by name
+     */
+    private PrefixTrie<DoctorSuggestion> buildSuggestions(List<Entry> entries) {
+        List<Entry> byName = new ArrayList<>(entries);
+        byName.sort(Comparator.comparing((Entry entry) -> entry.name).thenComparing(entry -> entry.doctor.getId()));
+
+        List<DoctorSuggestion> items = new ArrayList<>(byName.size());
+        PrefixTrie.Builder<DoctorSuggestion> trie = PrefixTrie.builder(typeaheadTopK);
+        for (Entry entry : byName) {
+            Doctor doctor = entry.doctor;
+            int index = items.size();
+            items.add(new DoctorSuggestion(doctor.getId(), doctor.getName(), doctor.getSpecialty()));
+            addKeys(trie, normalizeKey(entry.name), index, WEIGHT_FULL_NAME, WEIGHT_NAME_WORD);
+            addKeys(trie, normalizeKey(entry.specialty), index, WEIGHT_SPECIALTY, WEIGHT_SPECIALTY);
+        }
+        return trie.build(items);
+    }
+
+    private static void addKeys(PrefixTrie.Builder<DoctorSuggestion> trie, String key, int index,
+                                int fullWeight, int wordWeight) {
+        trie.add(key, index, fullWeight);
+        for (int space = key.indexOf(' '); space >= 0; space = key.indexOf(' ', space + 1)) {
+            trie.add(key.substring(space + 1), index, wordWeight);
+        }
+    }
+
+    /**
+     * Helper method: Lower-case and collapse whitespace so keys and queries compare alike
+     */
+    private static String normalizeKey(String value) {
+        return value == null ? "" : value.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ENGLISH);
+    }
+
+    private static String normalize(String value) {
+        return value == null || value.isBlank() ? null : value.trim().toLowerCase(Locale.ENGLISH);
+    }
+
+    private static String lower(String value) {
+        return value == null ? "" : value.toLowerCase(Locale.ENGLISH);
+    }
+
+    private static final class Entry {
+        private final Doctor doctor;
+        private final String name;
+        private final String specialty;
+        private final boolean am;
+        private final boolean pm;
+
+        private Entry(Doctor doctor, String name, String specialty, boolean am, boolean pm) {
+            this.doctor = doctor;
+            this.name = name;
+            this.specialty = specialty;
+            this.am = am;
+            this.pm = pm;
+        }
+
+        private boolean matches(String name, String specialty, String period) {
+            return (name == null || this.name.contains(name))
+                    && (specialty == null || this.specialty.equals(specialty))
+                    && (period == null || ("am".equals(period) ? am : "pm".equals(period) && pm));
+        }
+    }
+
+    private static final class Snapshot {
+        private final List<Entry> entries;
+        private final List<Doctor> doctors;
+        private final Map<String, List<Entry>> bySpecialty = new HashMap<>();
+        private final Map<Long, Entry> byId = new HashMap<>();
+        private final TrigramIndex names;
+        private final List<Entry> morning = new ArrayList<>();
+        private final List<Entry> afternoon = new ArrayList<>();
+        private final PrefixTrie<DoctorSuggestion> suggestions;
+        private final String version;
+
+        private Snapshot(List<Entry> entries, PrefixTrie<DoctorSuggestion> suggestions, String version) {
+            this.entries = entries;
+            this.suggestions = suggestions;
+            this.version = version;
+            List<Doctor> doctors = new ArrayList<>(entries.size());
+            TrigramIndex.Builder nameIndex = TrigramIndex.builder();
+            for (Entry entry : entries) {
+                doctors.add(entry.doctor);
+                bySpecialty.computeIfAbsent(entry.specialty, key -> new ArrayList<>()).add(entry);
+                byId.put(entry.doctor.getId(), entry);
+                nameIndex.put(entry.doctor.getId(), entry.name);
+                if (entry.am) morning.add(entry);
+                if (entry.pm) afternoon.add(entry);
+            }
+            this.doctors = Collections.unmodifiableList(doctors);
+            this.names = nameIndex.build();
+        }
+
+        private List<Doctor> doctors() {
+            return doctors;
+        }
+
+        private List<Doctor> find(String name, String specialty, String period) {
+            if (name == null && specialty == null && period == null) return doctors;
+
+            Collection<Entry> candidates = entries;
+            if (specialty != null) {
+                candidates = bySpecialty.getOrDefault(specialty, List.of());
+            }
+            if (period != null) {
+                List<Entry> byPeriod = "am".equals(period) ? morning : "pm".equals(period) ? afternoon : List.of();
+                if (byPeriod.size() < candidates.size()) candidates = byPeriod;
+            }
+            if (name != null) {
+                Collection<Entry> byName = nameCandidates(name);
+                if (byName.size() < candidates.size()) candidates = byName;
+            }
+
+            List<Doctor> result = new ArrayList<>();
+            for (Entry entry : candidates) {
+                if (entry.matches(name, specialty, period)) result.add(entry.doctor);
+            }
+            return result;
+        }
+
+        /**
+         * Doctors whose name contains the filter, in id order
+         */
+        private Collection<Entry> nameCandidates(String name) {
+            long[] ids = names.search(name);
+            List<Entry> candidates = new ArrayList<>(ids.length);
+            for (long id : ids) {
+                candidates.add(byId.get(id));
+            }
+            return candidates;
+        }
+    }
+}
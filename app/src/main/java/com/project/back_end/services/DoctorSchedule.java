@@ -0,0 +1,53 @@
+package com.project.back_end.services;
+
+import java.util.Arrays;
+
+public final class DoctorSchedule {
+    // An immutable, sorted list of slot start times for one doctor-day, as minute-of-day integers
+    // (e.g. 540 for 09:00). Slot `i` of the schedule is bit `i` in `AvailabilityIndex` bitmaps.
+
+    public static final int MAX_SLOTS = 64;
+
+    private final int[] slotStarts;
+    private final int slotMinutes;
+
+    DoctorSchedule(int[] slotStarts, int slotMinutes) {
+        this.slotStarts = slotStarts;
+        this.slotMinutes = slotMinutes;
+    }
+
+    public int slotCount() {
+        return slotStarts.length;
+    }
+
+    public int slotStart(int index) {
+        return slotStarts[index];
+    }
+
+    public int slotMinutes() {
+        return slotMinutes;
+    }
+
+    /**
+     * Index of the slot starting exactly at the given minute of day, or -1 if no slot starts there
+     */
+    public int indexOf(int minuteOfDay) {
+        int index = Arrays.binarySearch(slotStarts, minuteOfDay);
+        return index < 0 ? -1 : index;
+    }
+
+    /**
+     * Start minutes of the slots whose bit is not set in the booked bitmap (bits past the last slot are ignored)
+     */
+    public int[] freeSlots(long booked) {
+        if (slotStarts.length < Long.SIZE) booked &= (1L << slotStarts.length) - 1;
+        int[] free = new int[slotStarts.length - Long.bitCount(booked)];
+        int next = 0;
+        for (int i = 0; i < slotStarts.length; i++) {
+            if ((booked & (1L << i)) == 0) {
+                free[next++] = slotStarts[i];
+            }
+        }
+        return free;
+    }
+}
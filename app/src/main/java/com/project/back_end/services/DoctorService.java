@@ -1,17 +1,27 @@
 package com.project.back_end.services;
 
+import com.project.back_end.DTO.DoctorCard;
+import com.project.back_end.DTO.DoctorTimeWindow;
 import com.project.back_end.models.Doctor;
-import com.project.back_end.models.Appointment;
 import com.project.back_end.DTO.Login;
 import com.project.back_end.repo.DoctorRepository;
 import com.project.back_end.repo.AppointmentRepository;
+import com.project.back_end.repo.DoctorSpecifications;
+import org.hibernate.Hibernate;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
-import java.time.LocalTime;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -29,18 +39,21 @@ public class DoctorService {
     //    - Instruction: Ensure constructor injection is used for injecting dependencies into the service.
 
     // 3. **Add @Transactional Annotation for Methods that Modify or Fetch Database Data**:
-    //    - Methods like `getDoctorAvailability`, `getDoctors`, `findDoctorByName`, `filterDoctorsBy*` should be annotated with `@Transactional`.
+    //    - Methods like `getDoctorAvailability`, `getDoctors`, `searchDoctors` should be annotated with `@Transactional`.
     //    - The `@Transactional` annotation ensures that database operations are consistent and wrapped in a single transaction.
     //    - Instruction: Add the `@Transactional` annotation above the methods that perform database operations or queries.
 
     // 4. **getDoctorAvailability Method**:
     //    - Retrieves the available time slots for a specific doctor on a particular date and filters out already booked slots.
-    //    - The method fetches all appointments for the doctor on the given date and calculates the availability by comparing against booked slots.
+    //    - Booked slots come from the in-memory `AvailabilityIndex` bitmap; the database is only read when a doctor-day is not cached yet.
+    //    - Slots are derived from the doctor's working windows by `ScheduleEngine` and formatted as labels only here, at the JSON boundary.
     //    - Instruction: Ensure that the time slots are properly formatted and the available slots are correctly filtered.
 
     // 5. **saveDoctor Method**:
     //    - Used to save a new doctor record in the database after checking if a doctor with the same email already exists.
+    //    - The doctor's `availableTimes` are also written to `doctor_working_hours` (see `WorkingHoursService`); `updateDoctor` rewrites them.
     //    - If a doctor with the same email is found, it returns `-1` to indicate conflict; `1` for success, and `0` for internal errors.
+    //    - Both methods return `-2` when the working hours would give more than `DoctorSchedule.MAX_SLOTS` slots on a day.
     //    - Instruction: Ensure that the method correctly handles conflicts and exceptions when saving a doctor.
 
     // 6. **updateDoctor Method**:
@@ -48,11 +61,11 @@ public class DoctorService {
     //    - Instruction: Make sure that the doctor exists before attempting to save the updated record and handle any errors properly.
 
     // 7. **getDoctors Method**:
-    //    - Fetches all doctors from the database. It is marked with `@Transactional` to ensure that the collection is properly loaded.
+    //    - Returns all doctors from the in-memory `DoctorDirectory`, which loads them with their available times in one query.
     //    - Instruction: Ensure that the collection is eagerly loaded, especially if dealing with lazy-loaded relationships (e.g., available times). 
 
     // 8. **deleteDoctor Method**:
-    //    - Deletes a doctor from the system along with all appointments associated with that doctor.
+    //    - Deletes a doctor from the system along with all appointments and working hours associated with that doctor.
     //    - It first checks if the doctor exists. If not, it returns `-1`; otherwise, it deletes the doctor and their appointments.
     //    - Instruction: Ensure the doctor and their appointments are deleted properly, with error handling for internal issues.
 
@@ -61,62 +74,59 @@ public class DoctorService {
     //    - It generates a token for the doctor if the login is successful, otherwise returns an error message.
     //    - Instruction: Make sure to handle invalid login attempts and password mismatches properly with error responses.
 
-    // 10. **findDoctorByName Method**:
-    //    - Finds doctors based on partial name matching and returns the list of doctors with their available times.
-    //    - This method is annotated with `@Transactional` to ensure that the database query and data retrieval are properly managed within a transaction.
-    //    - Instruction: Ensure that available times are eagerly loaded for the doctors.
+    // 10. **filterDoctors Method**:
+    //    - Filters doctors by any combination of partial name, specialty and availability during AM/PM; blank filters are ignored.
+    //    - Instruction: Ensure that available times are returned with the doctors.
 
+    // 11. **searchDoctors Method**:
+    //    - Paged variant of `filterDoctors` that pushes all three filters down to SQL as one query built by `DoctorSpecifications`.
+    //    - The AM/PM filter is an EXISTS subquery on the indexed `doctor_working_hours` ranges, optionally limited to one day of week.
+    //    - `availableTimes` of the page are loaded in one batch.
+    //    - Instruction: Ensure the time filtering agrees with the in-memory directory.
 
-    // 11. **filterDoctorsByNameSpecialtyAndTime Method**:
-    //    - Filters doctors based on their name, specialty, and availability during a specific time (AM/PM).
-    //    - The method fetches doctors matching the name and specialty criteria, then filters them based on their availability during the specified time period.
-    //    - Instruction: Ensure proper filtering based on both the name and specialty as well as the specified time period.
+    // 12. **listDoctors Method**:
+    //    - Returns one page of slim `DoctorCard` projections ordered by (name, id), plus an opaque `nextCursor`.
+    //    - The cursor encodes the last card's (name, id), so each page is an index range scan regardless of depth, and
+    //      the page's availableTimes are loaded with one IN query: two statements per page however large the roster is.
+    //    - Instruction: Return `nextCursor` as null on the last page and reject cursors that cannot be decoded.
 
-    // 12. **filterDoctorByTime Method**:
-    //    - Filters a list of doctors based on whether their available times match the specified time period (AM/PM).
-    //    - This method processes a list of doctors and their available times to return those that fit the time criteria.
-    //    - Instruction: Ensure that the time filtering logic correctly handles both AM and PM time slots and edge cases.
+    // 13. **Doctor Directory**:
+    //    - `getDoctors` and `filterDoctors` are served by `DoctorDirectory` without touching the database.
+    //    - `saveDoctor`, `updateDoctor` and `deleteDoctor` swap the directory snapshot after a successful write.
+    //    - `saveDoctor` and `updateDoctor` write the doctor and their working hours in one transaction, and update
+    //      the caches only after it commits.
+    //    - AM/PM means the doctor has a slot starting before / at or after 12:00 in their working windows.
 
+    private static final int NOON_MINUTE = 12 * 60;
 
-    // 13. **filterDoctorByNameAndTime Method**:
-    //    - Filters doctors based on their name and the specified time period (AM/PM).
-    //    - Fetches doctors based on partial name matching and filters the results to include only those available during the specified time period.
-    //    - Instruction: Ensure that the method correctly filters doctors based on the given name and time of day (AM/PM).
-
-    // 14. **filterDoctorByNameAndSpecialty Method**:
-    //    - Filters doctors by name and specialty.
-    //    - It ensures that the resulting list of doctors matches both the name (case-insensitive) and the specified specialty.
-    //    - Instruction: Ensure that both name and specialty are considered when filtering doctors.
+    @Autowired
+    private DoctorRepository doctorRepository;
 
+    @Autowired
+    private AppointmentRepository appointmentRepository;
 
-    // 15. **filterDoctorByTimeAndSpecialty Method**:
-    //    - Filters doctors based on their specialty and availability during a specific time period (AM/PM).
-    //    - Fetches doctors based on the specified specialty and filters them based on their available time slots for AM/PM.
-    //    - Instruction: Ensure the time filtering is accurately applied based on the given specialty and time period (AM/PM).
+    @Autowired
+    private TokenService tokenService;
 
-    // 16. **filterDoctorBySpecialty Method**:
-    //    - Filters doctors based on their specialty.
-    //    - This method fetches all doctors matching the specified specialty and returns them.
-    //    - Instruction: Make sure the filtering logic works for case-insensitive specialty matching.
+    @Autowired
+    private LoginThrottle loginThrottle;
 
-    // 17. **filterDoctorsByTime Method**:
-    //    - Filters all doctors based on their availability during a specific time period (AM/PM).
-    //    - The method checks all doctors' available times and returns those available during the specified time period.
-    //    - Instruction: Ensure proper filtering logic to handle AM/PM time periods.
+    @Autowired
+    private AvailabilityIndex availabilityIndex;
 
     @Autowired
-    private DoctorRepository doctorRepository;
+    private ScheduleEngine scheduleEngine;
 
     @Autowired
-    private AppointmentRepository appointmentRepository;
+    private DoctorDirectory doctorDirectory;
 
     @Autowired
-    private TokenService tokenService;
+    private WorkingHoursService workingHoursService;
 
     /**
      * 1. Validate Doctor Login
      */
-    public ResponseEntity<Map<String, String>> validateDoctor(Map<String, String> login) {
+    public ResponseEntity<Map<String, String>> validateDoctor(Map<String, String> login, String clientAddress) {
         String email = login.get("email");
         String password = login.get("password");
         Map<String, String> response = new HashMap<>();
@@ -126,6 +136,11 @@ public class DoctorService {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
         }
 
+        long retryAfter = loginThrottle.tryAcquire(email, clientAddress);
+        if (retryAfter > 0) {
+            return LoginThrottle.tooManyAttempts(retryAfter, "error");
+        }
+
         Doctor doctor = doctorRepository.findByEmail(email);
         if (doctor == null || !doctor.getPassword().equals(password)) {
             response.put("error", "Invalid email or password.");
@@ -133,7 +148,7 @@ public class DoctorService {
         }
 
         // Generate JWT token using TokenService
-        String token = tokenService.generateToken(email);
+        String token = tokenService.generateToken(doctor.getEmail(), "doctor", doctor.getId());
         response.put("token", token);
         response.put("message", "Login successful.");
         return ResponseEntity.ok(response);
@@ -142,45 +157,73 @@ public class DoctorService {
     /**
      * 2. Fetch available slots for a specific doctor on a given date
      */
-    public List<String> getDoctorAvailability(String doctorEmail, LocalDate date) {
-        List<String> availableSlots = new ArrayList<>(Arrays.asList(
-                "09:00 AM", "10:00 AM", "11:00 AM", "12:00 PM",
-                "01:00 PM", "02:00 PM", "03:00 PM", "04:00 PM"
-        ));
-
-        // Fetch all booked appointments for that doctor on the date
-        var start = date.atStartOfDay();
-        var end = date.atTime(23, 59, 59);
-        List<Appointment> bookedAppointments = appointmentRepository
-                .findByDoctorEmailAndAppointmentTimeBetween(doctorEmail, start, end);
-
-        // Remove booked slots from available slots
-        for (Appointment appointment : bookedAppointments) {
-            // Convert to hh:mm AM/PM format
-            LocalTime lt = appointment.getAppointmentTime().toLocalTime();
-            String formattedSlot = String.format("%02d:%02d %s",
-                    (lt.getHour() % 12 == 0 ? 12 : lt.getHour() % 12),
-                    lt.getMinute(),
-                    (lt.getHour() < 12 ? "AM" : "PM"));
-
-            availableSlots.remove(formattedSlot);
-        }
+    public List<String> getDoctorAvailability(Long doctorId, LocalDate date) {
+        return ScheduleEngine.labels(availabilityIndex.freeSlots(doctorId, date));
+    }
+
+    /**
+     * 2b. Fetch available slots for a doctor on every day of a date range (one query for uncached days)
+     */
+    public Map<String, List<String>> getDoctorAvailability(Long doctorId, LocalDate from, LocalDate to) {
+        Map<String, List<String>> availability = new LinkedHashMap<>();
+        availabilityIndex.freeSlots(doctorId, from, to)
+                .forEach((date, slots) -> availability.put(date.toString(), ScheduleEngine.labels(slots)));
+        return availability;
+    }
 
-        return availableSlots;
+    /**
+     * 2c. Free slots of every doctor in a specialty on a date, optionally filtered by name and AM/PM.
+     *     Availability for all matching doctors is loaded with one grouped query.
+     */
+    public List<Map<String, Object>> getSpecialtyAvailability(String specialty, String name, String amOrPm, LocalDate date) {
+        List<Doctor> doctors = doctorDirectory.find(name, specialty, null);
+        if (doctors.isEmpty()) return Collections.emptyList();
+
+        String period = amOrPm == null || amOrPm.isBlank() ? null : amOrPm.trim().toUpperCase(Locale.ENGLISH);
+        Map<Long, int[]> free = availabilityIndex.freeSlots(
+                doctors.stream().map(Doctor::getId).collect(Collectors.toList()), date);
+
+        List<Map<String, Object>> result = new ArrayList<>(doctors.size());
+        for (Doctor doctor : doctors) {
+            int[] slots = free.get(doctor.getId());
+            if ("AM".equals(period)) {
+                slots = Arrays.stream(slots).filter(minute -> minute < NOON_MINUTE).toArray();
+            } else if ("PM".equals(period)) {
+                slots = Arrays.stream(slots).filter(minute -> minute >= NOON_MINUTE).toArray();
+            }
+            if (slots.length == 0) continue;
+
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("id", doctor.getId());
+            entry.put("name", doctor.getName());
+            entry.put("specialty", doctor.getSpecialty());
+            entry.put("availability", ScheduleEngine.labels(slots));
+            result.add(entry);
+        }
+        return result;
     }
 
     /**
      * 3. Save a new doctor
      */
+    @Transactional
     public int saveDoctor(Doctor doctor) {
+        if (!scheduleEngine.fitsSlotLimit(doctor.getAvailableTimes())) {
+            return -2; // Working hours give more slots per day than the availability bitmaps hold
+        }
         try {
             if (doctorRepository.findByEmail(doctor.getEmail()) != null) {
                 return -1; // Doctor already exists
             }
             doctorRepository.save(doctor);
+            workingHoursService.replace(doctor);
+            doctorRepository.flush();
+            afterCommit(() -> doctorDirectory.upsert(doctor));
             return 1;
         } catch (Exception e) {
             e.printStackTrace();
+            // The doctor and their working hours are written together or not at all
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
             return 0; // Internal error
         }
     }
@@ -188,16 +231,30 @@ public class DoctorService {
     /**
      * 4. Update an existing doctor
      */
+    @Transactional
     public int updateDoctor(Doctor doctor) {
+        if (!scheduleEngine.fitsSlotLimit(doctor.getAvailableTimes())) {
+            return -2; // Working hours give more slots per day than the availability bitmaps hold
+        }
         try {
             Optional<Doctor> existingDoctor = doctorRepository.findById(doctor.getId());
             if (existingDoctor.isEmpty()) {
                 return -1; // Doctor not found
             }
             doctorRepository.save(doctor);
+            workingHoursService.replace(doctor);
+            doctorRepository.flush();
+
+            // Working windows may have changed; rebuild the schedule and bitmaps lazily once the rows are committed
+            afterCommit(() -> {
+                scheduleEngine.evict(doctor.getId());
+                availabilityIndex.evictDoctor(doctor.getId());
+                doctorDirectory.upsert(doctor);
+            });
             return 1;
         } catch (Exception e) {
             e.printStackTrace();
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
             return 0; // Internal error
         }
     }
@@ -206,7 +263,7 @@ public class DoctorService {
      * 5. Get all doctors
      */
     public List<Doctor> getDoctors() {
-        return doctorRepository.findAll();
+        return doctorDirectory.all();
     }
 
     /**
@@ -219,10 +276,18 @@ public class DoctorService {
                 return -1; // Doctor not found
             }
 
+            // Tokens are validated without a lookup, so invalidate the doctor's outstanding tokens first:
+            // if persisting the new token version fails, nothing has been deleted and the call can be retried
+            tokenService.invalidateTokens("doctor", doctor.get().getEmail());
+
             // Delete associated appointments first
             appointmentRepository.deleteAllByDoctorId(id);
+            workingHoursService.delete(id);
+            availabilityIndex.evictDoctor(id);
+            scheduleEngine.evict(id);
 
             doctorRepository.delete(doctor.get());
+            doctorDirectory.remove(id);
             return 1;
         } catch (Exception e) {
             e.printStackTrace();
@@ -233,8 +298,13 @@ public class DoctorService {
     /**
      * 7. Validate doctor login credentials
      */
-    public ResponseEntity<Map<String, String>> validateDoctor(Login login) {
+    public ResponseEntity<Map<String, String>> validateDoctor(Login login, String clientAddress) {
         Map<String, String> response = new HashMap<>();
+        long retryAfter = loginThrottle.tryAcquire(login.getIdentifier(), clientAddress);
+        if (retryAfter > 0) {
+            return LoginThrottle.tooManyAttempts(retryAfter, "message");
+        }
+
         Doctor doctor = doctorRepository.findByEmail(login.getIdentifier());
 
         if (doctor == null || !doctor.getPassword().equals(login.getPassword())) {
@@ -243,7 +313,7 @@ public class DoctorService {
         }
 
         // Generate token
-        String token = tokenService.generateToken(doctor.getEmail());
+        String token = tokenService.generateToken(doctor.getEmail(), "doctor", doctor.getId());
         response.put("message", "Login successful");
         response.put("token", token);
 
@@ -251,88 +321,106 @@ public class DoctorService {
     }
 
     /**
-     * 8. Find doctors by partial name
+     * 8. Filter doctors by name, specialty and availability during AM/PM (in-memory directory)
      */
-    public Map<String, Object> findDoctorByName(String name) {
+    public Map<String, Object> filterDoctors(String name, String specialty, String amOrPm) {
         Map<String, Object> response = new HashMap<>();
-        response.put("doctors", doctorRepository.findByNameLike(name));
+        response.put("doctors", doctorDirectory.find(name, specialty, amOrPm));
         return response;
     }
 
     /**
-     * 9. Filter doctors by name, specialty, and availability during AM/PM
+     * 9. One page of doctors matching name, specialty, AM/PM and day of week (ISO 1-7, or 0 for any day),
+     *    filtered in a single database query
      */
-    public Map<String, Object> filterDoctorsByNameSpecialtyAndTime(String name, String specialty, String amOrPm) {
-        Map<String, Object> response = new HashMap<>();
-        List<Doctor> doctors = doctorRepository.findByNameContainingIgnoreCaseAndSpecialtyIgnoreCase(name, specialty);
-        response.put("doctors", filterDoctorByTime(doctors, amOrPm));
-        return response;
-    }
+    @Transactional(readOnly = true)
+    public Map<String, Object> searchDoctors(String name, String specialty, String amOrPm, int dayOfWeek, int page, int size) {
+        DoctorSchedule defaults = scheduleEngine.scheduleOf(null);
+        boolean defaultHasMorning = defaults.slotCount() > 0 && defaults.slotStart(0) < NOON_MINUTE;
+        boolean defaultHasAfternoon = defaults.slotCount() > 0
+                && defaults.slotStart(defaults.slotCount() - 1) >= NOON_MINUTE;
+        String period = amOrPm == null || amOrPm.isBlank() ? null : amOrPm.trim().toUpperCase(Locale.ENGLISH);
+
+        Page<Doctor> doctors = doctorRepository.findAll(
+                DoctorSpecifications.matching(name, specialty, period, dayOfWeek, defaults.slotMinutes(),
+                        defaultHasMorning, defaultHasAfternoon),
+                PageRequest.of(page, size, Sort.by("name", "id")));
+        // Touching one collection batch-loads the windows of the rest of the page (@BatchSize on availableTimes)
+        doctors.forEach(doctor -> Hibernate.initialize(doctor.getAvailableTimes()));
 
-    /**
-     * 10. Filter doctors by name and time
-     */
-    public Map<String, Object> filterDoctorByNameAndTime(String name, String amOrPm) {
         Map<String, Object> response = new HashMap<>();
-        List<Doctor> doctors = doctorRepository.findByNameLike(name);
-        response.put("doctors", filterDoctorByTime(doctors, amOrPm));
+        response.put("doctors", doctors.getContent());
+        response.put("page", doctors.getNumber());
+        response.put("size", doctors.getSize());
+        response.put("totalElements", doctors.getTotalElements());
+        response.put("totalPages", doctors.getTotalPages());
         return response;
     }
 
     /**
-     * 11. Filter doctors by name and specialty
+     * 10. One keyset page of doctor cards after the cursor (null for the first page)
+     *
+     * @throws IllegalArgumentException if the cursor is not one this method issued
      */
-    public Map<String, Object> filterDoctorByNameAndSpecialty(String name, String specialty) {
-        Map<String, Object> response = new HashMap<>();
-        response.put("doctors",
-                doctorRepository.findByNameContainingIgnoreCaseAndSpecialtyIgnoreCase(name, specialty));
-        return response;
-    }
+    @Transactional(readOnly = true)
+    public Map<String, Object> listDoctors(String cursor, int size) {
+        PageRequest limit = PageRequest.ofSize(size + 1);
+        List<DoctorCard> cards;
+        if (cursor == null || cursor.isBlank()) {
+            cards = doctorRepository.findCards(limit);
+        } else {
+            String[] keyset = decodeCursor(cursor);
+            cards = doctorRepository.findCardsAfter(keyset[1], Long.parseLong(keyset[0]), limit);
+        }
+
+        boolean hasMore = cards.size() > size;
+        if (hasMore) cards = cards.subList(0, size);
+
+        Map<Long, List<String>> windows = new HashMap<>();
+        if (!cards.isEmpty()) {
+            List<Long> ids = cards.stream().map(DoctorCard::id).collect(Collectors.toList());
+            for (DoctorTimeWindow window : doctorRepository.findTimeWindowsByDoctorIds(ids)) {
+                windows.computeIfAbsent(window.doctorId(), id -> new ArrayList<>()).add(window.window());
+            }
+        }
+        List<DoctorCard> page = new ArrayList<>(cards.size());
+        for (DoctorCard card : cards) {
+            page.add(card.withAvailableTimes(windows.getOrDefault(card.id(), List.of())));
+        }
 
-    /**
-     * 12. Filter doctors by specialty and time
-     */
-    public Map<String, Object> filterDoctorByTimeAndSpecialty(String specialty, String amOrPm) {
         Map<String, Object> response = new HashMap<>();
-        List<Doctor> doctors = doctorRepository.findBySpecialtyIgnoreCase(specialty);
-        response.put("doctors", filterDoctorByTime(doctors, amOrPm));
+        response.put("doctors", page);
+        response.put("nextCursor", hasMore ? encodeCursor(page.get(page.size() - 1)) : null);
         return response;
     }
 
     /**
-     * 13. Filter doctors by specialty
+     * Helper method: Opaque cursor for the (name, id) keyset of a card
      */
-    public Map<String, Object> filterDoctorBySpecialty(String specialty) {
-        Map<String, Object> response = new HashMap<>();
-        response.put("doctors", doctorRepository.findBySpecialtyIgnoreCase(specialty));
-        return response;
+    private static String encodeCursor(DoctorCard card) {
+        String keyset = card.id() + ":" + card.name();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(keyset.getBytes(StandardCharsets.UTF_8));
     }
 
     /**
-     * 14. Filter all doctors by availability in AM/PM
+     * Helper method: {id, name} of a cursor issued by `encodeCursor`
      */
-    public Map<String, Object> filterDoctorsByTime(String amOrPm) {
-        Map<String, Object> response = new HashMap<>();
-        List<Doctor> doctors = doctorRepository.findAll();
-        response.put("doctors", filterDoctorByTime(doctors, amOrPm));
-        return response;
+    private static String[] decodeCursor(String cursor) {
+        String keyset = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        int colon = keyset.indexOf(':');
+        if (colon <= 0) throw new IllegalArgumentException("Invalid cursor");
+        return new String[]{keyset.substring(0, colon), keyset.substring(colon + 1)};
     }
 
     /**
-     * 15. Private method to filter doctors by time slot (AM/PM)
+     * Helper method: Run an action once the current transaction has committed
      */
-    private List<Doctor> filterDoctorByTime(List<Doctor> doctors, String amOrPm) {
-        if (amOrPm == null || doctors == null) return Collections.emptyList();
-
-        // Normalize AM/PM input
-        String target = amOrPm.trim().toUpperCase(Locale.ENGLISH);
-
-        return doctors.stream().filter(doc -> doc.getAvailableTimes() != null &&
-                    doc.getAvailableTimes().stream()
-                        .filter(Objects::nonNull)
-                        .map(String::trim)
-                        .map(String::toUpperCase)
-                        .anyMatch(slot -> slot.contains(target)))
-                        .collect(Collectors.toList());
+    private static void afterCommit(Runnable action) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
     }
-}
\ No newline at end of file
+}
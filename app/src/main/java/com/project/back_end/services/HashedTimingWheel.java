@@ -0,0 +1,85 @@
+package com.project.back_end.services;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+
+public class HashedTimingWheel<T> {
+    // 1. **Purpose**
+    // Expires large numbers of short-lived items without a scheduled task per item. Time is divided into ticks,
+    // and each item is placed in the bucket of its deadline tick (tick modulo wheel size).
+
+    // 2. **Cost**
+    // `schedule` is a single queue append. `advance` visits only the buckets of the ticks that have passed, so the
+    // cost of each tick is proportional to the items due in it, not to the number of live items. Items whose
+    // deadline lies more than one rotation ahead stay in their bucket until their round comes up.
+
+    // 3. **Cancellation**
+    // Items are not removed when cancelled. The expiry callback receives every item whose deadline passed, and
+    // callers ignore items that have already ended.
+
+    private final long tickMillis;
+    private final long startMillis;
+    private final Queue<Timeout<T>>[] buckets;
+    private final int mask;
+    private volatile long currentTick;
+
+    @SuppressWarnings("unchecked")
+    public HashedTimingWheel(long tickMillis, int wheelSize) {
+        int size = Integer.highestOneBit(Math.max(1, wheelSize - 1) << 1);
+        this.tickMillis = Math.max(1, tickMillis);
+        this.startMillis = System.currentTimeMillis();
+        this.buckets = new Queue[size];
+        for (int i = 0; i < size; i++) {
+            buckets[i] = new ConcurrentLinkedQueue<>();
+        }
+        this.mask = size - 1;
+    }
+
+    /**
+     * 1. Schedule an item to expire at the given wall-clock time (rounded up to the next tick)
+     */
+    public void schedule(T item, long deadlineMillis) {
+        long tick = Math.max(ticksAt(deadlineMillis + tickMillis - 1), currentTick + 1);
+        buckets[(int) (tick & mask)].add(new Timeout<>(item, tick));
+    }
+
+    /**
+     * 2. Advance the wheel up to the given time, handing every due item to `onExpire`
+     */
+    public synchronized void advance(long nowMillis, Consumer<T> onExpire) {
+        long target = ticksAt(nowMillis);
+        List<Timeout<T>> notDue = new ArrayList<>();
+        while (currentTick < target) {
+            long tick = currentTick + 1;
+            Queue<Timeout<T>> bucket = buckets[(int) (tick & mask)];
+            Timeout<T> timeout;
+            while ((timeout = bucket.poll()) != null) {
+                if (timeout.tick <= tick) {
+                    onExpire.accept(timeout.item);
+                } else {
+                    notDue.add(timeout);
+                }
+            }
+            bucket.addAll(notDue);
+            notDue.clear();
+            currentTick = tick;
+        }
+    }
+
+    private long ticksAt(long millis) {
+        return Math.max(0, (millis - startMillis) / tickMillis);
+    }
+
+    private static final class Timeout<T> {
+        private final T item;
+        private final long tick;
+
+        private Timeout(T item, long tick) {
+            this.item = item;
+            this.tick = tick;
+        }
+    }
+}
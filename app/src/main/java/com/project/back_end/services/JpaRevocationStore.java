@@ -0,0 +1,79 @@
+package com.project.back_end.services;
+
+import com.project.back_end.models.RevokedToken;
+import com.project.back_end.models.TokenVersion;
+import com.project.back_end.repo.RevokedTokenRepository;
+import com.project.back_end.repo.TokenVersionRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Component
+public class JpaRevocationStore implements RevocationStore {
+    // Default `RevocationStore`, keeping revoked token ids in the local `revoked_tokens` table
+    // and principal token versions in `token_versions`.
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final TokenVersionRepository tokenVersionRepository;
+
+    public JpaRevocationStore(RevokedTokenRepository revokedTokenRepository,
+                              TokenVersionRepository tokenVersionRepository) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.tokenVersionRepository = tokenVersionRepository;
+    }
+
+    @Override
+    public void save(String tokenId, Instant expiresAt) {
+        revokedTokenRepository.save(new RevokedToken(tokenId, toLocal(expiresAt), LocalDateTime.now()));
+    }
+
+    @Override
+    public Map<String, Long> loadActive(Instant now) {
+        return toExpiryMap(revokedTokenRepository.findByExpiresAtAfter(toLocal(now)));
+    }
+
+    @Override
+    public Map<String, Long> loadRevokedSince(Instant since) {
+        return toExpiryMap(revokedTokenRepository.findByRevokedAtAfter(toLocal(since)));
+    }
+
+    @Override
+    public void deleteExpired(Instant now) {
+        revokedTokenRepository.deleteByExpiresAtBefore(toLocal(now));
+    }
+
+    @Override
+    @Transactional
+    public int bumpVersion(String principal) {
+        tokenVersionRepository.increment(principal, LocalDateTime.now());
+        return tokenVersionRepository.findById(principal).map(TokenVersion::getVersion).orElseThrow();
+    }
+
+    @Override
+    public Map<String, Integer> loadVersionsSince(Instant since) {
+        Map<String, Integer> versions = new HashMap<>();
+        for (TokenVersion version : tokenVersionRepository.findByUpdatedAtAfter(toLocal(since))) {
+            versions.put(version.getPrincipal(), version.getVersion());
+        }
+        return versions;
+    }
+
+    private static Map<String, Long> toExpiryMap(List<RevokedToken> rows) {
+        Map<String, Long> expiries = new HashMap<>();
+        for (RevokedToken revoked : rows) {
+            expiries.put(revoked.getTokenId(),
+                    revoked.getExpiresAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+        }
+        return expiries;
+    }
+
+    private static LocalDateTime toLocal(Instant instant) {
+        return LocalDateTime.ofInstant(instant, ZoneId.systemDefault());
+    }
+}
@@ -0,0 +1,200 @@
+package com.project.back_end.services;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.NonNull;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+@Component
+public class LoginThrottle implements MeterBinder {
+    // 1. **Purpose**
+    // Token-bucket rate limiting for the admin, doctor and patient login endpoints, checked before any repository lookup,
+    // so credential-stuffing bursts are rejected in memory instead of turning into database load.
+
+    // 2. **Two Buckets per Attempt**
+    // - One bucket per client address (`login.throttle.client.*`) limits a single source trying many accounts.
+    // - One bucket per identity (`login.throttle.identity.*`) limits many sources targeting one account.
+    // An attempt is allowed only when both buckets have a token.
+
+    // 3. **Lock Striping and Bounded Memory**
+    // Buckets are spread over a fixed number of stripes, each an access-ordered map guarded by its own lock,
+    // so unrelated attempts rarely contend. Each stripe holds at most `max-keys-per-stripe` buckets and drops
+    // the least recently used one beyond that. A scheduled sweep evicts buckets that have been idle and are full again.
+
+    // 4. **Metrics**
+    // Allowed and throttled attempts and the number of tracked buckets are published as `login.throttle.*`.
+
+    private final Stripe[] stripes;
+    private final int maxKeysPerStripe;
+    private final long idleNanos;
+
+    private final double identityCapacity;
+    private final double identityRefillPerNano;
+    private final double clientCapacity;
+    private final double clientRefillPerNano;
+
+    private final LongAdder allowed = new LongAdder();
+    private final LongAdder throttled = new LongAdder();
+
+    public LoginThrottle(@Value("${login.throttle.stripes:64}") int stripeCount,
+                         @Value("${login.throttle.max-keys-per-stripe:1024}") int maxKeysPerStripe,
+                         @Value("${login.throttle.idle-seconds:900}") long idleSeconds,
+                         @Value("${login.throttle.identity.capacity:5}") int identityCapacity,
+                         @Value("${login.throttle.identity.refill-per-minute:5}") int identityRefillPerMinute,
+                         @Value("${login.throttle.client.capacity:20}") int clientCapacity,
+                         @Value("${login.throttle.client.refill-per-minute:20}") int clientRefillPerMinute) {
+        this.stripes = new Stripe[Math.max(1, stripeCount)];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new Stripe();
+        }
+        this.maxKeysPerStripe = maxKeysPerStripe;
+        this.idleNanos = TimeUnit.SECONDS.toNanos(idleSeconds);
+        this.identityCapacity = identityCapacity;
+        this.identityRefillPerNano = identityRefillPerMinute / (double) TimeUnit.MINUTES.toNanos(1);
+        this.clientCapacity = clientCapacity;
+        this.clientRefillPerNano = clientRefillPerMinute / (double) TimeUnit.MINUTES.toNanos(1);
+    }
+
+    /**
+     * 1. Try to take a login attempt for the identity and client.
+     *    Returns 0 when allowed, otherwise the number of seconds to wait before retrying.
+     */
+    public long tryAcquire(String identifier, String clientAddress) {
+        long now = System.nanoTime();
+
+        if (clientAddress != null) {
+            long waitNanos = take("client:" + clientAddress, clientCapacity, clientRefillPerNano, now);
+            if (waitNanos > 0) return reject(waitNanos);
+        }
+        if (identifier != null) {
+            String identity = "identity:" + identifier.trim().toLowerCase(Locale.ROOT);
+            long waitNanos = take(identity, identityCapacity, identityRefillPerNano, now);
+            if (waitNanos > 0) return reject(waitNanos);
+        }
+
+        allowed.increment();
+        return 0;
+    }
+
+    /**
+     * 2. Evict buckets that are idle and would be full again anyway
+     */
+    @Scheduled(fixedDelayString = "${login.throttle.sweep-interval-ms:60000}")
+    public void evictIdle() {
+        long now = System.nanoTime();
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                Iterator<Bucket> iterator = stripe.buckets.values().iterator();
+                while (iterator.hasNext()) {
+                    if (now - iterator.next().lastAccess > idleNanos) {
+                        iterator.remove();
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * 3. The 429 response for a throttled login: `Retry-After` in seconds and the message under `messageKey`
+     *    ("message" or "error", whichever the endpoint already uses for failures)
+     */
+    public static ResponseEntity<Map<String, String>> tooManyAttempts(long retryAfter, String messageKey) {
+        Map<String, String> response = new HashMap<>();
+        response.put(messageKey, "Too many login attempts. Please try again later.");
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter))
+                .body(response);
+    }
+
+    public long getAllowedCount() {
+        return allowed.sum();
+    }
+
+    public long getThrottledCount() {
+        return throttled.sum();
+    }
+
+    public int trackedKeys() {
+        int total = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                total += stripe.buckets.size();
+            }
+        }
+        return total;
+    }
+
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        FunctionCounter.builder("login.throttle.allowed", this, LoginThrottle::getAllowedCount)
+                .description("Login attempts let through to credential checks")
+                .register(registry);
+        FunctionCounter.builder("login.throttle.throttled", this, LoginThrottle::getThrottledCount)
+                .description("Login attempts rejected with 429")
+                .register(registry);
+        Gauge.builder("login.throttle.keys", this, LoginThrottle::trackedKeys)
+                .description("Login throttle buckets held in memory")
+                .register(registry);
+    }
+
+    /**
+     * Helper method: Take one token from the key's bucket, returning 0 or the nanos until a token is available
+     */
+    private long take(String key, double capacity, double refillPerNano, long now) {
+        Stripe stripe = stripes[(key.hashCode() & Integer.MAX_VALUE) % stripes.length];
+        synchronized (stripe) {
+            Bucket bucket = stripe.buckets.get(key);
+            if (bucket == null) {
+                bucket = new Bucket(capacity, now);
+                stripe.buckets.put(key, bucket);
+                if (stripe.buckets.size() > maxKeysPerStripe) {
+                    Iterator<Bucket> eldest = stripe.buckets.values().iterator();
+                    eldest.next();
+                    eldest.remove();
+                }
+            }
+
+            bucket.tokens = Math.min(capacity, bucket.tokens + (now - bucket.lastAccess) * refillPerNano);
+            bucket.lastAccess = now;
+            if (bucket.tokens >= 1) {
+                bucket.tokens -= 1;
+                return 0;
+            }
+            return (long) Math.ceil((1 - bucket.tokens) / refillPerNano);
+        }
+    }
+
+    private long reject(long waitNanos) {
+        throttled.increment();
+        return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos) + 1);
+    }
+
+    private static final class Stripe {
+        private final Map<String, Bucket> buckets = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    private static final class Bucket {
+        private double tokens;
+        private long lastAccess;
+
+        private Bucket(double tokens, long lastAccess) {
+            this.tokens = tokens;
+            this.lastAccess = lastAccess;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.project.back_end.services;
+
+import com.project.back_end.models.Doctor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.*;
+
+@Service
+public class NextAvailableService {
+    // 1. **Purpose**
+    // Finds the earliest free slots across all doctors of a specialty, e.g. "the next 5 slots with any cardiologist".
+
+    // 2. **Search Order**
+    // Days are visited in order, starting today. For each day, the free slots of all matching doctors come from
+    // `AvailabilityIndex` (one grouped query for uncached doctors) and are merged through a priority queue keyed by
+    // slot start. The search stops as soon as `limit` slots have been found, so later days are never loaded.
+
+    // 3. **Filters**
+    // - `amOrPm` keeps only morning (before 12:00) or afternoon slots.
+    // - Slots of today that have already started are skipped.
+
+    private static final int NOON_MINUTE = 12 * 60;
+
+    @Autowired
+    private DoctorDirectory doctorDirectory;
+
+    @Autowired
+    private AvailabilityIndex availabilityIndex;
+
+    /**
+     * 1. First `limit` free slots within `horizonDays` days across all doctors of a specialty
+     */
+    public List<Map<String, Object>> findNextAvailable(String specialty, String amOrPm, int horizonDays, int limit) {
+        Map<Long, Doctor> doctors = new HashMap<>();
+        for (Doctor doctor : doctorDirectory.find(null, specialty, null)) {
+            doctors.put(doctor.getId(), doctor);
+        }
+        if (doctors.isEmpty() || limit <= 0) return Collections.emptyList();
+
+        String period = amOrPm == null || amOrPm.isBlank() ? null : amOrPm.trim().toUpperCase(Locale.ENGLISH);
+        // One clock read, so the date, hour and minute agree across an hour or midnight boundary
+        LocalDateTime now = LocalDateTime.now();
+        LocalDate today = now.toLocalDate();
+        int nowMinute = now.getHour() * 60 + now.getMinute();
+
+        List<Map<String, Object>> result = new ArrayList<>(limit);
+        PriorityQueue<SlotCursor> queue = new PriorityQueue<>(doctors.size());
+
+        for (int day = 0; day < horizonDays && result.size() < limit; day++) {
+            LocalDate date = today.plusDays(day);
+            int earliest = day == 0 ? nowMinute + 1 : 0;
+
+            availabilityIndex.freeSlots(doctors.keySet(), date).forEach((doctorId, slots) -> {
+                SlotCursor cursor = new SlotCursor(doctorId, slots);
+                if (cursor.advanceTo(earliest, period)) queue.add(cursor);
+            });
+
+            while (!queue.isEmpty() && result.size() < limit) {
+                SlotCursor cursor = queue.poll();
+                result.add(toSlot(doctors.get(cursor.doctorId), date, cursor.current()));
+                if (cursor.advanceTo(cursor.current() + 1, period)) queue.add(cursor);
+            }
+            queue.clear();
+        }
+        return result;
+    }
+
+    private static Map<String, Object> toSlot(Doctor doctor, LocalDate date, int minuteOfDay) {
+        Map<String, Object> slot = new LinkedHashMap<>();
+        slot.put("doctorId", doctor.getId());
+        slot.put("doctorName", doctor.getName());
+        slot.put("specialty", doctor.getSpecialty());
+        slot.put("date", date.toString());
+        slot.put("time", ScheduleEngine.label(minuteOfDay));
+        slot.put("appointmentTime", LocalDateTime.of(date, LocalTime.of(minuteOfDay / 60, minuteOfDay % 60)));
+        return slot;
+    }
+
+    /**
+     * Position within one doctor's sorted free slots for a day, ordered by the current slot start
+     */
+    private static final class SlotCursor implements Comparable<SlotCursor> {
+        private final long doctorId;
+        private final int[] slots;
+        private int position;
+
+        private SlotCursor(long doctorId, int[] slots) {
+            this.doctorId = doctorId;
+            this.slots = slots;
+        }
+
+        private int current() {
+            return slots[position];
+        }
+
+        /**
+         * Move to the first slot at or after `minute` that matches the AM/PM filter; false when none is left
+         */
+        private boolean advanceTo(int minute, String period) {
+            while (position < slots.length) {
+                int slot = slots[position];
+                boolean inPeriod = period == null
+                        || ("AM".equals(period) && slot < NOON_MINUTE)
+                        || ("PM".equals(period) && slot >= NOON_MINUTE);
+                if (slot >= minute && inPeriod) return true;
+                position++;
+            }
+            return false;
+        }
+
+        @Override
+        public int compareTo(SlotCursor other) {
+            int byTime = Integer.compare(current(), other.current());
+            return byTime != 0 ? byTime : Long.compare(doctorId, other.doctorId);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.project.back_end.services;
+
+import java.util.Arrays;
+
+public final class OverlapDetector {
+    // 1. **Purpose**
+    // An immutable set of half-open intervals [start, end) (e.g. a doctor-day's appointments in minutes of day)
+    // that answers "does [s, e) overlap any of them?" in O(log n).
+
+    // 2. **Structure**
+    // Intervals are sorted by start, and `maxEnd[i]` holds the largest end among the first i + 1 intervals.
+    // For a query [s, e), a binary search finds the last interval starting before e; the query overlaps some
+    // interval exactly when `maxEnd` at that position is greater than s. Intervals may have any length,
+    // so a 09:30 visit of 60 minutes blocks both the 09:00 and the 10:00 slot.
+
+    // 3. **Updates**
+    // `with` and `without` return a new detector (O(n)); doctor-days hold few appointments, and readers never
+    // see a half-updated structure.
+
+    public static final OverlapDetector EMPTY = new OverlapDetector(new int[0], new int[0]);
+
+    private final int[] starts;
+    private final int[] ends;
+    private final int[] maxEnd;
+
+    private OverlapDetector(int[] starts, int[] ends) {
+        this.starts = starts;
+        this.ends = ends;
+        this.maxEnd = new int[starts.length];
+        int max = Integer.MIN_VALUE;
+        for (int i = 0; i < ends.length; i++) {
+            max = Math.max(max, ends[i]);
+            maxEnd[i] = max;
+        }
+    }
+
+    /**
+     * 1. Build a detector from parallel arrays of interval starts and ends (in any order)
+     */
+    public static OverlapDetector of(int[] starts, int[] ends, int count) {
+        if (count == 0) return EMPTY;
+        long[] packed = new long[count];
+        for (int i = 0; i < count; i++) {
+            packed[i] = ((long) starts[i] << 32) | (ends[i] & 0xFFFFFFFFL);
+        }
+        Arrays.sort(packed);
+
+        int[] sortedStarts = new int[count];
+        int[] sortedEnds = new int[count];
+        for (int i = 0; i < count; i++) {
+            sortedStarts[i] = (int) (packed[i] >> 32);
+            sortedEnds[i] = (int) packed[i];
+        }
+        return new OverlapDetector(sortedStarts, sortedEnds);
+    }
+
+    /**
+     * 2. Whether [start, end) overlaps any interval
+     */
+    public boolean overlaps(int start, int end) {
+        int last = lastStartBefore(end);
+        return last >= 0 && maxEnd[last] > start;
+    }
+
+    /**
+     * 3. A detector that also contains [start, end)
+     */
+    public OverlapDetector with(int start, int end) {
+        int at = lastStartBefore(start + 1) + 1;
+        int[] newStarts = new int[starts.length + 1];
+        int[] newEnds = new int[ends.length + 1];
+        System.arraycopy(starts, 0, newStarts, 0, at);
+        System.arraycopy(ends, 0, newEnds, 0, at);
+        newStarts[at] = start;
+        newEnds[at] = end;
+        System.arraycopy(starts, at, newStarts, at + 1, starts.length - at);
+        System.arraycopy(ends, at, newEnds, at + 1, ends.length - at);
+        return new OverlapDetector(newStarts, newEnds);
+    }
+
+    /**
+     * 4. A detector without one occurrence of [start, end); this detector if there is none
+     */
+    public OverlapDetector without(int start, int end) {
+        for (int i = lastStartBefore(start + 1); i >= 0 && starts[i] == start; i--) {
+            if (ends[i] == end) {
+                if (starts.length == 1) return EMPTY;
+                int[] newStarts = new int[starts.length - 1];
+                int[] newEnds = new int[ends.length - 1];
+                System.arraycopy(starts, 0, newStarts, 0, i);
+                System.arraycopy(ends, 0, newEnds, 0, i);
+                System.arraycopy(starts, i + 1, newStarts, i, starts.length - i - 1);
+                System.arraycopy(ends, i + 1, newEnds, i, ends.length - i - 1);
+                return new OverlapDetector(newStarts, newEnds);
+            }
+        }
+        return this;
+    }
+
+    public int size() {
+        return starts.length;
+    }
+
+    /**
+     * Helper method: Index of the last interval whose start is below `bound`, or -1
+     */
+    private int lastStartBefore(int bound) {
+        int low = 0;
+        int high = starts.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (starts[mid] < bound) {
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return high;
+    }
+}
@@ -0,0 +1,100 @@
+package com.project.back_end.services;
+
+import com.project.back_end.DTO.PatientName;
+import com.project.back_end.repo.PatientRepository;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+@Component
+public class PatientNameIndex {
+    // 1. **Purpose**
+    // Substring search over patient names (the doctor's "filter by patient name"), answered by a `TrigramIndex`
+    // instead of `LOWER(p.name) LIKE '%...%'`, which scans the whole patients table.
+
+    // 2. **Loading and Sync**
+    // The index is loaded with one id/name projection query on first use. `PatientService.createPatient` adds new
+    // patients right away, and a scheduled reload picks up patients created through other instances.
+
+    // 3. **Puts During a Reload**
+    // A reload reads the table and then swaps in the new index. A `put` made in between goes into the old index and
+    // may be missing from the rows just read, so puts are also recorded while a reload runs and replayed on the new
+    // index under the same lock as the swap. Reloads themselves run one at a time.
+
+    private final PatientRepository patientRepository;
+    private final Object swapLock = new Object();
+
+    private volatile TrigramIndex index;
+    private List<PatientName> putsDuringReload;
+
+    public PatientNameIndex(PatientRepository patientRepository) {
+        this.patientRepository = patientRepository;
+    }
+
+    /**
+     * 1. Ids of the patients whose name contains the filter (case-insensitive)
+     */
+    public Set<Long> search(String name) {
+        long[] ids = index().search(name);
+        Set<Long> result = new HashSet<>(ids.length * 2);
+        for (long id : ids) {
+            result.add(id);
+        }
+        return result;
+    }
+
+    /**
+     * 2. Add or rename a patient after it was saved
+     */
+    public void put(long patientId, String name) {
+        index();
+        synchronized (swapLock) {
+            index.put(patientId, name);
+            if (putsDuringReload != null) putsDuringReload.add(new PatientName(patientId, name));
+        }
+    }
+
+    /**
+     * 3. Reload the whole index from the database
+     */
+    @Scheduled(fixedDelayString = "${patient.name-index.refresh-ms:600000}",
+            initialDelayString = "${patient.name-index.refresh-ms:600000}")
+    public synchronized void reload() {
+        synchronized (swapLock) {
+            putsDuringReload = new ArrayList<>();
+        }
+        try {
+            TrigramIndex.Builder builder = TrigramIndex.builder();
+            for (PatientName patient : patientRepository.findAllNames()) {
+                builder.put(patient.id(), patient.name());
+            }
+            TrigramIndex fresh = builder.build();
+            synchronized (swapLock) {
+                for (PatientName patient : putsDuringReload) {
+                    fresh.put(patient.id(), patient.name());
+                }
+                index = fresh;
+            }
+        } finally {
+            synchronized (swapLock) {
+                putsDuringReload = null;
+            }
+        }
+    }
+
+    /**
+     * Helper method: Current index, loaded on first use
+     */
+    private TrigramIndex index() {
+        TrigramIndex current = index;
+        if (current != null) return current;
+        synchronized (this) {
+            if (index == null) reload();
+            return index;
+        }
+    }
+}
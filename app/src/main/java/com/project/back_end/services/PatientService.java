@@ -1,15 +1,21 @@
 package com.project.back_end.services;
 
 import com.project.back_end.DTO.AppointmentDTO;
-import com.project.back_end.models.Appointment;
+import com.project.back_end.DTO.UserPrincipal;
+import com.project.back_end.models.Doctor;
 import com.project.back_end.models.Patient;
 import com.project.back_end.repo.AppointmentRepository;
 import com.project.back_end.repo.PatientRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -32,7 +38,8 @@ public class PatientService {
 
     // 4. **getPatientAppointment Method**:
     //    - Retrieves a list of appointments for a specific patient, based on their ID.
-    //    - The appointments are then converted into `AppointmentDTO` objects for easier consumption by the API client.
+    //    - The appointments are read as `AppointmentDTO` rows joined with doctor and patient in a single SQL statement.
+    //    - With a `cursor` or `size`, one page ordered by (appointmentTime, id) is returned together with a `nextCursor`.
     //    - This method is marked as `@Transactional` to ensure database consistency during the transaction.
     //    - Instruction: Ensure that appointment data is properly converted into DTOs and the method handles errors gracefully.
 
@@ -54,10 +61,9 @@ public class PatientService {
     //    - Instruction: Ensure that the filter handles both doctor name and condition properly, and catches errors for invalid input.
 
     // 8. **getPatientDetails Method**:
-    //    - Retrieves patient details using the `tokenService` to extract the patient's email from the provided token.
-    //    - Once the email is extracted, it fetches the corresponding patient from the `patientRepository`.
+    //    - Retrieves patient details for the principal resolved once per request by `TokenAuthenticationFilter`.
+    //    - The principal carries the patient id, so the patient is fetched from the `patientRepository` by primary key.
     //    - It returns the patient's information in the response body.
-        //    - Instruction: Make sure that the token extraction process works correctly and patient details are fetched properly based on the extracted email.
 
     // 9. **Handling Exceptions and Errors**:
     //    - The service methods handle exceptions using try-catch blocks and log any issues that occur. If an error occurs during database operations, the service responds with appropriate HTTP status codes (e.g., `500 Internal Server Error`).
@@ -67,6 +73,9 @@ public class PatientService {
     //    - The service uses `AppointmentDTO` to transfer appointment-related data between layers. This ensures that sensitive or unnecessary data (e.g., password or private patient information) is not exposed in the response.
     //    - Instruction: Ensure that DTOs are used appropriately to limit the exposure of internal data and only send the relevant fields to the client.
 
+    private static final int DEFAULT_HISTORY_PAGE_SIZE = 20;
+    private static final int MAX_HISTORY_PAGE_SIZE = 100;
+
     @Autowired
     private PatientRepository patientRepository;
 
@@ -76,12 +85,22 @@ public class PatientService {
     @Autowired
     private TokenService tokenService;
 
+    @Autowired
+    private LoginThrottle loginThrottle;
+
+    @Autowired
+    private DoctorDirectory doctorDirectory;
+
+    @Autowired
+    private PatientNameIndex patientNameIndex;
+
     /**
      * 1. Create a new patient
      */
     public int createPatient(Patient patient) {
         try {
             patientRepository.save(patient);
+            patientNameIndex.put(patient.getId(), patient.getName());
             return 1; // success
         } catch (Exception e) {
             e.printStackTrace();
@@ -92,7 +111,7 @@ public class PatientService {
     /**
      * 2. Validate patient login
      */
-    public ResponseEntity<Map<String, String>> validatePatientLogin(Map<String, String> login) {
+    public ResponseEntity<Map<String, String>> validatePatientLogin(Map<String, String> login, String clientAddress) {
         String email = login.get("email");
         String password = login.get("password");
         Map<String, String> response = new HashMap<>();
@@ -102,6 +121,11 @@ public class PatientService {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
         }
 
+        long retryAfter = loginThrottle.tryAcquire(email, clientAddress);
+        if (retryAfter > 0) {
+            return LoginThrottle.tooManyAttempts(retryAfter, "error");
+        }
+
         Patient patient = patientRepository.findByEmail(email);
         if (patient == null || !patient.getPassword().equals(password)) {
             response.put("error", "Invalid email or password.");
@@ -109,110 +133,60 @@ public class PatientService {
         }
 
         // Generate JWT token using TokenService
-        String token = tokenService.generateToken(email);
+        String token = tokenService.generateToken(patient.getEmail(), "patient", patient.getId());
         response.put("token", token);
         response.put("message", "Login successful.");
         return ResponseEntity.ok(response);
     }
 
     /**
-     * 3. Retrieve appointments for a specific patient (token authorization)
+     * 3. Retrieve appointments for a specific patient (token authorization), paged when `cursor` or `size` is given
      */
-    public ResponseEntity<Map<String, Object>> getPatientAppointment(Long id, String token) {
+    public ResponseEntity<Map<String, Object>> getPatientAppointment(Long id, UserPrincipal patient, String cursor, Integer size) {
         Map<String, Object> response = new HashMap<>();
 
-        // Extract email from token
-        String email = tokenService.extractEmailFromToken(token);
-        Patient patient = patientRepository.findByEmail(email);
-
-        if (patient == null || !patient.getId().equals(id)) {
+        // The principal already carries the patient id, so no lookup is needed to authorize
+        if (patient == null || !Objects.equals(patient.getId(), id)) {
             response.put("message", "Unauthorized access to patient appointments");
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
         }
 
-        List<Appointment> appointments = appointmentRepository.findByPatientId(id);
-        List<AppointmentDTO> appointmentDTOs = appointments.stream()
-                .map(this::toAppointmentDTO)
-                .collect(Collectors.toList());
-
-        response.put("appointments", appointmentDTOs);
-        return ResponseEntity.ok(response);
+        return history(id, null, null, cursor, size);
     }
 
     /**
      * 4. Filter appointments by condition (past/future)
      */
-    public ResponseEntity<Map<String, Object>> filterByCondition(String condition, Long id) {
-        Map<String, Object> response = new HashMap<>();
-        List<Appointment> appointments;
-
-        if ("past".equalsIgnoreCase(condition)) {
-            appointments = appointmentRepository.findByPatient_IdAndStatusOrderByAppointmentTimeAsc(id, 1);
-        } else if ("future".equalsIgnoreCase(condition)) {
-            appointments = appointmentRepository.findByPatient_IdAndStatusOrderByAppointmentTimeAsc(id, 0);
-        } else {
-            response.put("message", "Invalid condition. Use 'past' or 'future'.");
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
-        }
-
-        List<AppointmentDTO> dtoList = appointments.stream()
-                .map(this::toAppointmentDTO)
-                .collect(Collectors.toList());
-
-        response.put("appointments", dtoList);
-        return ResponseEntity.ok(response);
+    public ResponseEntity<Map<String, Object>> filterByCondition(String condition, Long id, String cursor, Integer size) {
+        Integer status = statusOf(condition);
+        if (status == null) return invalidCondition();
+        return history(id, status, null, cursor, size);
     }
 
     /**
      * 5. Filter appointments by doctor name
      */
-    public ResponseEntity<Map<String, Object>> filterByDoctor(String name, Long patientId) {
-        Map<String, Object> response = new HashMap<>();
-        List<Appointment> appointments = appointmentRepository.filterByDoctorNameAndPatientId(name, patientId);
-
-        List<AppointmentDTO> dtoList = appointments.stream()
-                .map(this::toAppointmentDTO)
-                .collect(Collectors.toList());
-
-        response.put("appointments", dtoList);
-        return ResponseEntity.ok(response);
+    public ResponseEntity<Map<String, Object>> filterByDoctor(String name, Long patientId, String cursor, Integer size) {
+        return history(patientId, null, doctorIdsByName(name), cursor, size);
     }
 
     /**
      * 6. Filter appointments by doctor name and condition (past/future)
      */
-    public ResponseEntity<Map<String, Object>> filterByDoctorAndCondition(String condition, String name, long patientId) {
-        Map<String, Object> response = new HashMap<>();
-        int status;
-
-        if ("past".equalsIgnoreCase(condition)) {
-            status = 1;
-        } else if ("future".equalsIgnoreCase(condition)) {
-            status = 0;
-        } else {
-            response.put("message", "Invalid condition. Use 'past' or 'future'.");
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
-        }
-
-        List<Appointment> appointments = appointmentRepository
-                .filterByDoctorNameAndPatientIdAndStatus(name, patientId, status);
-
-        List<AppointmentDTO> dtoList = appointments.stream()
-                .map(this::toAppointmentDTO)
-                .collect(Collectors.toList());
-
-        response.put("appointments", dtoList);
-        return ResponseEntity.ok(response);
+    public ResponseEntity<Map<String, Object>> filterByDoctorAndCondition(String condition, String name, long patientId,
+                                                                          String cursor, Integer size) {
+        Integer status = statusOf(condition);
+        if (status == null) return invalidCondition();
+        return history(patientId, status, doctorIdsByName(name), cursor, size);
     }
 
     /**
      * 7. Get patient details using token
      */
-    public ResponseEntity<Map<String, Object>> getPatientDetails(String token) {
+    public ResponseEntity<Map<String, Object>> getPatientDetails(UserPrincipal principal) {
         Map<String, Object> response = new HashMap<>();
-        String email = tokenService.extractEmailFromToken(token);
 
-        Patient patient = patientRepository.findByEmail(email);
+        Patient patient = principal.getId() == null ? null : patientRepository.findById(principal.getId()).orElse(null);
         if (patient == null) {
             response.put("message", "Patient not found");
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
@@ -223,20 +197,73 @@ public class PatientService {
     }
 
     /**
-     * Helper method: Convert Appointment to AppointmentDTO
+     * Helper method: Ids of the doctors whose name contains the filter, from the in-memory directory
      */
-    private AppointmentDTO toAppointmentDTO(Appointment appointment) {
-        return new AppointmentDTO(
-                appointment.getId(),
-                appointment.getDoctor().getId(),
-                appointment.getDoctor().getName(),
-                appointment.getPatient().getId(),
-                appointment.getPatient().getName(),
-                appointment.getPatient().getEmail(),
-                appointment.getPatient().getPhone(),
-                appointment.getPatient().getAddress(),
-                appointment.getAppointmentTime(),
-                appointment.getStatus()
-        );
+    private List<Long> doctorIdsByName(String name) {
+        return doctorDirectory.find(name, null, null).stream()
+                .map(Doctor::getId)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Helper method: A patient's appointments as DTO rows from one query, ordered by (appointmentTime, id).
+     * With a cursor or size, returns one keyset page and the `nextCursor` (null on the last page).
+     */
+    private ResponseEntity<Map<String, Object>> history(Long patientId, Integer status, List<Long> doctorIds,
+                                                        String cursor, Integer size) {
+        Map<String, Object> response = new HashMap<>();
+        boolean paged = cursor != null || size != null;
+        int pageSize = size == null ? DEFAULT_HISTORY_PAGE_SIZE : size;
+        if (paged && (pageSize < 1 || pageSize > MAX_HISTORY_PAGE_SIZE)) {
+            response.put("message", "size must be 1-" + MAX_HISTORY_PAGE_SIZE + ".");
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+        }
+        if (doctorIds != null && doctorIds.isEmpty()) {
+            response.put("appointments", Collections.emptyList());
+            if (paged) response.put("nextCursor", null);
+            return ResponseEntity.ok(response);
+        }
+
+        Pageable limit = paged ? PageRequest.ofSize(pageSize + 1) : Pageable.unpaged();
+        LocalDateTime afterTime = null;
+        Long afterId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            try {
+                String keyset = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int separator = keyset.indexOf('|');
+                afterTime = LocalDateTime.parse(keyset.substring(0, separator));
+                afterId = Long.parseLong(keyset.substring(separator + 1));
+            } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+                response.put("message", "Invalid cursor.");
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+            }
+        }
+        List<AppointmentDTO> appointments =
+                appointmentRepository.findHistory(patientId, status, doctorIds, afterTime, afterId, limit);
+
+        if (paged) {
+            boolean hasMore = appointments.size() > pageSize;
+            if (hasMore) appointments = appointments.subList(0, pageSize);
+            AppointmentDTO last = hasMore ? appointments.get(appointments.size() - 1) : null;
+            response.put("nextCursor", last == null ? null : Base64.getUrlEncoder().withoutPadding().encodeToString(
+                    (last.getAppointmentTime() + "|" + last.getId()).getBytes(StandardCharsets.UTF_8)));
+        }
+        response.put("appointments", appointments);
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Helper method: Appointment status of a condition (0 future, 1 past), or null if it is neither
+     */
+    private static Integer statusOf(String condition) {
+        if ("past".equalsIgnoreCase(condition)) return 1;
+        if ("future".equalsIgnoreCase(condition)) return 0;
+        return null;
+    }
+
+    private static ResponseEntity<Map<String, Object>> invalidCondition() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("message", "Invalid condition. Use 'past' or 'future'.");
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
     }
-}
\ No newline at end of file
+}
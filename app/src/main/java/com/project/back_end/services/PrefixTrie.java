@@ -0,0 +1,173 @@
+package com.project.back_end.services;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+public final class PrefixTrie<T> {
+    // 1. **Purpose**
+    // An immutable, compressed (radix) prefix trie for typeahead. Chains of single-child nodes are merged into one
+    // edge label, so a lookup walks at most one node per distinct branching point of the prefix.
+
+    // 2. **Ranking**
+    // Every key is added with an item index and a weight; lower (weight, item index) ranks first. At build time each
+    // node stores the top-K distinct items of its whole subtree as an unmodifiable list, so `search` only walks the
+    // prefix and returns that precomputed list: no ranking, sorting or allocation per keystroke.
+
+    // 3. **Keys**
+    // Keys are matched exactly as given; callers normalize case and whitespace for both keys and queries.
+
+    private final Node<T> root;
+
+    private PrefixTrie(Node<T> root) {
+        this.root = root;
+    }
+
+    public static <T> Builder<T> builder(int topK) {
+        return new Builder<>(topK);
+    }
+
+    /**
+     * 1. The top-K items with a key starting with the prefix, best first (empty list when none)
+     */
+    public List<T> search(String prefix) {
+        Node<T> node = root;
+        int i = 0;
+        while (i < prefix.length()) {
+            node = node.child(prefix.charAt(i));
+            if (node == null) return List.of();
+            String label = node.label;
+            for (int j = 0; j < label.length() && i < prefix.length(); j++, i++) {
+                if (label.charAt(j) != prefix.charAt(i)) return List.of();
+            }
+        }
+        return node.top;
+    }
+
+    public static final class Builder<T> {
+        private final int topK;
+        private final MutableNode root = new MutableNode();
+
+        private Builder(int topK) {
+            if (topK < 1) throw new IllegalArgumentException("topK must be positive");
+            this.topK = topK;
+        }
+
+        /**
+         * 2. Index a key for the item at `itemIndex`; lower weights rank first
+         */
+        public Builder<T> add(String key, int itemIndex, int weight) {
+            if (key == null || key.isEmpty()) return this;
+            MutableNode node = root;
+            for (int i = 0; i < key.length(); i++) {
+                node = node.children.computeIfAbsent(key.charAt(i), c -> new MutableNode());
+            }
+            node.add(rank(weight, itemIndex));
+            return this;
+        }
+
+        /**
+         * 3. Freeze the trie; `items` are looked up by the indexes passed to `add`
+         */
+        public PrefixTrie<T> build(List<T> items) {
+            return new PrefixTrie<>(freeze("", root, items));
+        }
+
+        /**
+         * Helper method: Compute the subtree top-K, merge single-child chains and build the immutable node
+         */
+        private Node<T> freeze(String label, MutableNode node, List<T> items) {
+            StringBuilder edge = new StringBuilder(label);
+            while (node.size == 0 && node.children.size() == 1 && node != root) {
+                Map.Entry<Character, MutableNode> only = node.children.firstEntry();
+                edge.append(only.getKey());
+                node = only.getValue();
+            }
+
+            char[] keys = new char[node.children.size()];
+            @SuppressWarnings("unchecked")
+            Node<T>[] children = new Node[keys.length];
+            long[] candidates = Arrays.copyOf(node.ranks, node.size);
+            int count = node.size;
+            int next = 0;
+            for (Map.Entry<Character, MutableNode> child : node.children.entrySet()) {
+                keys[next] = child.getKey();
+                children[next] = freeze(String.valueOf(child.getKey()), child.getValue(), items);
+                long[] childTop = children[next].topRanks;
+                if (count + childTop.length > candidates.length) {
+                    candidates = Arrays.copyOf(candidates, Math.max(candidates.length * 2, count + childTop.length));
+                }
+                System.arraycopy(childTop, 0, candidates, count, childTop.length);
+                count += childTop.length;
+                next++;
+            }
+
+            long[] topRanks = topDistinct(candidates, count);
+            List<T> top = new ArrayList<>(topRanks.length);
+            for (long rank : topRanks) {
+                top.add(items.get(itemOf(rank)));
+            }
+            return new Node<>(edge.toString(), keys, children, topRanks, Collections.unmodifiableList(top));
+        }
+
+        /**
+         * Helper method: Best `topK` ranks with at most one rank per item
+         */
+        private long[] topDistinct(long[] ranks, int count) {
+            Arrays.sort(ranks, 0, count);
+            long[] top = new long[Math.min(topK, count)];
+            int size = 0;
+            for (int i = 0; i < count && size < top.length; i++) {
+                boolean seen = false;
+                for (int j = 0; j < size && !seen; j++) {
+                    seen = itemOf(top[j]) == itemOf(ranks[i]);
+                }
+                if (!seen) top[size++] = ranks[i];
+            }
+            return Arrays.copyOf(top, size);
+        }
+    }
+
+    private static long rank(int weight, int itemIndex) {
+        return ((long) weight << 32) | itemIndex;
+    }
+
+    private static int itemOf(long rank) {
+        return (int) rank;
+    }
+
+    private static final class MutableNode {
+        private final TreeMap<Character, MutableNode> children = new TreeMap<>();
+        private long[] ranks = new long[1];
+        private int size;
+
+        private void add(long rank) {
+            if (size == ranks.length) ranks = Arrays.copyOf(ranks, size * 2);
+            ranks[size++] = rank;
+        }
+    }
+
+    private static final class Node<T> {
+        private final String label;
+        private final char[] keys;
+        private final Node<T>[] children;
+        private final long[] topRanks;
+        private final List<T> top;
+
+        private Node(String label, char[] keys, Node<T>[] children, long[] topRanks, List<T> top) {
+            this.label = label;
+            this.keys = keys;
+            this.children = children;
+            this.topRanks = topRanks;
+            this.top = top;
+        }
+
+        private Node<T> child(char c) {
+            int index = Arrays.binarySearch(keys, c);
+            return index < 0 ? null : children[index];
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.project.back_end.services;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Persistence backend for {@link TokenRevocationList} (single tokens) and {@link TokenVersionRegistry} (every token of
+ * a principal). Only consulted on revoke, at startup, during the periodic sync and during purges, never while
+ * validating a token.
+ */
+public interface RevocationStore {
+
+    /**
+     * 1. Persist a revoked token id until its expiry
+     */
+    void save(String tokenId, Instant expiresAt);
+
+    /**
+     * 2. Load all revoked token ids that are still unexpired, with their expiry in epoch millis
+     */
+    Map<String, Long> loadActive(Instant now);
+
+    /**
+     * 3. Load the revoked token ids saved after the given time (by any instance), with their expiry in epoch millis
+     */
+    Map<String, Long> loadRevokedSince(Instant since);
+
+    /**
+     * 4. Remove entries whose token has expired
+     */
+    void deleteExpired(Instant now);
+
+    /**
+     * 5. Increment a principal's token version and return the new version
+     */
+    int bumpVersion(String principal);
+
+    /**
+     * 6. Load the token versions bumped after the given time (by any instance)
+     */
+    Map<String, Integer> loadVersionsSince(Instant since);
+}
@@ -0,0 +1,326 @@
+package com.project.back_end.services;
+
+import com.project.back_end.DTO.WorkingHoursRange;
+import com.project.back_end.repo.DoctorRepository;
+import com.project.back_end.repo.DoctorWorkingHoursRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Component
+public class ScheduleEngine {
+    // 1. **Purpose**
+    // Turns a doctor's working windows into bookable slots, represented as minute-of-day integers.
+    // Availability and booking validation both work on this representation; slots are only formatted
+    // as "09:00 AM" labels at the JSON boundary via `label`.
+
+    // 2. **Working Windows**
+    // Windows come from the `DoctorWorkingHours` rows of the requested day of week, which are derived from
+    // `Doctor.availableTimes` ("HH:mm-HH:mm", optionally prefixed by a day such as "TUE 13:00-17:00").
+    // Doctors without any working hours fall back to `schedule.default-windows` on every day; a doctor with
+    // working hours has no slots on the days they do not cover.
+
+    // 3. **Slot Generation**
+    // Inside each window, slots of `schedule.slot-minutes` start every `slot-minutes + buffer-minutes`, and only
+    // slots that end within the window are kept. Overlapping windows share their slots. A day holds at most
+    // `DoctorSchedule.MAX_SLOTS` slots (one bitmap word): doctors whose windows would give more are rejected when
+    // saved (`fitsSlotLimit`), and startup fails if the default windows or any stored working hours exceed it under
+    // the configured slot length, instead of silently dropping the late slots.
+
+    // 4. **Caching**
+    // A doctor's seven day schedules are cached together and evicted when the doctor is updated or deleted.
+    // Loading several doctors at once uses a single query. Only existing doctors are cached: ids without working
+    // hours are checked with one id query, and unknown ids get the default schedule uncached, so ids taken from
+    // request paths cannot grow the cache.
+
+    private static final String[] LABELS = new String[24 * 60];
+
+    static {
+        for (int minute = 0; minute < LABELS.length; minute++) {
+            int hour = minute / 60;
+            LABELS[minute] = String.format("%02d:%02d %s",
+                    hour % 12 == 0 ? 12 : hour % 12, minute % 60, hour < 12 ? "AM" : "PM");
+        }
+    }
+
+    private static final int EVERY_DAY = 0;
+
+    private final DoctorWorkingHoursRepository workingHoursRepository;
+    private final DoctorRepository doctorRepository;
+    private final int slotMinutes;
+    private final int bufferMinutes;
+    private final DoctorSchedule defaultSchedule;
+    private final DoctorSchedule[] defaultWeek;
+    private final DoctorSchedule dayOff;
+
+    private final Map<Long, DoctorSchedule[]> schedules = new ConcurrentHashMap<>();
+
+    public ScheduleEngine(DoctorWorkingHoursRepository workingHoursRepository, DoctorRepository doctorRepository,
+                          @Value("${schedule.slot-minutes:60}") int slotMinutes,
+                          @Value("${schedule.buffer-minutes:0}") int bufferMinutes,
+                          @Value("${schedule.default-windows:09:00-17:00}") List<String> defaultWindows) {
+        if (slotMinutes <= 0 || bufferMinutes < 0) {
+            throw new IllegalArgumentException("schedule.slot-minutes must be positive and schedule.buffer-minutes non-negative");
+        }
+        this.workingHoursRepository = workingHoursRepository;
+        this.doctorRepository = doctorRepository;
+        this.slotMinutes = slotMinutes;
+        this.bufferMinutes = bufferMinutes;
+        this.defaultSchedule = buildSlots(parseWindows(defaultWindows));
+        this.defaultWeek = new DoctorSchedule[7];
+        Arrays.fill(defaultWeek, defaultSchedule);
+        this.dayOff = new DoctorSchedule(new int[0], slotMinutes);
+    }
+
+    /**
+     * Startup check: every stored doctor-day must fit in one bitmap under the configured slot length
+     */
+    @PostConstruct
+    void checkSlotLimit() {
+        Map<Long, List<int[]>> windowsByDoctorDay = new HashMap<>();
+        for (WorkingHoursRange range : workingHoursRepository.findAllRanges()) {
+            windowsByDoctorDay.computeIfAbsent(range.doctorId() * 8 + range.dayOfWeek(), key -> new ArrayList<>())
+                    .add(new int[]{range.dayOfWeek(), range.startMinute(), range.endMinute()});
+        }
+        windowsByDoctorDay.forEach((key, windows) -> {
+            int count = slotStarts(windows).length;
+            if (count > DoctorSchedule.MAX_SLOTS) {
+                throw new IllegalStateException("Doctor " + key / 8 + " has " + count + " slots on day " + key % 8
+                        + " with schedule.slot-minutes=" + slotMinutes + "; at most " + DoctorSchedule.MAX_SLOTS
+                        + " are supported");
+            }
+        });
+    }
+
+    /**
+     * 1. Slot schedule of a doctor on a date
+     */
+    public DoctorSchedule scheduleFor(long doctorId, LocalDate date) {
+        DoctorSchedule[] cached = schedules.get(doctorId);
+        if (cached != null) return cached[date.getDayOfWeek().getValue() - 1];
+        return schedulesFor(List.of(doctorId), date).get(doctorId);
+    }
+
+    /**
+     * 2. Slot schedules of several doctors on a date, loading uncached doctors with one query
+     */
+    public Map<Long, DoctorSchedule> schedulesFor(Collection<Long> doctorIds, LocalDate date) {
+        int day = date.getDayOfWeek().getValue() - 1;
+        Map<Long, DoctorSchedule> result = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        for (Long doctorId : doctorIds) {
+            DoctorSchedule[] cached = schedules.get(doctorId);
+            if (cached != null) {
+                result.put(doctorId, cached[day]);
+            } else {
+                missing.add(doctorId);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            Map<Long, List<WorkingHoursRange>> ranges = new HashMap<>();
+            for (WorkingHoursRange range : workingHoursRepository.findRangesByDoctorIds(missing)) {
+                ranges.computeIfAbsent(range.doctorId(), id -> new ArrayList<>()).add(range);
+            }
+            List<Long> withoutHours = new ArrayList<>();
+            for (Long doctorId : missing) {
+                if (!ranges.containsKey(doctorId)) withoutHours.add(doctorId);
+            }
+            Set<Long> existing = withoutHours.isEmpty()
+                    ? Set.of() : new HashSet<>(doctorRepository.findExistingIds(withoutHours));
+
+            for (Long doctorId : missing) {
+                DoctorSchedule[] week = weekOf(ranges.get(doctorId));
+                if (ranges.containsKey(doctorId) || existing.contains(doctorId)) {
+                    schedules.put(doctorId, week);
+                }
+                result.put(doctorId, week[day]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 3. Whether the time is the exact start of one of the doctor's slots
+     */
+    public boolean isSlotStart(long doctorId, LocalDateTime time) {
+        int minute = minuteOfDay(time.toLocalTime());
+        return minute >= 0 && scheduleFor(doctorId, time.toLocalDate()).indexOf(minute) >= 0;
+    }
+
+    /**
+     * 3a. Whether working windows ("HH:mm-HH:mm", optionally day-prefixed) give at most `MAX_SLOTS` slots on every day
+     */
+    public boolean fitsSlotLimit(Collection<String> windows) {
+        if (windows == null) return true;
+        List<int[]> parsed = parseWindows(windows);
+        for (int day = 1; day <= 7; day++) {
+            List<int[]> ofDay = new ArrayList<>();
+            for (int[] range : parsed) {
+                if (range[0] == EVERY_DAY || range[0] == day) ofDay.add(range);
+            }
+            if (slotStarts(ofDay).length > DoctorSchedule.MAX_SLOTS) return false;
+        }
+        return true;
+    }
+
+    /**
+     * 3b. Slot schedule built from working windows of any day, falling back to the default windows (not cached)
+     */
+    public DoctorSchedule scheduleOf(Collection<String> windows) {
+        DoctorSchedule schedule = windows == null ? defaultSchedule : buildSlots(parseWindows(windows));
+        return schedule.slotCount() == 0 ? defaultSchedule : schedule;
+    }
+
+    /**
+     * 4. Forget a doctor's cached schedule (after update or delete)
+     */
+    public void evict(long doctorId) {
+        schedules.remove(doctorId);
+    }
+
+    /**
+     * 4a. Whether a doctor's schedule is cached, which only happens for doctors that exist
+     */
+    public boolean isCached(long doctorId) {
+        return schedules.containsKey(doctorId);
+    }
+
+    /**
+     * 5. Minute of day of a time, or -1 if it is not on a whole minute
+     */
+    public static int minuteOfDay(LocalTime time) {
+        if (time.getSecond() != 0 || time.getNano() != 0) return -1;
+        return time.getHour() * 60 + time.getMinute();
+    }
+
+    /**
+     * 6. Display label ("09:00 AM") of a minute of day, formatted only at the JSON boundary
+     */
+    public static String label(int minuteOfDay) {
+        return LABELS[minuteOfDay];
+    }
+
+    public static List<String> labels(int[] minutesOfDay) {
+        List<String> labels = new ArrayList<>(minutesOfDay.length);
+        for (int minute : minutesOfDay) {
+            labels.add(LABELS[minute]);
+        }
+        return labels;
+    }
+
+    /**
+     * 7. Parse a working window "HH:mm-HH:mm", optionally prefixed by a day ("TUE 13:00-17:00"), into
+     *    {dayOfWeek, startMinute, endMinute} with ISO dayOfWeek 1-7, or 0 for every day; null if it is not valid
+     */
+    public static int[] parseWindow(String window) {
+        if (window == null) return null;
+        String trimmed = window.trim();
+        int day = EVERY_DAY;
+        int space = trimmed.indexOf(' ');
+        if (space > 0 && Character.isLetter(trimmed.charAt(0))) {
+            day = parseDay(trimmed.substring(0, space));
+            if (day == EVERY_DAY) return null;
+            trimmed = trimmed.substring(space + 1);
+        }
+
+        int dash = trimmed.indexOf('-');
+        if (dash < 0) return null;
+        try {
+            int start = parseMinute(trimmed.substring(0, dash).trim());
+            int end = parseMinute(trimmed.substring(dash + 1).trim());
+            return start < end ? new int[]{day, start, end} : null;
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 8. ISO day of week (1-7) of a day name such as "TUE" or "Tuesday", or 0 if it is not one
+     */
+    public static int parseDay(String name) {
+        if (name == null || name.length() < 3) return EVERY_DAY;
+        String upper = name.trim().toUpperCase(Locale.ENGLISH);
+        for (DayOfWeek day : DayOfWeek.values()) {
+            if (day.name().startsWith(upper) && (upper.length() == 3 || upper.equals(day.name()))) {
+                return day.getValue();
+            }
+        }
+        return EVERY_DAY;
+    }
+
+    /**
+     * Helper method: Seven day schedules (Monday first) from a doctor's working-hours rows
+     */
+    private DoctorSchedule[] weekOf(List<WorkingHoursRange> ranges) {
+        if (ranges == null || ranges.isEmpty()) return defaultWeek;
+
+        DoctorSchedule[] week = new DoctorSchedule[7];
+        for (int day = 1; day <= 7; day++) {
+            List<int[]> windows = new ArrayList<>();
+            for (WorkingHoursRange range : ranges) {
+                if (range.dayOfWeek() == day) {
+                    windows.add(new int[]{day, range.startMinute(), range.endMinute()});
+                }
+            }
+            week[day - 1] = windows.isEmpty() ? dayOff : buildSlots(windows);
+        }
+        return week;
+    }
+
+    private static List<int[]> parseWindows(Collection<String> windows) {
+        List<int[]> parsed = new ArrayList<>(windows.size());
+        for (String window : windows) {
+            int[] range = parseWindow(window);
+            if (range != null) parsed.add(range);
+        }
+        return parsed;
+    }
+
+    /**
+     * Helper method: Schedule of a day from parsed {day, start, end} windows; more than `MAX_SLOTS` slots is an error
+     */
+    private DoctorSchedule buildSlots(List<int[]> windows) {
+        int[] starts = slotStarts(windows);
+        if (starts.length > DoctorSchedule.MAX_SLOTS) {
+            throw new IllegalStateException(starts.length + " slots in one day with schedule.slot-minutes="
+                    + slotMinutes + "; at most " + DoctorSchedule.MAX_SLOTS + " are supported");
+        }
+        return new DoctorSchedule(starts, slotMinutes);
+    }
+
+    /**
+     * Helper method: Sorted, de-duplicated slot starts of parsed {day, start, end} windows (not capped)
+     */
+    private int[] slotStarts(List<int[]> windows) {
+        Set<Integer> starts = new HashSet<>();
+        for (int[] range : windows) {
+            for (int start = range[1]; start + slotMinutes <= range[2]; start += slotMinutes + bufferMinutes) {
+                starts.add(start);
+            }
+        }
+        return starts.stream().mapToInt(Integer::intValue).sorted().toArray();
+    }
+
+    private static int parseMinute(String time) {
+        if ("24:00".equals(time)) return 24 * 60;
+        LocalTime parsed = LocalTime.parse(time);
+        return parsed.getHour() * 60 + parsed.getMinute();
+    }
+}
@@ -1,6 +1,7 @@
 package com.project.back_end.services;
 
 import com.project.back_end.DTO.Login;
+import com.project.back_end.DTO.UserPrincipal;
 import com.project.back_end.models.Admin;
 import com.project.back_end.models.Appointment;
 import com.project.back_end.models.Patient;
@@ -12,10 +13,8 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 
-import java.time.LocalDate;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.Optional;
 
 @Service
 public class ServiceManager {
@@ -40,19 +39,21 @@ public class ServiceManager {
     // - If the password is incorrect, it returns a 401 Unauthorized status with an error message.
     // - If no admin is found, it also returns a 401 Unauthorized.
     // - If any unexpected error occurs during the process, a 500 Internal Server Error response is returned.
+    // - Attempts are first checked against `LoginThrottle`; throttled attempts get a 429 without any repository lookup.
     // This method ensures that only valid admin users can access secured parts of the system.
 
     // 5. **filterDoctor Method**
     // This method provides filtering functionality for doctors based on name, specialty, and available time slots.
-    // - It supports various combinations of the three filters.
+    // - It supports any combination of the three filters; blank filters are ignored.
     // - If none of the filters are provided, it returns all available doctors.
+    // - Unpaged requests are answered from `DoctorDirectory`; paged requests (or requests for a day of week) run one query with every filter pushed down to SQL.
     // This flexible filtering mechanism allows the frontend or consumers of the API to search and narrow down doctors based on user criteria.
 
     // 6. **validateAppointment Method**
     // This method validates if the requested appointment time for a doctor is available.
     // - It first checks if the doctor exists in the repository.
-    // - Then, it retrieves the list of available time slots for the doctor on the specified date.
-    // - It compares the requested appointment time with the start times of these slots.
+    // - Then, it checks the doctor's slot bitmap in `AvailabilityIndex` for the requested time.
+    // - The requested time must be the start of one of the doctor's slots (see `ScheduleEngine`) and that slot must be free.
     // - If a match is found, it returns 1 (valid appointment time).
     // - If no matching time slot is found, it returns 0 (invalid).
     // - If the doctor doesn’t exist, it returns -1.
@@ -75,7 +76,7 @@ public class ServiceManager {
 
     // 9. **filterPatient Method**
     // This method filters a patient's appointment history based on condition and doctor name.
-    // - It extracts the email from the JWT token to identify the patient.
+    // - It identifies the patient from the principal resolved once per request by `TokenAuthenticationFilter`.
     // - Depending on which filters (condition, doctor name) are provided, it delegates the filtering logic to PatientService.
     // - If no filters are provided, it retrieves all appointments for the patient.
     // This flexible method supports patient-specific querying and enhances user experience on the client side.
@@ -86,6 +87,8 @@ public class ServiceManager {
     private final PatientRepository patientRepository;
     private final DoctorService doctorService;
     private final PatientService patientService;
+    private final LoginThrottle loginThrottle;
+    private final AvailabilityIndex availabilityIndex;
 
     @Autowired
     public ServiceManager(TokenService tokenService,
@@ -93,13 +96,17 @@ public class ServiceManager {
                           DoctorRepository doctorRepository,
                           PatientRepository patientRepository,
                           DoctorService doctorService,
-                          PatientService patientService) {
+                          PatientService patientService,
+                          LoginThrottle loginThrottle,
+                          AvailabilityIndex availabilityIndex) {
         this.tokenService = tokenService;
         this.adminRepository = adminRepository;
         this.doctorRepository = doctorRepository;
         this.patientRepository = patientRepository;
         this.doctorService = doctorService;
         this.patientService = patientService;
+        this.loginThrottle = loginThrottle;
+        this.availabilityIndex = availabilityIndex;
     }
 
     /**
@@ -118,8 +125,13 @@ public class ServiceManager {
     /**
      * 2. Validate Admin login credentials
      */
-    public ResponseEntity<Map<String, String>> validateAdmin(Admin receivedAdmin) {
+    public ResponseEntity<Map<String, String>> validateAdmin(Admin receivedAdmin, String clientAddress) {
         Map<String, String> response = new HashMap<>();
+        long retryAfter = loginThrottle.tryAcquire(receivedAdmin.getUsername(), clientAddress);
+        if (retryAfter > 0) {
+            return LoginThrottle.tooManyAttempts(retryAfter, "message");
+        }
+
         Admin admin = adminRepository.findByUsername(receivedAdmin.getUsername());
 
         if (admin == null || !admin.getPassword().equals(receivedAdmin.getPassword())) {
@@ -127,7 +139,7 @@ public class ServiceManager {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
         }
 
-        String token = tokenService.generateToken(admin.getUsername());
+        String token = tokenService.generateToken(admin.getUsername(), "admin", admin.getId());
         response.put("token", token);
         response.put("message", "Admin login successful");
         return ResponseEntity.ok(response);
@@ -137,40 +149,29 @@ public class ServiceManager {
      * 3. Filter doctors by name, specialty, and available time
      */
     public Map<String, Object> filterDoctor(String name, String specialty, String time) {
-        if (name != null && specialty != null && time != null) {
-            return doctorService.filterDoctorsByNameSpecialtyAndTime(name, specialty, time);
-        } else if (name != null && specialty != null) {
-            return doctorService.filterDoctorByNameAndSpecialty(name, specialty);
-        } else if (name != null && time != null) {
-            return doctorService.filterDoctorByNameAndTime(name, time);
-        } else if (specialty != null && time != null) {
-            return doctorService.filterDoctorByTimeAndSpecialty(specialty, time);
-        } else if (name != null) {
-            return doctorService.findDoctorByName(name);
-        } else if (specialty != null) {
-            return doctorService.filterDoctorBySpecialty(specialty);
-        } else if (time != null) {
-            return doctorService.filterDoctorsByTime(time);
-        }
-        Map<String, Object> result = new HashMap<>();
-        result.put("doctors", doctorService.getDoctors());
-        return result;
+        return doctorService.filterDoctors(name, specialty, time);
+    }
+
+    /**
+     * 3b. One page of doctors filtered by name, specialty, available time and day of week (0 for any day)
+     *     in a single database query
+     */
+    public Map<String, Object> filterDoctor(String name, String specialty, String time, int dayOfWeek, int page, int size) {
+        return doctorService.searchDoctors(name, specialty, time, dayOfWeek, page, size);
     }
 
     /**
      * 4. Validate if an appointment time is available
      */
     public int validateAppointment(Appointment appointment) {
-        Optional<com.project.back_end.models.Doctor> doctorOptional = doctorRepository.findById(appointment.getDoctor().getId());
-        if (!doctorOptional.isPresent()) {
+        Long doctorId = appointment.getDoctor().getId();
+        if (doctorId == null || !doctorRepository.existsById(doctorId)) {
             return -1;  // doctor not found
         }
 
-        LocalDate date = appointment.getAppointmentTime().toLocalDate();
-        var availableSlots = doctorService.getDoctorAvailability(appointment.getDoctor().getEmail(), date);
-
-        String appointmentTimeString = appointment.getAppointmentTime().toLocalTime().toString();
-        return availableSlots.contains(appointmentTimeString) ? 1 : 0;
+        // Same minute-of-day slot representation as getDoctorAvailability; no string formatting or comparison
+        return availabilityIndex.isFree(doctorId, appointment.getAppointmentTime(),
+                appointment.getDurationMinutes()) ? 1 : 0;
     }
 
     /**
@@ -184,8 +185,13 @@ public class ServiceManager {
     /**
      * 6. Validate Patient login credentials and return token
      */
-    public ResponseEntity<Map<String, String>> validatePatientLogin(Login login) {
+    public ResponseEntity<Map<String, String>> validatePatientLogin(Login login, String clientAddress) {
         Map<String, String> response = new HashMap<>();
+        long retryAfter = loginThrottle.tryAcquire(login.getIdentifier(), clientAddress);
+        if (retryAfter > 0) {
+            return LoginThrottle.tooManyAttempts(retryAfter, "message");
+        }
+
         Patient patient = patientRepository.findByEmail(login.getIdentifier());
 
         if (patient == null || !patient.getPassword().equals(login.getPassword())) {
@@ -193,7 +199,7 @@ public class ServiceManager {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
         }
 
-        String token = tokenService.generateToken(patient.getEmail());
+        String token = tokenService.generateToken(patient.getEmail(), "patient", patient.getId());
         response.put("token", token);
         response.put("message", "Patient login successful");
         return ResponseEntity.ok(response);
@@ -202,22 +208,20 @@ public class ServiceManager {
     /**
      * 7. Filter patient appointments by condition/doctor
      */
-    public ResponseEntity<Map<String, Object>> filterPatient(String condition, String name, String token) {
-        String email = tokenService.extractEmailFromToken(token);
-        Patient patient = patientRepository.findByEmail(email);
-
-        if (patient == null) {
+    public ResponseEntity<Map<String, Object>> filterPatient(String condition, String name, UserPrincipal patient,
+                                                             String cursor, Integer size) {
+        if (patient == null || !patient.hasRole("patient") || patient.getId() == null) {
             Map<String, Object> response = new HashMap<>();
             response.put("message", "Patient not found or unauthorized");
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
         }
 
         if (condition != null && name != null) {
-            return patientService.filterByDoctorAndCondition(condition, name, patient.getId());
+            return patientService.filterByDoctorAndCondition(condition, name, patient.getId(), cursor, size);
         } else if (condition != null) {
-            return patientService.filterByCondition(condition, patient.getId());
+            return patientService.filterByCondition(condition, patient.getId(), cursor, size);
         } else if (name != null) {
-            return patientService.filterByDoctor(name, patient.getId());
+            return patientService.filterByDoctor(name, patient.getId(), cursor, size);
         } else {
             Map<String, Object> response = new HashMap<>();
             response.put("message", "No filter applied");
@@ -0,0 +1,251 @@
+package com.project.back_end.services;
+
+import com.project.back_end.DTO.UserPrincipal;
+import com.project.back_end.models.Appointment;
+import com.project.back_end.models.Doctor;
+import com.project.back_end.models.Patient;
+import com.project.back_end.repo.DoctorRepository;
+import com.project.back_end.repo.PatientRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.NonNull;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+@Service
+public class SlotHoldService implements MeterBinder {
+    // 1. **Purpose**
+    // Places a short hold on a slot while a patient is in the booking modal, so other patients stop seeing it
+    // and do not pile up failed bookings for it.
+
+    // 2. **Visibility**
+    // A hold sets the slot's bit in the `AvailabilityIndex` hold bitmap, which `getDoctorAvailability`, the bulk
+    // availability reads and `isFree` treat like a booked slot.
+
+    // 3. **Expiry**
+    // Holds live for `booking.hold.ttl-seconds` and are expired by a `HashedTimingWheel` advanced once per tick,
+    // so expiry costs the same with ten or with tens of thousands of live holds. A patient has at most one hold;
+    // placing a new one releases the previous one.
+
+    // 4. **Confirm**
+    // Confirming takes the doctor-day's `BookingLockStripes` lock, clears the hold and books the appointment through
+    // `AppointmentService.bookAppointment` (which re-enters the same lock), so no other booking can take the slot
+    // in between.
+
+    private final AppointmentService appointmentService;
+    private final AvailabilityIndex availabilityIndex;
+    private final ScheduleEngine scheduleEngine;
+    private final BookingLockStripes bookingLocks;
+    private final DoctorRepository doctorRepository;
+    private final PatientRepository patientRepository;
+
+    private final long ttlMillis;
+    private final HashedTimingWheel<Hold> wheel;
+
+    private final Map<String, Hold> holds = new ConcurrentHashMap<>();
+    private final Map<Long, Hold> holdsByPatient = new ConcurrentHashMap<>();
+
+    private final LongAdder placed = new LongAdder();
+    private final LongAdder confirmed = new LongAdder();
+    private final LongAdder expired = new LongAdder();
+
+    public SlotHoldService(AppointmentService appointmentService,
+                           AvailabilityIndex availabilityIndex,
+                           ScheduleEngine scheduleEngine,
+                           BookingLockStripes bookingLocks,
+                           DoctorRepository doctorRepository,
+                           PatientRepository patientRepository,
+                           @Value("${booking.hold.ttl-seconds:300}") long ttlSeconds,
+                           @Value("${booking.hold.tick-ms:1000}") long tickMillis,
+                           @Value("${booking.hold.wheel-size:512}") int wheelSize) {
+        this.appointmentService = appointmentService;
+        this.availabilityIndex = availabilityIndex;
+        this.scheduleEngine = scheduleEngine;
+        this.bookingLocks = bookingLocks;
+        this.doctorRepository = doctorRepository;
+        this.patientRepository = patientRepository;
+        this.ttlMillis = ttlSeconds * 1000;
+        this.wheel = new HashedTimingWheel<>(tickMillis, wheelSize);
+    }
+
+    /**
+     * 1. Hold a free slot for the patient
+     */
+    public ResponseEntity<Map<String, Object>> placeHold(long doctorId, LocalDateTime time, UserPrincipal patient) {
+        Map<String, Object> response = new HashMap<>();
+        if (!time.isAfter(LocalDateTime.now()) || !scheduleEngine.isSlotStart(doctorId, time)) {
+            response.put("error", "Invalid appointment slot.");
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+        }
+
+        ReentrantLock lock = bookingLocks.tryLock(doctorId, time.toLocalDate());
+        if (lock == null) {
+            response.put("error", "This slot is no longer available.");
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+        }
+        Hold hold;
+        try {
+            if (!availabilityIndex.hold(doctorId, time)) {
+                response.put("error", "This slot is no longer available.");
+                return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+            }
+            hold = new Hold(UUID.randomUUID().toString(), patient.getId(), doctorId, time,
+                    System.currentTimeMillis() + ttlMillis);
+            holds.put(hold.id, hold);
+        } finally {
+            lock.unlock();
+        }
+
+        Hold previous = holdsByPatient.put(patient.getId(), hold);
+        if (previous != null) end(previous);
+        wheel.schedule(hold, hold.expiresAt);
+        placed.increment();
+
+        response.put("holdId", hold.id);
+        response.put("expiresAt", Instant.ofEpochMilli(hold.expiresAt).toString());
+        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    }
+
+    /**
+     * 2. Convert the patient's hold into an appointment
+     */
+    public ResponseEntity<Map<String, Object>> confirmHold(String holdId, UserPrincipal patient) {
+        Map<String, Object> response = new HashMap<>();
+        Hold hold = holds.get(holdId);
+        if (hold == null || !Objects.equals(hold.patientId, patient.getId())) {
+            response.put("error", "Hold not found.");
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+        }
+
+        Optional<Doctor> doctor = doctorRepository.findById(hold.doctorId);
+        Optional<Patient> owner = patientRepository.findById(hold.patientId);
+        if (doctor.isEmpty() || owner.isEmpty()) {
+            end(hold);
+            response.put("error", "Hold not found.");
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+        }
+
+        ReentrantLock lock = bookingLocks.tryLock(hold.doctorId, hold.time.toLocalDate());
+        if (lock == null) {
+            response.put("error", "Please try again.");
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(response);
+        }
+        try {
+            boolean expiredMeanwhile = hold.expiresAt <= System.currentTimeMillis();
+            boolean ended = end(hold);
+            if (!ended || expiredMeanwhile) {
+                // Expired but not yet swept by the wheel: ended here, so the slot is free again at once
+                if (ended) expired.increment();
+                response.put("error", "Hold has expired.");
+                return ResponseEntity.status(HttpStatus.GONE).body(response);
+            }
+
+            int booked = appointmentService.bookAppointment(new Appointment(doctor.get(), owner.get(), hold.time, 0));
+            if (booked == 1) {
+                confirmed.increment();
+                response.put("message", "Appointment booked successfully!");
+                return ResponseEntity.status(HttpStatus.CREATED).body(response);
+            } else if (booked == -1) {
+                response.put("error", "This slot is no longer available.");
+                return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+            } else if (booked == -2) {
+                response.put("error", "Please try again.");
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(response);
+            }
+            response.put("error", "Failed to book appointment.");
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 3. Release the patient's hold before it expires
+     */
+    public ResponseEntity<Map<String, Object>> releaseHold(String holdId, UserPrincipal patient) {
+        Map<String, Object> response = new HashMap<>();
+        Hold hold = holds.get(holdId);
+        if (hold == null || !Objects.equals(hold.patientId, patient.getId())) {
+            response.put("error", "Hold not found.");
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+        }
+        end(hold);
+        response.put("message", "Hold released.");
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * 4. Advance the timing wheel and expire due holds
+     */
+    @Scheduled(fixedRateString = "${booking.hold.tick-ms:1000}")
+    public void expireHolds() {
+        wheel.advance(System.currentTimeMillis(), hold -> {
+            if (end(hold)) expired.increment();
+        });
+    }
+
+    public int activeHolds() {
+        return holds.size();
+    }
+
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        Gauge.builder("booking.holds.active", this, SlotHoldService::activeHolds)
+                .description("Slot holds currently active")
+                .register(registry);
+        FunctionCounter.builder("booking.holds.placed", placed, LongAdder::sum)
+                .description("Slot holds placed")
+                .register(registry);
+        FunctionCounter.builder("booking.holds.confirmed", confirmed, LongAdder::sum)
+                .description("Slot holds converted into appointments")
+                .register(registry);
+        FunctionCounter.builder("booking.holds.expired", expired, LongAdder::sum)
+                .description("Slot holds that expired unconfirmed")
+                .register(registry);
+    }
+
+    /**
+     * Helper method: End a hold exactly once and free its slot; false if it had already ended
+     */
+    private boolean end(Hold hold) {
+        if (!hold.active.compareAndSet(true, false)) return false;
+        holds.remove(hold.id, hold);
+        holdsByPatient.remove(hold.patientId, hold);
+        availabilityIndex.releaseHold(hold.doctorId, hold.time);
+        return true;
+    }
+
+    private static final class Hold {
+        private final String id;
+        private final Long patientId;
+        private final long doctorId;
+        private final LocalDateTime time;
+        private final long expiresAt;
+        private final AtomicBoolean active = new AtomicBoolean(true);
+
+        private Hold(String id, Long patientId, long doctorId, LocalDateTime time, long expiresAt) {
+            this.id = id;
+            this.patientId = patientId;
+            this.doctorId = doctorId;
+            this.time = time;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.project.back_end.services;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Component
+public class TokenRevocationList {
+    // 1. **Purpose**
+    // Tracks revoked tokens (by `jti`) so logout takes effect before the 7-day expiry.
+    // `isRevoked` is on the validation hot path and never touches the database.
+
+    // 2. **Lookup Path**
+    // - Empty list: answered immediately.
+    // - Bloom filter negative (the common case for valid tokens): answered without touching the exact set.
+    // - Bloom filter positive: confirmed against the exact `jti -> expiry` map.
+
+    // 3. **Expiry**
+    // Entries are only kept until the revoked token would have expired anyway. A scheduled purge drops them
+    // from memory and from the backing store, and rebuilds the Bloom filter (Bloom filters cannot delete).
+
+    // 4. **Persistence and Sync**
+    // Revocations are written through a pluggable `RevocationStore` and reloaded at startup, so they survive restarts.
+    // A scheduled sync loads the revocations saved since the previous sync, so a logout through one instance is
+    // honoured by the others within one sync interval. Each sync looks back a little further than the previous one
+    // to tolerate clock skew between instances; entries seen twice are simply put again. The store is never read
+    // while validating.
+
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+    private static final Duration SYNC_OVERLAP = Duration.ofMinutes(1);
+
+    private final RevocationStore revocationStore;
+    private final int expectedEntries;
+
+    private final Map<String, Long> revoked = new ConcurrentHashMap<>();
+    private volatile BloomFilter bloomFilter;
+    private volatile Instant lastSync;
+
+    public TokenRevocationList(RevocationStore revocationStore,
+                               @Value("${jwt.revocation.expected-entries:100000}") int expectedEntries) {
+        this.revocationStore = revocationStore;
+        this.expectedEntries = expectedEntries;
+        this.bloomFilter = new BloomFilter(expectedEntries, FALSE_POSITIVE_RATE);
+    }
+
+    @PostConstruct
+    void load() {
+        Instant started = Instant.now();
+        revoked.putAll(revocationStore.loadActive(started));
+        rebuildBloomFilter();
+        lastSync = started;
+    }
+
+    /**
+     * 1. Check whether a token id has been revoked
+     */
+    public boolean isRevoked(String tokenId) {
+        if (tokenId == null || revoked.isEmpty()) return false;
+        if (!bloomFilter.mightContain(tokenId)) return false;
+
+        Long expiresAt = revoked.get(tokenId);
+        return expiresAt != null && expiresAt > System.currentTimeMillis();
+    }
+
+    /**
+     * 2. Revoke a token id until its expiry
+     */
+    public void revoke(String tokenId, Instant expiresAt) {
+        if (tokenId == null || !expiresAt.isAfter(Instant.now())) return;
+
+        revocationStore.save(tokenId, expiresAt);
+        revoked.put(tokenId, expiresAt.toEpochMilli());
+        bloomFilter.put(tokenId);
+    }
+
+    /**
+     * 3. Pick up revocations made through other instances since the previous sync
+     */
+    @Scheduled(fixedDelayString = "${jwt.revocation.sync-interval-ms:30000}",
+            initialDelayString = "${jwt.revocation.sync-interval-ms:30000}")
+    public void sync() {
+        Instant started = Instant.now();
+        try {
+            long now = started.toEpochMilli();
+            revocationStore.loadRevokedSince(lastSync.minus(SYNC_OVERLAP)).forEach((tokenId, expiresAt) -> {
+                if (expiresAt <= now) return;
+                revoked.put(tokenId, expiresAt);
+                bloomFilter.put(tokenId);
+            });
+            lastSync = started;
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * 4. Drop entries whose tokens have expired and rebuild the Bloom filter
+     */
+    @Scheduled(fixedDelayString = "${jwt.revocation.purge-interval-ms:600000}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        boolean removed = revoked.values().removeIf(expiresAt -> expiresAt <= now);
+        try {
+            revocationStore.deleteExpired(Instant.ofEpochMilli(now));
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        if (removed || revoked.size() > expectedEntries) {
+            rebuildBloomFilter();
+        }
+    }
+
+    public int size() {
+        return revoked.size();
+    }
+
+    /**
+     * Helper method: Build a fresh filter from the exact set and swap it in
+     */
+    private void rebuildBloomFilter() {
+        BloomFilter rebuilt = new BloomFilter(Math.max(expectedEntries, revoked.size() * 2), FALSE_POSITIVE_RATE);
+        revoked.keySet().forEach(rebuilt::put);
+        bloomFilter = rebuilt;
+        // Catch ids revoked concurrently while the new filter was being filled
+        revoked.keySet().forEach(rebuilt::put);
+    }
+}
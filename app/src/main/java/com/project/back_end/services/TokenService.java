@@ -1,17 +1,16 @@
 package com.project.back_end.services;
 
-import com.project.back_end.repo.AdminRepository;
-import com.project.back_end.repo.DoctorRepository;
-import com.project.back_end.repo.PatientRepository;
-
+import com.project.back_end.DTO.UserPrincipal;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
 import java.util.Date;
+import java.util.UUID;
 
 @Component
 public class TokenService {
@@ -20,8 +19,8 @@ public class TokenService {
     // This allows the class to be injected into other Spring-managed components (like services or controllers) where it's needed.
 
     // 2. **Constructor Injection for Dependencies**
-    // The constructor injects dependencies for `AdminRepository`, `DoctorRepository`, and `PatientRepository`,
-    // allowing the service to interact with the database and validate users based on their role (admin, doctor, or patient).
+    // The constructor injects the `VerifiedTokenCache` and the `TokenVersionRegistry`. Token validation no longer needs the repositories,
+    // because the role and the principal id are carried as signed claims inside the token itself.
     // Constructor injection ensures that the class is initialized with all required dependencies, promoting immutability and making the class testable.
 
     // 3. **getSigningKey Method**
@@ -30,8 +29,10 @@ public class TokenService {
     // The `Keys.hmacShaKeyFor()` method converts the secret key string into a valid `SecretKey` for signing and verification of JWTs.
 
     // 4. **generateToken Method**
-    // This method generates a JWT token for a user based on their email.
+    // This method generates a JWT token for a user based on their email (or username for admins), role and id.
     // - The `subject` of the token is set to the user's email, which is used as an identifier.
+    // - The `role` claim holds the user type (admin, doctor or patient) and the `uid` claim holds the principal id.
+    // - The `ver` claim records the principal's current token version from `TokenVersionRegistry`.
     // - The `issuedAt` is set to the current date and time.
     // - The `expiration` is set to 7 days from the issue date, ensuring the token expires after one week.
     // - The token is signed using the signing key generated by `getSigningKey()`, making it secure and tamper-proof.
@@ -45,17 +46,32 @@ public class TokenService {
 
     // 6. **validateToken Method**
     // This method validates whether a provided JWT token is valid for a specific user role (admin, doctor, or patient).
-    // - It first extracts the email from the token using the `extractEmail()` method.
-    // - Depending on the role (`admin`, `doctor`, or `patient`), it checks the corresponding repository (AdminRepository, DoctorRepository, or PatientRepository)
-    //   to see if a user with the extracted email exists.
-    // - If a match is found for the specified user role, it returns true, indicating the token is valid.
-    // - If the role or user does not exist, it returns false, indicating the token is invalid.
+    // - It verifies the token signature and expiry (served from the verified-token cache when possible).
+    // - It compares the signed `role` claim with the requested role; no database query is needed.
+    // - It rejects tokens whose `ver` claim is older than the principal's current version in `TokenVersionRegistry`
+    //   (e.g. after the doctor has been deleted).
+    // - Tokens issued before role claims existed carry no `role` and are rejected, so those users simply log in again.
     // - The method gracefully handles any errors by returning false if the token is invalid or an exception occurs.
-    // This ensures secure access control based on the user's role and their existence in the system.
 
-    private final AdminRepository adminRepository;
-    private final DoctorRepository doctorRepository;
-    private final PatientRepository patientRepository;
+    // 7. **Signing Key, Parser and Verified-Token Cache**
+    // The `SecretKey` and the `JwtParser` are built once at startup and reused, since both are immutable and thread-safe.
+    // Verified claims are kept in `VerifiedTokenCache`, so a token seen again (e.g. `validateToken` followed by `extractEmailFromToken`)
+    // is not re-verified until its cache entry or the token itself expires.
+
+    // 8. **Revocation**
+    // Every token carries a unique `jti`. Logging out revokes it in `TokenRevocationList`, which answers
+    // validation lookups from memory (Bloom filter first) and never adds a database hit for valid tokens.
+
+    private static final String ROLE_CLAIM = "role";
+    private static final String USER_ID_CLAIM = "uid";
+    private static final String VERSION_CLAIM = "ver";
+
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final TokenVersionRegistry tokenVersionRegistry;
+    private final TokenRevocationList tokenRevocationList;
+
+    private SecretKey signingKey;
+    private JwtParser jwtParser;
 
     @Value("${jwt.secret}")
     private String jwtSecret;
@@ -63,18 +79,32 @@ public class TokenService {
     // Expiration: 7 days
     private static final long EXPIRATION_TIME = 1000 * 60 * 60 * 24 * 7;
 
-    public TokenService(AdminRepository adminRepository, DoctorRepository doctorRepository, PatientRepository patientRepository) {
-        this.adminRepository = adminRepository;
-        this.doctorRepository = doctorRepository;
-        this.patientRepository = patientRepository;
+    public TokenService(VerifiedTokenCache verifiedTokenCache, TokenVersionRegistry tokenVersionRegistry,
+                        TokenRevocationList tokenRevocationList) {
+        this.verifiedTokenCache = verifiedTokenCache;
+        this.tokenVersionRegistry = tokenVersionRegistry;
+        this.tokenRevocationList = tokenRevocationList;
+    }
+
+    @PostConstruct
+    void initSigningKey() {
+        this.signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        this.jwtParser = Jwts.parser()
+                .verifyWith(signingKey)
+                .build();
     }
 
     /**
-     * 1. Generate JWT Token for a given user identifier (NEW JJWT SYNTAX)
+     * 1. Generate JWT Token for a given user identifier, role and id (NEW JJWT SYNTAX)
      */
-    public String generateToken(String identifier) {
+    public String generateToken(String identifier, String role, Long userId) {
+        String normalizedRole = role.toLowerCase();
         return Jwts.builder()
+                .id(UUID.randomUUID().toString())
                 .subject(identifier)
+                .claim(ROLE_CLAIM, normalizedRole)
+                .claim(USER_ID_CLAIM, userId)
+                .claim(VERSION_CLAIM, tokenVersionRegistry.currentVersion(normalizedRole, identifier))
                 .issuedAt(new Date())
                 .expiration(new Date(System.currentTimeMillis() + EXPIRATION_TIME))
                 .signWith(getSigningKey())
@@ -85,43 +115,27 @@ public class TokenService {
      * 2. Extract identifier (email/username) from JWT token
      */
     public String extractIdentifier(String token) {
-        try {
-            return Jwts.parser()
-                    .verifyWith(getSigningKey())
-                    .build()
-                    .parseSignedClaims(token)
-                    .getPayload()
-                    .getSubject();
-        } catch (JwtException e) {
-            return null;  // Token invalid or expired
-        }
+        Claims claims = parseClaims(token);
+        return claims == null ? null : claims.getSubject();
     }
 
     /**
      * 3. Validate JWT Token for a given user type
      */
     public boolean validateToken(String token, String userType) {
-        String identifier = extractIdentifier(token);
-        if (identifier == null) return false;
-
-        switch (userType.toLowerCase()) {
-            case "admin":
-                return adminRepository.findByUsername(identifier) != null;
-            case "doctor":
-                return doctorRepository.findByEmail(identifier) != null;
-            case "patient":
-                return patientRepository.findByEmail(identifier) != null;
-            default:
-                return false;
-        }
+        if (userType == null) return false;
+        Claims claims = parseClaims(token);
+        if (claims == null) return false;
+
+        String role = claims.get(ROLE_CLAIM, String.class);
+        return role != null && role.equalsIgnoreCase(userType) && isActive(claims, role);
     }
 
     /**
      * 4. Return signing key for JWT
      */
     private SecretKey getSigningKey() {
-        byte[] keyBytes = jwtSecret.getBytes(StandardCharsets.UTF_8);
-        return Keys.hmacShaKeyFor(keyBytes);
+        return signingKey;
     }
 
     /**
@@ -130,4 +144,72 @@ public class TokenService {
     public String extractEmailFromToken(String token) {
         return extractIdentifier(token);
     }
+
+    /**
+     * 6. Extract the principal id (uid claim) from JWT token
+     */
+    public Long extractUserId(String token) {
+        Claims claims = parseClaims(token);
+        if (claims == null) return null;
+        Number userId = claims.get(USER_ID_CLAIM, Number.class);
+        return userId == null ? null : userId.longValue();
+    }
+
+    /**
+     * 7. Resolve the authenticated principal (id, email, role) from a token, or null if invalid
+     */
+    public UserPrincipal resolvePrincipal(String token) {
+        Claims claims = parseClaims(token);
+        if (claims == null) return null;
+
+        String role = claims.get(ROLE_CLAIM, String.class);
+        if (role == null || !isActive(claims, role)) return null;
+
+        Number userId = claims.get(USER_ID_CLAIM, Number.class);
+        return new UserPrincipal(userId == null ? null : userId.longValue(), claims.getSubject(), role,
+                claims.getId(), claims.getExpiration().toInstant());
+    }
+
+    /**
+     * 8. Invalidate every token issued so far for a principal
+     */
+    public void invalidateTokens(String role, String identifier) {
+        tokenVersionRegistry.bump(role.toLowerCase(), identifier);
+    }
+
+    /**
+     * 9. Revoke the token identified by the principal (logout)
+     */
+    public void revokeToken(UserPrincipal principal) {
+        if (principal == null || principal.getTokenId() == null) return;
+        tokenRevocationList.revoke(principal.getTokenId(), principal.getExpiresAt());
+    }
+
+    /**
+     * Helper method: Check the version claim and the revocation list, both held in memory
+     */
+    private boolean isActive(Claims claims, String role) {
+        Number version = claims.get(VERSION_CLAIM, Number.class);
+        int tokenVersion = version == null ? 0 : version.intValue();
+        if (tokenVersion < tokenVersionRegistry.currentVersion(role, claims.getSubject())) return false;
+        return !tokenRevocationList.isRevoked(claims.getId());
+    }
+
+    /**
+     * Helper method: Verify a token and return its claims, using the verified-token cache
+     */
+    private Claims parseClaims(String token) {
+        if (token == null || token.isBlank()) return null;
+
+        Claims cached = verifiedTokenCache.get(token);
+        if (cached != null) return cached;
+
+        try {
+            Claims claims = jwtParser.parseSignedClaims(token).getPayload();
+            verifiedTokenCache.put(token, claims);
+            return claims;
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;  // Token invalid or expired
+        }
+    }
 }
\ No newline at end of file
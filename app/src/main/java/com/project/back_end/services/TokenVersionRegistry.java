@@ -0,0 +1,89 @@
+package com.project.back_end.services;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Component
+public class TokenVersionRegistry {
+    // 1. **Purpose**
+    // Keeps a per-principal token version in memory. Every token carries the version that was current when it was issued
+    // (`ver` claim), and `TokenService.validateToken` rejects tokens older than the current one.
+    // Bumping a version therefore invalidates all outstanding tokens of that principal without any database lookup.
+
+    // 2. **Keys**
+    // Principals are keyed as `role:identifier` (e.g. `doctor:jane@clinic.com`). Principals that were never bumped
+    // are not stored and implicitly have version 0.
+
+    // 3. **Persistence and Sync**
+    // A bump is incremented in the `RevocationStore` first, so it survives restarts and never goes backwards when
+    // several instances bump the same principal. All versions are loaded at startup, and the scheduled sync of
+    // the revocation list also loads the versions bumped through other instances since the previous sync (looking
+    // back one extra minute for clock skew). Versions only ever move up in memory.
+
+    private static final Duration SYNC_OVERLAP = Duration.ofMinutes(1);
+
+    private final RevocationStore revocationStore;
+    private final Map<String, Integer> versions = new ConcurrentHashMap<>();
+    private volatile Instant lastSync;
+
+    public TokenVersionRegistry(RevocationStore revocationStore) {
+        this.revocationStore = revocationStore;
+    }
+
+    @PostConstruct
+    void load() {
+        Instant started = Instant.now();
+        revocationStore.loadVersionsSince(Instant.EPOCH).forEach(this::raise);
+        lastSync = started;
+    }
+
+    /**
+     * 1. Current token version for a principal
+     */
+    public int currentVersion(String role, String identifier) {
+        if (versions.isEmpty()) return 0;
+        return versions.getOrDefault(key(role, identifier), 0);
+    }
+
+    /**
+     * 2. Increment the version, invalidating all previously issued tokens
+     */
+    public int bump(String role, String identifier) {
+        String key = key(role, identifier);
+        int version = revocationStore.bumpVersion(key);
+        raise(key, version);
+        return versions.get(key);
+    }
+
+    /**
+     * 3. Pick up versions bumped through other instances since the previous sync
+     */
+    @Scheduled(fixedDelayString = "${jwt.revocation.sync-interval-ms:30000}",
+            initialDelayString = "${jwt.revocation.sync-interval-ms:30000}")
+    public void sync() {
+        Instant started = Instant.now();
+        try {
+            revocationStore.loadVersionsSince(lastSync.minus(SYNC_OVERLAP)).forEach(this::raise);
+            lastSync = started;
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Helper method: Move a version up, never down
+     */
+    private void raise(String key, int version) {
+        versions.merge(key, version, Math::max);
+    }
+
+    private static String key(String role, String identifier) {
+        return role + ":" + identifier;
+    }
+}
@@ -0,0 +1,225 @@
+package com.project.back_end.services;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+public class TrigramIndex {
+    // 1. **Purpose**
+    // Case-insensitive substring search over names ("LIKE '%ann%'") without scanning every name. A leading-wildcard
+    // LIKE on `LOWER(name)` cannot use a B-tree index, so the database scans the whole table for each filter.
+
+    // 2. **Posting Lists**
+    // Every lower-cased name is cut into overlapping 3-character windows ("anna" -> "ann", "nna"). For each trigram
+    // the index keeps a sorted `long[]` of the ids whose name contains it.
+
+    // 3. **Search**
+    // A name can only contain the filter if it contains every trigram of the filter, so the posting lists of the
+    // filter's trigrams are intersected, smallest first. The intersection is a superset (the trigrams may appear
+    // in a different order), so each candidate is confirmed with `String.contains`, which keeps exact LIKE semantics.
+    // Filters shorter than three characters have no trigram and are answered by checking every name.
+
+    // 4. **Concurrency**
+    // Searches share a read lock; `put` and `remove` take the write lock and update the posting lists in place.
+
+    // 5. **Bulk Loading**
+    // `put` copies a posting list to insert one id, which is fine for single updates but quadratic when loading a
+    // whole table. `builder()` collects the ids of every trigram first and sorts each posting list once.
+
+    private static final long[] NO_IDS = new long[0];
+
+    private final Map<Long, String> names;
+    private final Map<String, long[]> postings;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public TrigramIndex() {
+        this(new HashMap<>(), new HashMap<>());
+    }
+
+    private TrigramIndex(Map<Long, String> names, Map<String, long[]> postings) {
+        this.names = names;
+        this.postings = postings;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * 1. Add or replace the name of an id
+     */
+    public void put(long id, String name) {
+        String lower = normalize(name);
+        lock.writeLock().lock();
+        try {
+            String previous = names.put(id, lower);
+            if (previous != null) {
+                for (String trigram : trigrams(previous)) {
+                    removeId(trigram, id);
+                }
+            }
+            for (String trigram : trigrams(lower)) {
+                addId(trigram, id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 2. Remove an id
+     */
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            String previous = names.remove(id);
+            if (previous != null) {
+                for (String trigram : trigrams(previous)) {
+                    removeId(trigram, id);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 3. Ids whose name contains the filter (case-insensitive), in ascending order
+     */
+    public long[] search(String filter) {
+        String needle = normalize(filter);
+        lock.readLock().lock();
+        try {
+            if (needle.length() < 3) {
+                return names.entrySet().stream()
+                        .filter(entry -> entry.getValue().contains(needle))
+                        .mapToLong(Map.Entry::getKey)
+                        .sorted()
+                        .toArray();
+            }
+
+            List<long[]> lists = new ArrayList<>();
+            for (String trigram : trigrams(needle)) {
+                long[] ids = postings.get(trigram);
+                if (ids == null) return NO_IDS;
+                lists.add(ids);
+            }
+            lists.sort(Comparator.comparingInt(ids -> ids.length));
+
+            long[] candidates = lists.get(0);
+            long[] matches = new long[candidates.length];
+            int count = 0;
+            for (long id : candidates) {
+                if (inAll(lists, id) && names.get(id).contains(needle)) {
+                    matches[count++] = id;
+                }
+            }
+            return Arrays.copyOf(matches, count);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return names.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public static final class Builder {
+        private final Map<Long, String> names = new HashMap<>();
+
+        private Builder() {
+        }
+
+        /**
+         * 4. Add or replace the name of an id
+         */
+        public Builder put(long id, String name) {
+            names.put(id, normalize(name));
+            return this;
+        }
+
+        /**
+         * 5. Index all names: ids are appended per trigram, then every posting list is sorted once
+         */
+        public TrigramIndex build() {
+            Map<String, MutablePosting> lists = new HashMap<>();
+            for (Map.Entry<Long, String> entry : names.entrySet()) {
+                for (String trigram : trigrams(entry.getValue())) {
+                    lists.computeIfAbsent(trigram, key -> new MutablePosting()).add(entry.getKey());
+                }
+            }
+
+            Map<String, long[]> postings = new HashMap<>(lists.size() * 2);
+            for (Map.Entry<String, MutablePosting> entry : lists.entrySet()) {
+                postings.put(entry.getKey(), entry.getValue().sorted());
+            }
+            return new TrigramIndex(new HashMap<>(names), postings);
+        }
+    }
+
+    private static final class MutablePosting {
+        private long[] ids = new long[4];
+        private int size;
+
+        private void add(long id) {
+            if (size == ids.length) ids = Arrays.copyOf(ids, size * 2);
+            ids[size++] = id;
+        }
+
+        private long[] sorted() {
+            long[] result = Arrays.copyOf(ids, size);
+            Arrays.sort(result);
+            return result;
+        }
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.toLowerCase(Locale.ENGLISH);
+    }
+
+    private static boolean inAll(List<long[]> lists, long id) {
+        for (int i = 1; i < lists.size(); i++) {
+            if (Arrays.binarySearch(lists.get(i), id) < 0) return false;
+        }
+        return true;
+    }
+
+    private static Set<String> trigrams(String text) {
+        Set<String> trigrams = new HashSet<>();
+        for (int i = 0; i + 3 <= text.length(); i++) {
+            trigrams.add(text.substring(i, i + 3));
+        }
+        return trigrams;
+    }
+
+    private void addId(String trigram, long id) {
+        long[] ids = postings.getOrDefault(trigram, NO_IDS);
+        int at = Arrays.binarySearch(ids, id);
+        if (at >= 0) return;
+        at = -at - 1;
+        long[] grown = new long[ids.length + 1];
+        System.arraycopy(ids, 0, grown, 0, at);
+        grown[at] = id;
+        System.arraycopy(ids, at, grown, at + 1, ids.length - at);
+        postings.put(trigram, grown);
+    }
+
+    private void removeId(String trigram, long id) {
+        long[] ids = postings.get(trigram);
+        if (ids == null) return;
+        int at = Arrays.binarySearch(ids, id);
+        if (at < 0) return;
+        if (ids.length == 1) {
+            postings.remove(trigram);
+            return;
+        }
+        long[] shrunk = new long[ids.length - 1];
+        System.arraycopy(ids, 0, shrunk, 0, at);
+        System.arraycopy(ids, at + 1, shrunk, at, ids.length - at - 1);
+        postings.put(trigram, shrunk);
+    }
+}
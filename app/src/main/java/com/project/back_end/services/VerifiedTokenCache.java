@@ -0,0 +1,167 @@
+package com.project.back_end.services;
+
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+@Component
+public class VerifiedTokenCache implements MeterBinder {
+    // 1. **Purpose**
+    // Holds the claims of JWTs whose signature has already been verified, so repeated requests carrying the same token
+    // skip the HMAC check and JSON parsing done by `TokenService`.
+
+    // 2. **Keys**
+    // Entries are keyed by the SHA-256 digest of the token rather than the raw token, keeping key size fixed
+    // and avoiding bearer tokens sitting in the heap as map keys.
+
+    // 3. **Expiry and Eviction**
+    // Each entry lives for at most `jwt.cache.ttl-seconds`, and never past the token's own `exp` claim.
+    // When the cache reaches `jwt.cache.max-entries`, expired entries are purged first and then the cache is trimmed to 90% capacity.
+
+    // 4. **Metrics**
+    // Hits, misses, evictions and the current size are published through Micrometer (`jwt.cache.*`).
+
+    private static final Base64.Encoder KEY_ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final int maxEntries;
+    private final long ttlMillis;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public VerifiedTokenCache(@Value("${jwt.cache.max-entries:10000}") int maxEntries,
+                              @Value("${jwt.cache.ttl-seconds:300}") long ttlSeconds) {
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlSeconds * 1000;
+    }
+
+    /**
+     * 1. Return the cached claims for a token, or null if absent or expired
+     */
+    public Claims get(String token) {
+        String key = digest(token);
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        if (entry.expiresAt <= System.currentTimeMillis()) {
+            entries.remove(key, entry);
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.claims;
+    }
+
+    /**
+     * 2. Cache the claims of a verified token until min(now + ttl, exp)
+     */
+    public void put(String token, Claims claims) {
+        long now = System.currentTimeMillis();
+        long expiresAt = now + ttlMillis;
+        Date expiration = claims.getExpiration();
+        if (expiration != null) {
+            expiresAt = Math.min(expiresAt, expiration.getTime());
+        }
+        if (expiresAt <= now) return;
+
+        if (entries.size() >= maxEntries) {
+            evict(now);
+        }
+        entries.put(digest(token), new Entry(claims, expiresAt));
+    }
+
+    /**
+     * 3. Drop a single token from the cache
+     */
+    public void invalidate(String token) {
+        entries.remove(digest(token));
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        FunctionCounter.builder("jwt.cache.hits", this, VerifiedTokenCache::getHitCount)
+                .description("Verified-token cache hits")
+                .register(registry);
+        FunctionCounter.builder("jwt.cache.misses", this, VerifiedTokenCache::getMissCount)
+                .description("Verified-token cache misses")
+                .register(registry);
+        FunctionCounter.builder("jwt.cache.evictions", this, VerifiedTokenCache::getEvictionCount)
+                .description("Verified-token cache entries evicted for size")
+                .register(registry);
+        Gauge.builder("jwt.cache.size", this, VerifiedTokenCache::size)
+                .description("Verified-token cache entries")
+                .register(registry);
+    }
+
+    /**
+     * Helper method: Remove expired entries, then trim to 90% of capacity
+     */
+    private void evict(long now) {
+        entries.values().removeIf(entry -> entry.expiresAt <= now);
+
+        int target = maxEntries - Math.max(1, maxEntries / 10);
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (entries.size() > target && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+            evictions.increment();
+        }
+    }
+
+    /**
+     * Helper method: SHA-256 digest of the token, Base64url encoded
+     */
+    private static String digest(String token) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return KEY_ENCODER.encodeToString(sha256.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static final class Entry {
+        private final Claims claims;
+        private final long expiresAt;
+
+        private Entry(Claims claims, long expiresAt) {
+            this.claims = claims;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.project.back_end.services;
+
+import com.project.back_end.models.Doctor;
+import com.project.back_end.models.DoctorWorkingHours;
+import com.project.back_end.repo.DoctorWorkingHoursRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+@Service
+public class WorkingHoursService {
+    // 1. **Purpose**
+    // Keeps the `doctor_working_hours` table in step with `Doctor.availableTimes`. The strings stay the API format;
+    // the table holds the same windows as (day of week, start minute, end minute) integers for range queries and
+    // for `ScheduleEngine`.
+
+    // 2. **Expansion**
+    // A window without a day prefix ("09:00-12:00") applies to every day and becomes seven rows; a prefixed window
+    // ("TUE 13:00-17:00") becomes one row. Invalid windows are skipped, as `ScheduleEngine` always did.
+
+    private final DoctorWorkingHoursRepository workingHoursRepository;
+
+    public WorkingHoursService(DoctorWorkingHoursRepository workingHoursRepository) {
+        this.workingHoursRepository = workingHoursRepository;
+    }
+
+    /**
+     * 1. Rewrite a doctor's working hours from their availableTimes
+     */
+    @Transactional
+    public void replace(Doctor doctor) {
+        workingHoursRepository.deleteByDoctorId(doctor.getId());
+        workingHoursRepository.saveAll(rowsOf(doctor));
+    }
+
+    /**
+     * 2. Delete a doctor's working hours
+     */
+    public void delete(long doctorId) {
+        workingHoursRepository.deleteByDoctorId(doctorId);
+    }
+
+    /**
+     * 3. Working-hours rows for the availableTimes of a doctor
+     */
+    public List<DoctorWorkingHours> rowsOf(Doctor doctor) {
+        Collection<String> windows = doctor.getAvailableTimes();
+        if (windows == null) return List.of();
+
+        List<DoctorWorkingHours> rows = new ArrayList<>();
+        for (String window : windows) {
+            int[] range = ScheduleEngine.parseWindow(window);
+            if (range == null) continue;
+            int firstDay = range[0] == 0 ? 1 : range[0];
+            int lastDay = range[0] == 0 ? 7 : range[0];
+            for (int day = firstDay; day <= lastDay; day++) {
+                rows.add(new DoctorWorkingHours(doctor, day, range[1], range[2]));
+            }
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,131 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+public class V6__working_hours_from_available_times extends BaseJavaMigration {
+    // 1. **Purpose**
+    // Databases created before `doctor_working_hours` existed only have the free-form `availableTimes` strings.
+    // Every doctor without working-hours rows gets their windows converted, parsed and expanded to days exactly as
+    // `ScheduleEngine.parseWindow` and `WorkingHoursService.rowsOf` did when this migration was written. Doctors that
+    // already have rows (written by `WorkingHoursService` since) are left alone.
+
+    // 1a. **Frozen Parser**
+    // The window parser is a private copy, not a call into `ScheduleEngine`: a migration must write the same rows
+    // on every database, whatever the application's parser becomes later (Java migrations have no checksum).
+
+    // 2. **Ids**
+    // Ids continue after both the highest id and the `doctor_working_hours_seq` value, and the sequence is then
+    // moved past the new rows plus one allocation block (50), as in V2, so Hibernate's pooled ids never collide.
+
+    private static final int BATCH_SIZE = 500;
+
+    @Override
+    public void migrate(Context context) throws SQLException {
+        Connection connection = context.getConnection();
+        List<long[]> rows = new ArrayList<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet times = statement.executeQuery("select t.doctor_id, t.available_times from doctor_available_times t "
+                     + "where not exists (select 1 from doctor_working_hours h where h.doctor_id = t.doctor_id)")) {
+            while (times.next()) {
+                int[] range = parseWindow(times.getString(2));
+                if (range == null) continue;
+                int firstDay = range[0] == 0 ? 1 : range[0];
+                int lastDay = range[0] == 0 ? 7 : range[0];
+                for (int day = firstDay; day <= lastDay; day++) {
+                    rows.add(new long[]{times.getLong(1), day, range[1], range[2]});
+                }
+            }
+        }
+        if (rows.isEmpty()) return;
+
+        long id = firstFreeId(connection);
+        try (PreparedStatement insert = connection.prepareStatement("insert into doctor_working_hours "
+                + "(id, doctor_id, day_of_week, start_minute, end_minute) values (?, ?, ?, ?, ?)")) {
+            for (int i = 0; i < rows.size(); i++) {
+                long[] row = rows.get(i);
+                insert.setLong(1, id + i);
+                insert.setLong(2, row[0]);
+                insert.setInt(3, (int) row[1]);
+                insert.setInt(4, (int) row[2]);
+                insert.setInt(5, (int) row[3]);
+                insert.addBatch();
+                if ((i + 1) % BATCH_SIZE == 0) insert.executeBatch();
+            }
+            insert.executeBatch();
+        }
+        try (PreparedStatement update = connection.prepareStatement(
+                "update doctor_working_hours_seq set next_val = ?")) {
+            update.setLong(1, id + rows.size() - 1 + 51);
+            update.executeUpdate();
+        }
+    }
+
+    /**
+     * Helper method: "HH:mm-HH:mm", optionally prefixed by a day ("TUE 13:00-17:00"), as {dayOfWeek, startMinute,
+     * endMinute} with ISO dayOfWeek 1-7, or 0 for every day; null if it is not valid
+     */
+    private static int[] parseWindow(String window) {
+        if (window == null) return null;
+        String trimmed = window.trim();
+        int day = 0;
+        int space = trimmed.indexOf(' ');
+        if (space > 0 && Character.isLetter(trimmed.charAt(0))) {
+            day = parseDay(trimmed.substring(0, space));
+            if (day == 0) return null;
+            trimmed = trimmed.substring(space + 1);
+        }
+
+        int dash = trimmed.indexOf('-');
+        if (dash < 0) return null;
+        try {
+            int start = parseMinute(trimmed.substring(0, dash).trim());
+            int end = parseMinute(trimmed.substring(dash + 1).trim());
+            return start < end ? new int[]{day, start, end} : null;
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private static int parseDay(String name) {
+        if (name == null || name.length() < 3) return 0;
+        String upper = name.trim().toUpperCase(Locale.ENGLISH);
+        for (DayOfWeek day : DayOfWeek.values()) {
+            if (day.name().startsWith(upper) && (upper.length() == 3 || upper.equals(day.name()))) {
+                return day.getValue();
+            }
+        }
+        return 0;
+    }
+
+    private static int parseMinute(String time) {
+        if ("24:00".equals(time)) return 24 * 60;
+        LocalTime parsed = LocalTime.parse(time);
+        return parsed.getHour() * 60 + parsed.getMinute();
+    }
+
+    /**
+     * Helper method: First id above both the table's highest id and the sequence value (locks the sequence row)
+     */
+    private static long firstFreeId(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery("select greatest(next_val, "
+                     + "(select coalesce(max(id), 0) from doctor_working_hours)) + 1 "
+                     + "from doctor_working_hours_seq for update")) {
+            result.next();
+            return result.getLong(1);
+        }
+    }
+}
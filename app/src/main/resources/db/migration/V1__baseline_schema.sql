@@ -0,0 +1,48 @@
+-- Baseline: the schema as Hibernate (ddl-auto=update) created it for the last release before Flyway, with IDENTITY ids.
+-- Existing databases are baselined at version 1 (spring.flyway.baseline-on-migrate), so this script only runs
+-- on empty databases. Constraint names match the ones Hibernate generated, so both paths end up identical.
+
+create table admins (
+    id bigint not null auto_increment,
+    password varchar(255) not null,
+    username varchar(255) not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table doctors (
+    id bigint not null auto_increment,
+    specialty varchar(50) not null,
+    name varchar(100) not null,
+    email varchar(255) not null,
+    password varchar(255) not null,
+    phone varchar(255) not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table doctor_available_times (
+    doctor_id bigint not null,
+    available_times varchar(255)
+) engine=InnoDB;
+
+create table patients (
+    id bigint not null auto_increment,
+    name varchar(100) not null,
+    address varchar(255) not null,
+    email varchar(255) not null,
+    password varchar(255) not null,
+    phone varchar(255) not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table appointments (
+    status integer not null,
+    appointment_time datetime(6) not null,
+    doctor_id bigint not null,
+    id bigint not null auto_increment,
+    patient_id bigint not null,
+    primary key (id)
+) engine=InnoDB;
+
+alter table appointments add constraint FKmujeo4tymoo98cmf7uj3vsv76 foreign key (doctor_id) references doctors (id);
+alter table appointments add constraint FK8exap5wmg8kmb1g1rx3by21yt foreign key (patient_id) references patients (id);
+alter table doctor_available_times add constraint FK5osfo1b0jp4s90b1o9c30glvg foreign key (doctor_id) references doctors (id);
@@ -0,0 +1,12 @@
+-- Pooled id sequences: MySQL has no sequences, so Hibernate keeps each one as a single-row table.
+-- Tables created while ids were IDENTITY may already hold rows, so each sequence starts past the table's highest id
+-- plus one allocation block (50). The id columns keep AUTO_INCREMENT; Hibernate always sends the id explicitly.
+
+create table admins_seq (next_val bigint) engine=InnoDB;
+insert into admins_seq select coalesce(max(id), 0) + 51 from admins;
+create table doctors_seq (next_val bigint) engine=InnoDB;
+insert into doctors_seq select coalesce(max(id), 0) + 51 from doctors;
+create table patients_seq (next_val bigint) engine=InnoDB;
+insert into patients_seq select coalesce(max(id), 0) + 51 from patients;
+create table appointments_seq (next_val bigint) engine=InnoDB;
+insert into appointments_seq select coalesce(max(id), 0) + 51 from appointments;
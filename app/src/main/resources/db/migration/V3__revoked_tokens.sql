@@ -0,0 +1,14 @@
+-- Token revocation list (logout). Revocations are synced between instances by the time they were made.
+
+create table revoked_tokens (
+    expires_at datetime(6) not null,
+    revoked_at datetime(6) not null,
+    token_id varchar(255) not null,
+    primary key (token_id)
+) engine=InnoDB;
+
+-- Loading live revocations and purging expired ones: findByExpiresAtAfter / deleteByExpiresAtBefore
+create index idx_revoked_tokens_expires_at on revoked_tokens (expires_at);
+
+-- Incremental sync: findByRevokedAtAfter
+create index idx_revoked_tokens_revoked_at on revoked_tokens (revoked_at);
@@ -0,0 +1,12 @@
+-- Per-principal token versions (TokenVersionRegistry). Bumping a version invalidates every token issued before it,
+-- so it must survive restarts and reach every instance.
+
+create table token_versions (
+    version integer not null,
+    updated_at datetime(6) not null,
+    principal varchar(255) not null,
+    primary key (principal)
+) engine=InnoDB;
+
+-- Incremental sync: findByUpdatedAtAfter
+create index idx_token_versions_updated_at on token_versions (updated_at);
@@ -0,0 +1,21 @@
+-- Structured working hours: one row per doctor, day of week and minute-of-day range.
+-- V6 fills it from the free-form doctor_available_times strings and moves the sequence past the rows it writes.
+
+create table doctor_working_hours (
+    day_of_week integer not null,
+    end_minute integer not null,
+    start_minute integer not null,
+    doctor_id bigint not null,
+    id bigint not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table doctor_working_hours_seq (next_val bigint) engine=InnoDB;
+insert into doctor_working_hours_seq values (1);
+
+-- "Who works on day d around time t": DoctorSpecifications
+create index idx_working_hours_day_range on doctor_working_hours (day_of_week, start_minute, end_minute);
+-- A doctor's week: findRangesByDoctorIds
+create index idx_working_hours_doctor_day on doctor_working_hours (doctor_id, day_of_week);
+
+alter table doctor_working_hours add constraint FKgesgwak0x1k7vv3umkvwdq3in foreign key (doctor_id) references doctors (id);
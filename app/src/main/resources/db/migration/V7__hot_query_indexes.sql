@@ -0,0 +1,21 @@
+-- Index plan for the hot queries. Lookups the services treat as returning one row become unique constraints.
+-- Databases holding duplicates must be cleaned up before this migration can run.
+
+-- Login and duplicate checks: findByEmail / findByUsername / findByEmailOrPhone
+alter table admins add constraint uk_admins_username unique (username);
+alter table doctors add constraint uk_doctors_email unique (email);
+alter table patients add constraint uk_patients_email unique (email);
+alter table patients add constraint uk_patients_phone unique (phone);
+
+-- One appointment per doctor and start time: the booking path relies on it as the last guard against double
+-- booking, and it serves the day view and booked-slot queries. Double bookings made before this release must be
+-- cleaned up (cancelled and deleted) before this migration can run.
+alter table appointments add constraint uk_appointments_doctor_time unique (doctor_id, appointment_time);
+
+-- Doctor listing keyset: findCardsAfter orders by (name, id)
+create index idx_doctors_name_id on doctors (name, id);
+
+-- Patient history in time order, with the id as keyset tie-breaker
+create index idx_appointments_patient_time on appointments (patient_id, appointment_time, id);
+-- Patient history filtered by past/future (status), in time order
+create index idx_appointments_patient_status_time on appointments (patient_id, status, appointment_time);
@@ -206,10 +206,25 @@ function attachHeaderButtonListeners() {
   }
 }
 
+/**
+ * Ask the server to revoke the current token before it is dropped locally
+ */
+function revokeToken() {
+  const token = localStorage.getItem("token");
+  if (!token) return;
+  // Fire-and-forget: the server revokes the token so it cannot be reused after logout
+  fetch("/auth/logout", {
+    method: "POST",
+    headers: { "Authorization": `Bearer ${token}` },
+    keepalive: true
+  }).catch(() => {});
+}
+
 /**
  * Logout for Admin/Doctor → clear all session data
  */
 function logout() {
+  revokeToken();
   localStorage.removeItem("userRole");
   localStorage.removeItem("token");
   window.location.href = "/";
@@ -219,6 +234,7 @@ function logout() {
  * Logout for Patient → keep them as "patient" to show login/signup again
  */
 function logoutPatient() {
+  revokeToken();
   localStorage.removeItem("token");
   localStorage.setItem("userRole", "patient");
   window.location.href = "/patientDashboard.html";
@@ -0,0 +1,185 @@
+package com.project.back_end;
+
+import com.project.back_end.models.Appointment;
+import com.project.back_end.models.Doctor;
+import com.project.back_end.models.Patient;
+import com.project.back_end.repo.AppointmentRepository;
+import com.project.back_end.repo.DoctorRepository;
+import com.project.back_end.repo.PatientRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Bulk inserts of doctors, patients and appointments through the real repositories, entities and configuration
+ * (pooled sequence ids, hibernate.jdbc.batch_size, rewriteBatchedStatements).
+ *
+ * For each entity, `saveAll` of the rows in one transaction must prepare about one INSERT per batch rather than one per
+ * row (counted by Hibernate statistics), and must be faster than saving the same number of rows one flush at a time,
+ * which is what IDENTITY ids force. A regression to IDENTITY, or batching switched off, fails the statement count.
+ *
+ * Runs only against a scratch MySQL database (the schema is created by the Flyway migrations on startup):
+ * mvn test -Dtest=BulkInsertBenchmarkTests -Dbenchmark.jdbc.url=jdbc:mysql://host/db -Dbenchmark.jdbc.user=... -Dbenchmark.jdbc.password=...
+ */
+@SpringBootTest
+@EnabledIfSystemProperty(named = "benchmark.jdbc.url", matches = ".+")
+class BulkInsertBenchmarkTests {
+
+	private static final int ROWS = Integer.getInteger("benchmark.rows", 5000);
+	private static final int DOCTORS = 20;
+	private static final String RUN = Long.toString(System.currentTimeMillis() % 10_000);
+
+	@DynamicPropertySource
+	static void benchmarkDatabase(DynamicPropertyRegistry registry) {
+		String url = System.getProperty("benchmark.jdbc.url");
+		if (!url.contains("rewriteBatchedStatements")) {
+			url += (url.contains("?") ? "&" : "?") + "rewriteBatchedStatements=true";
+		}
+		String jdbcUrl = url;
+		registry.add("spring.datasource.url", () -> jdbcUrl);
+		registry.add("spring.datasource.username", () -> System.getProperty("benchmark.jdbc.user", "root"));
+		registry.add("spring.datasource.password", () -> System.getProperty("benchmark.jdbc.password", ""));
+		registry.add("spring.data.mongodb.uri", () -> "mongodb://localhost:27017/benchmark");
+		registry.add("spring.jpa.properties.hibernate.generate_statistics", () -> "true");
+		registry.add("spring.jpa.show-sql", () -> "false");
+	}
+
+	@Autowired
+	private DoctorRepository doctorRepository;
+
+	@Autowired
+	private PatientRepository patientRepository;
+
+	@Autowired
+	private AppointmentRepository appointmentRepository;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Value("${spring.jpa.properties.hibernate.jdbc.batch_size}")
+	private int batchSize;
+
+	private final List<Long> doctorIds = new ArrayList<>();
+	private final List<Long> patientIds = new ArrayList<>();
+	private final List<Long> appointmentIds = new ArrayList<>();
+
+	@AfterEach
+	void cleanUp() {
+		appointmentRepository.deleteAllByIdInBatch(appointmentIds);
+		patientRepository.deleteAllByIdInBatch(patientIds);
+		doctorRepository.deleteAllByIdInBatch(doctorIds);
+	}
+
+	@Test
+	void doctorInserts() {
+		assertBatched("doctors", doctorRepository, this::doctor, doctorIds);
+	}
+
+	@Test
+	void patientInserts() {
+		assertBatched("patients", patientRepository, this::patient, patientIds);
+	}
+
+	@Test
+	void appointmentInserts() {
+		List<Doctor> doctors = saveAll(doctorRepository, this::doctor, DOCTORS, 0, doctorIds);
+		List<Patient> patients = saveAll(patientRepository, this::patient, ROWS, 0, patientIds);
+		LocalDateTime first = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.HOURS);
+
+		assertBatched("appointments", appointmentRepository, row -> new Appointment(doctors.get(row % DOCTORS),
+				patients.get(row % ROWS), first.plusHours(row), 0), appointmentIds);
+	}
+
+	/**
+	 * Save ROWS rows with saveAll and the next ROWS one flush at a time; check statement counts and timings
+	 */
+	private <T> void assertBatched(String entity, JpaRepository<T, Long> repository, IntFunction<T> rows,
+								   List<Long> ids) {
+		Statistics statistics = statistics();
+
+		statistics.clear();
+		long start = System.nanoTime();
+		saveAll(repository, rows, ROWS, 0, ids);
+		long batchedNanos = System.nanoTime() - start;
+		long batchedInserts = statistics.getEntityInsertCount();
+		long batchedStatements = statistics.getPrepareStatementCount();
+
+		start = System.nanoTime();
+		transactionTemplate.executeWithoutResult(status -> {
+			for (int row = ROWS; row < 2 * ROWS; row++) {
+				ids.add(idOf(repository.saveAndFlush(rows.apply(row))));
+			}
+		});
+		long perRowNanos = System.nanoTime() - start;
+
+		// One INSERT per batch, plus at most a select and an update of the <table>_seq row per allocated id block
+		long batches = (ROWS + batchSize - 1) / batchSize;
+		long maxStatements = 3 * batches + 4;
+		assertEquals(ROWS, batchedInserts, entity + " inserted by saveAll");
+		assertTrue(batchedStatements <= maxStatements, String.format(
+				"%s: saveAll of %d rows prepared %d statements, expected at most %d (batch size %d)",
+				entity, ROWS, batchedStatements, maxStatements, batchSize));
+		assertTrue(batchedNanos < perRowNanos, String.format(
+				"%s: saveAll took %d ms for %d rows, one flush per row took %d ms",
+				entity, batchedNanos / 1_000_000, ROWS, perRowNanos / 1_000_000));
+		assertEquals(2L * ROWS, repository.findAllById(ids).size());
+	}
+
+	private <T> List<T> saveAll(JpaRepository<T, Long> repository, IntFunction<T> rows, int count, int firstRow,
+								List<Long> ids) {
+		List<T> entities = new ArrayList<>(count);
+		for (int row = firstRow; row < firstRow + count; row++) {
+			entities.add(rows.apply(row));
+		}
+		List<T> saved = repository.saveAll(entities);
+		saved.forEach(entity -> ids.add(idOf(entity)));
+		return saved;
+	}
+
+	private Doctor doctor(int row) {
+		return new Doctor("Doctor " + row, "Cardiology", "bench-doctor-" + RUN + "-" + row + "@example.com",
+				"secret" + row, phone(1, row), new ArrayList<>());
+	}
+
+	private Patient patient(int row) {
+		return new Patient("Patient " + row, "bench-patient-" + RUN + "-" + row + "@example.com",
+				"secret" + row, phone(2, row), row + " Main Street");
+	}
+
+	private Statistics statistics() {
+		return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+	}
+
+	/**
+	 * Ten-digit phone, unique per entity kind, run and row (phones are unique per table)
+	 */
+	private static String phone(int kind, int row) {
+		return String.format("%d%04d%05d", kind, Integer.parseInt(RUN), row);
+	}
+
+	private Long idOf(Object entity) {
+		return (Long) entityManagerFactory.getPersistenceUnitUtil().getIdentifier(entity);
+	}
+}
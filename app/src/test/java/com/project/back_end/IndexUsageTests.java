@@ -0,0 +1,469 @@
+package com.project.back_end;
+
+import com.project.back_end.repo.AdminRepository;
+import com.project.back_end.repo.AppointmentRepository;
+import com.project.back_end.repo.DoctorRepository;
+import com.project.back_end.repo.DoctorSpecifications;
+import com.project.back_end.repo.DoctorWorkingHoursRepository;
+import com.project.back_end.repo.PatientRepository;
+import com.project.back_end.repo.RevokedTokenRepository;
+import com.project.back_end.repo.TokenVersionRepository;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Calls the hot repository methods, captures the SQL and bound parameters Hibernate actually sends, and runs EXPLAIN
+ * on exactly that statement. Fails when one of them no longer reads its table through the expected index (for
+ * example because a migration dropped it or a query changed shape).
+ *
+ * The application starts against the database, so the schema comes from the Flyway migrations; the tables are
+ * filled with enough rows for the optimizer to prefer the indexes, and emptied again afterwards. Runs only against
+ * an empty scratch MySQL database:
+ * mvn test -Dtest=IndexUsageTests -Dexplain.jdbc.url=jdbc:mysql://host/scratch -Dexplain.jdbc.user=... -Dexplain.jdbc.password=...
+ *
+ * With -Dexplain.from-baseline=true the database is first given the pre-Flyway schema (V1) and a few rows written
+ * the way that release wrote them, without Flyway's history table. Flyway then baselines it at V1 and migrates it
+ * up, exactly as it upgrades a production database, and the same plans are checked against the result.
+ */
+@SpringBootTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@EnabledIfSystemProperty(named = "explain.jdbc.url", matches = ".+")
+class IndexUsageTests {
+
+	private static final int DOCTORS = 1000;
+	private static final int PATIENTS = 5000;
+	private static final int APPOINTMENTS_PER_DOCTOR = 50;
+	private static final int REVOKED_TOKENS = 5000;
+	private static final int TOKEN_VERSIONS = 5000;
+	private static final int ADMINS = 100;
+	private static final int BATCH_SIZE = 500;
+	private static final LocalDateTime FIRST_APPOINTMENT = LocalDateTime.of(2030, 1, 7, 9, 0);
+	private static final LocalDateTime DAY = LocalDateTime.of(2030, 1, 8, 0, 0);
+	private static final boolean FROM_BASELINE = Boolean.getBoolean("explain.from-baseline");
+	// Rows written by the pre-Flyway release; ids stay clear of the seeded ranges
+	private static final long LEGACY_ID = 1_000_000L;
+	private static final String[] TABLES = {"appointments", "doctor_working_hours", "doctor_available_times",
+			"doctors", "patients", "admins", "revoked_tokens", "token_versions"};
+
+	// Statements prepared on the current thread while a repository call is being captured
+	private static final ThreadLocal<List<CapturedStatement>> CAPTURED = new ThreadLocal<>();
+
+	@DynamicPropertySource
+	static void scratchDatabase(DynamicPropertyRegistry registry) {
+		registry.add("spring.datasource.url", () -> System.getProperty("explain.jdbc.url"));
+		registry.add("spring.datasource.username", () -> System.getProperty("explain.jdbc.user", "root"));
+		registry.add("spring.datasource.password", () -> System.getProperty("explain.jdbc.password", ""));
+		registry.add("spring.data.mongodb.uri", () -> "mongodb://localhost:27017/explain");
+		registry.add("spring.jpa.show-sql", () -> "false");
+		if (FROM_BASELINE) prepareBaseline();
+	}
+
+	/**
+	 * Helper method: Pre-Flyway schema and legacy rows in the scratch database, before the application (and Flyway)
+	 * starts. Leaves a database that already has tables alone; seedTables then skips the run.
+	 */
+	private static void prepareBaseline() {
+		try (Connection connection = DriverManager.getConnection(System.getProperty("explain.jdbc.url"),
+				System.getProperty("explain.jdbc.user", "root"), System.getProperty("explain.jdbc.password", ""));
+			 Statement statement = connection.createStatement()) {
+			try (ResultSet tables = statement.executeQuery("SHOW TABLES")) {
+				if (tables.next()) return;
+			}
+			ScriptUtils.executeSqlScript(connection, new ClassPathResource("db/migration/V1__baseline_schema.sql"));
+			statement.execute("INSERT INTO doctors (id, name, specialty, email, password, phone) VALUES ("
+					+ LEGACY_ID + ", 'Legacy Doctor', 'Cardiologist', 'legacy.doctor@example.com', 'secret', '7000000000')");
+			statement.execute("INSERT INTO doctor_available_times (doctor_id, available_times) VALUES ("
+					+ LEGACY_ID + ", '09:00-12:00')");
+			statement.execute("INSERT INTO patients (id, name, address, email, password, phone) VALUES ("
+					+ LEGACY_ID + ", 'Legacy Patient', 'Old Street 1', 'legacy.patient@example.com', 'secret', '7000000001')");
+			statement.execute("INSERT INTO admins (id, username, password) VALUES (" + LEGACY_ID + ", 'legacy', 'secret')");
+			statement.execute("INSERT INTO appointments (id, doctor_id, patient_id, appointment_time, status) VALUES ("
+					+ LEGACY_ID + ", " + LEGACY_ID + ", " + LEGACY_ID + ", '2029-12-31 09:00:00', 0)");
+		} catch (SQLException e) {
+			throw new IllegalStateException("Could not prepare the baseline schema", e);
+		}
+	}
+
+	@TestConfiguration
+	static class StatementCapture {
+
+		/**
+		 * Wraps the application's DataSource so statements and their parameters can be recorded
+		 */
+		@Bean
+		static BeanPostProcessor capturingDataSource() {
+			return new BeanPostProcessor() {
+				@Override
+				public Object postProcessAfterInitialization(Object bean, String beanName) {
+					return bean instanceof DataSource dataSource ? capturing(dataSource) : bean;
+				}
+			};
+		}
+	}
+
+	@Autowired
+	private DataSource dataSource;
+
+	@Autowired
+	private AppointmentRepository appointmentRepository;
+
+	@Autowired
+	private DoctorRepository doctorRepository;
+
+	@Autowired
+	private PatientRepository patientRepository;
+
+	@Autowired
+	private AdminRepository adminRepository;
+
+	@Autowired
+	private DoctorWorkingHoursRepository workingHoursRepository;
+
+	@Autowired
+	private RevokedTokenRepository revokedTokenRepository;
+
+	@Autowired
+	private TokenVersionRepository tokenVersionRepository;
+
+	private Connection connection;
+
+	@BeforeAll
+	void seedTables() throws SQLException {
+		connection = dataSource.getConnection();
+		long legacyRows = FROM_BASELINE ? 1 : 0;
+		assumeTrue(count("doctors") == legacyRows && count("patients") == legacyRows,
+				"explain.jdbc.url must point at an empty database");
+
+		LocalDateTime now = LocalDateTime.now();
+		connection.setAutoCommit(false);
+		seed("INSERT INTO doctors (id, name, specialty, email, password, phone) VALUES (?, ?, ?, ?, ?, ?)", DOCTORS,
+				(statement, i) -> {
+					statement.setLong(1, i);
+					statement.setString(2, String.format("Doctor %04d", i));
+					statement.setString(3, "Specialty " + (i % 20));
+					statement.setString(4, "doctor" + i + "@example.com");
+					statement.setString(5, "secret");
+					statement.setString(6, String.format("9%09d", i));
+				});
+		seed("INSERT INTO patients (id, name, address, email, password, phone) VALUES (?, ?, ?, ?, ?, ?)", PATIENTS,
+				(statement, i) -> {
+					statement.setLong(1, i);
+					statement.setString(2, String.format("Patient %05d", i));
+					statement.setString(3, "Street " + i);
+					statement.setString(4, "patient" + i + "@example.com");
+					statement.setString(5, "secret");
+					statement.setString(6, String.format("8%09d", i));
+				});
+		seed("INSERT INTO appointments (id, doctor_id, patient_id, appointment_time, status) VALUES (?, ?, ?, ?, ?)",
+				DOCTORS * APPOINTMENTS_PER_DOCTOR, (statement, i) -> {
+					int doctor = (i - 1) % DOCTORS + 1;
+					int slot = (i - 1) / DOCTORS;
+					statement.setLong(1, i);
+					statement.setLong(2, doctor);
+					statement.setLong(3, (i * 7L) % PATIENTS + 1);
+					statement.setTimestamp(4, Timestamp.valueOf(FIRST_APPOINTMENT.plusDays(slot / 8).plusHours(slot % 8)));
+					statement.setInt(5, slot % 2);
+				});
+		// V6 has already converted the legacy doctor's hours when starting from the baseline
+		long migratedHours = scalar("SELECT COALESCE(MAX(id), 0) FROM doctor_working_hours");
+		seed("INSERT INTO doctor_working_hours (id, doctor_id, day_of_week, start_minute, end_minute) VALUES (?, ?, ?, ?, ?)",
+				DOCTORS * 5, (statement, i) -> {
+					boolean morning = (i / 5) % 2 == 0;
+					statement.setLong(1, migratedHours + i);
+					statement.setLong(2, (i - 1) / 5 + 1);
+					statement.setInt(3, (i - 1) % 5 + 1);
+					statement.setInt(4, morning ? 9 * 60 : 13 * 60);
+					statement.setInt(5, morning ? 12 * 60 : 17 * 60);
+				});
+		seed("INSERT INTO admins (id, username, password) VALUES (?, ?, ?)", ADMINS, (statement, i) -> {
+			statement.setLong(1, i);
+			statement.setString(2, "admin" + i);
+			statement.setString(3, "secret");
+		});
+		seed("INSERT INTO revoked_tokens (token_id, expires_at, revoked_at) VALUES (?, ?, ?)", REVOKED_TOKENS,
+				(statement, i) -> {
+					statement.setString(1, "token-" + i);
+					// Most revocations have expired on their own and are old; only the newest 1% are live and recent
+					boolean recent = i > REVOKED_TOKENS * 99 / 100;
+					statement.setTimestamp(2, Timestamp.valueOf(now.plusHours(recent ? 1 : -i)));
+					statement.setTimestamp(3, Timestamp.valueOf(now.minusHours(recent ? 0 : i + 1)));
+				});
+		seed("INSERT INTO token_versions (principal, version, updated_at) VALUES (?, ?, ?)", TOKEN_VERSIONS,
+				(statement, i) -> {
+					statement.setString(1, "doctor:" + i);
+					statement.setInt(2, 1 + i % 3);
+					// Only the newest 1% were bumped since the last sync
+					statement.setTimestamp(3, Timestamp.valueOf(now.minusHours(i > TOKEN_VERSIONS * 99 / 100 ? 0 : i + 1)));
+				});
+		connection.commit();
+		connection.setAutoCommit(true);
+
+		try (Statement statement = connection.createStatement()) {
+			statement.execute("ANALYZE TABLE " + String.join(", ", TABLES));
+		}
+	}
+
+	@AfterAll
+	void cleanUp() throws SQLException {
+		if (connection == null) return;
+		try (Statement statement = connection.createStatement()) {
+			for (String table : TABLES) {
+				statement.execute("DELETE FROM " + table);
+			}
+		}
+		connection.close();
+	}
+
+	@Test
+	void doctorDayViewUsesDoctorTimeIndex() throws SQLException {
+		assertUsesIndex(capture(() -> appointmentRepository.findDayViewByDoctorId(7L, DAY, DAY.plusDays(1).minusSeconds(1))),
+				"appointments", "uk_appointments_doctor_time");
+		assertUsesIndex(capture(() -> appointmentRepository.findDayViewByDoctorIdAndPatientIds(7L, List.of(50L, 99L, 148L),
+						DAY, DAY.plusDays(1).minusSeconds(1))),
+				"appointments", "uk_appointments_doctor_time", "idx_appointments_patient_time");
+	}
+
+	@Test
+	void bookedSlotsUseDoctorTimeIndex() throws SQLException {
+		assertUsesIndex(capture(() -> appointmentRepository.findAppointmentTimesByDoctorId(7L, DAY, DAY.plusDays(1))),
+				"appointments", "uk_appointments_doctor_time");
+		assertUsesIndex(capture(() -> appointmentRepository.findBookedSlotsByDoctorIds(List.of(3L, 5L, 7L), DAY, DAY.plusDays(1))),
+				"appointments", "uk_appointments_doctor_time");
+	}
+
+	@Test
+	void patientHistoryUsesPatientIndexes() throws SQLException {
+		PageRequest limit = PageRequest.ofSize(21);
+		LocalDateTime afterTime = LocalDateTime.of(2030, 1, 10, 9, 0);
+
+		assertUsesIndex(capture(() -> appointmentRepository.findHistory(42L, null, null, null, null, limit)),
+				"appointments", "idx_appointments_patient_time", "idx_appointments_patient_status_time");
+		// With a status, only the (patient_id, status, appointment_time) index serves filter and order together
+		assertUsesIndex(capture(() -> appointmentRepository.findHistory(42L, 1, null, null, null, limit)),
+				"appointments", "idx_appointments_patient_status_time");
+		assertUsesIndex(capture(() -> appointmentRepository.findHistory(42L, 1, null, afterTime, 100L, limit)),
+				"appointments", "idx_appointments_patient_status_time");
+		assertUsesIndex(capture(() -> appointmentRepository.findHistory(42L, null, null, afterTime, 100L, limit)),
+				"appointments", "idx_appointments_patient_time", "idx_appointments_patient_status_time");
+		assertUsesIndex(capture(() -> appointmentRepository.findHistory(42L, null, List.of(3L, 5L, 7L), null, null, limit)),
+				"appointments", "idx_appointments_patient_time", "idx_appointments_patient_status_time");
+	}
+
+	@Test
+	void loginLookupsUseUniqueIndexes() throws SQLException {
+		assertUsesIndex(capture(() -> doctorRepository.findByEmail("doctor5@example.com")), "doctors", "uk_doctors_email");
+		assertUsesIndex(capture(() -> patientRepository.findByEmail("patient5@example.com")), "patients", "uk_patients_email");
+		assertUsesIndex(capture(() -> patientRepository.findByEmailOrPhone("patient5@example.com", "8000000005")),
+				"patients", "uk_patients_email", "uk_patients_phone");
+		assertUsesIndex(capture(() -> adminRepository.findByUsername("admin5")), "admins", "uk_admins_username");
+	}
+
+	@Test
+	void doctorListingUsesNameKeysetIndex() throws SQLException {
+		assertUsesIndex(capture(() -> doctorRepository.findCardsAfter("Doctor 0500", 500L, PageRequest.ofSize(21))),
+				"doctors", "idx_doctors_name_id");
+	}
+
+	@Test
+	void workingHoursUseRangeIndexes() throws SQLException {
+		// "Who works Tuesday afternoons", as DoctorService.searchDoctors runs it (page and count query)
+		assertUsesIndex(capture(() -> doctorRepository.findAll(DoctorSpecifications.worksAfternoon(2, 60, true),
+						PageRequest.of(0, 20, Sort.by("name", "id")))),
+				"doctor_working_hours", "idx_working_hours_doctor_day", "idx_working_hours_day_range");
+		// ScheduleEngine loading the week of several doctors
+		assertUsesIndex(capture(() -> workingHoursRepository.findRangesByDoctorIds(List.of(3L, 5L, 7L))),
+				"doctor_working_hours", "idx_working_hours_doctor_day");
+	}
+
+	@Test
+	void tokenSyncUsesTimeIndexes() throws SQLException {
+		LocalDateTime lastSync = LocalDateTime.now().minusMinutes(5);
+		assertUsesIndex(capture(() -> revokedTokenRepository.findByExpiresAtAfter(LocalDateTime.now())),
+				"revoked_tokens", "idx_revoked_tokens_expires_at");
+		assertUsesIndex(capture(() -> revokedTokenRepository.findByRevokedAtAfter(lastSync)),
+				"revoked_tokens", "idx_revoked_tokens_revoked_at");
+		assertUsesIndex(capture(() -> tokenVersionRepository.findByUpdatedAtAfter(lastSync)),
+				"token_versions", "idx_token_versions_updated_at");
+	}
+
+	@Test
+	void baselineUpgradeKeepsLegacyRows() throws SQLException {
+		assumeTrue(FROM_BASELINE, "only after -Dexplain.from-baseline=true");
+		// Pooled ids must start past the ids the IDENTITY columns handed out (seedTables writes ids below them)
+		for (String table : new String[]{"admins", "doctors", "patients", "appointments"}) {
+			long next = scalar("SELECT next_val FROM " + table + "_seq");
+			assertTrue(next > LEGACY_ID, table + "_seq at " + next + " would reuse legacy id " + LEGACY_ID);
+		}
+		long converted = scalar("SELECT MAX(id) FROM doctor_working_hours WHERE doctor_id = " + LEGACY_ID);
+		assertTrue(scalar("SELECT next_val FROM doctor_working_hours_seq") > converted,
+				"doctor_working_hours_seq would reuse the ids V6 wrote");
+		// V6 converted the legacy doctor's free-form window into one row per day
+		assertEquals(7, scalar("SELECT COUNT(*) FROM doctor_working_hours WHERE doctor_id = " + LEGACY_ID
+				+ " AND start_minute = 540 AND end_minute = 720"));
+		assertEquals(1, scalar("SELECT COUNT(*) FROM appointments WHERE id = " + LEGACY_ID));
+	}
+
+	/**
+	 * Runs the repository call and returns every statement it sent, with its bound parameters
+	 */
+	private static List<CapturedStatement> capture(Runnable call) {
+		CAPTURED.set(new ArrayList<>());
+		try {
+			call.run();
+			return CAPTURED.get();
+		} finally {
+			CAPTURED.remove();
+		}
+	}
+
+	/**
+	 * Asserts that every captured statement reading `table` reads it (under each of its aliases) through one of
+	 * `indexes`, never by a full scan
+	 */
+	private void assertUsesIndex(List<CapturedStatement> statements, String table, String... indexes) throws SQLException {
+		Pattern reference = Pattern.compile("(?i)\\b(?:from|join)\\s+" + table + "\\b(?:\\s+(?:as\\s+)?(\\w+))?");
+		int checked = 0;
+		for (CapturedStatement captured : statements) {
+			Set<String> aliases = new HashSet<>();
+			Matcher matcher = reference.matcher(captured.sql());
+			while (matcher.find()) {
+				String alias = matcher.group(1);
+				aliases.add(alias == null || isKeyword(alias) ? table : alias);
+			}
+			if (aliases.isEmpty()) continue;
+
+			List<String> keys = new ArrayList<>();
+			try (PreparedStatement explain = connection.prepareStatement("EXPLAIN " + captured.sql())) {
+				for (Map.Entry<Integer, Object> parameter : captured.parameters().entrySet()) {
+					explain.setObject(parameter.getKey(), parameter.getValue());
+				}
+				try (ResultSet plan = explain.executeQuery()) {
+					while (plan.next()) {
+						if (!aliases.contains(plan.getString("table"))) continue;
+						String key = plan.getString("key");
+						assertNotEquals("ALL", plan.getString("type"), "Full scan of " + table + " for: " + captured);
+						assertTrue(key != null && Arrays.stream(key.split(",")).anyMatch(Arrays.asList(indexes)::contains),
+								table + " read through " + key + " instead of " + Arrays.toString(indexes) + " for: " + captured);
+						keys.add(key);
+					}
+				}
+			}
+			assertFalse(keys.isEmpty(), "No plan row for " + table + " in: " + captured);
+			checked++;
+		}
+		assertTrue(checked > 0, "No statement read " + table + " in: " + statements);
+	}
+
+	private static boolean isKeyword(String word) {
+		return Set.of("where", "join", "left", "inner", "on", "order", "group", "limit").contains(word.toLowerCase(Locale.ROOT));
+	}
+
+	private void seed(String sql, int rows, RowBinder binder) throws SQLException {
+		try (PreparedStatement statement = connection.prepareStatement(sql)) {
+			for (int i = 1; i <= rows; i++) {
+				binder.bind(statement, i);
+				statement.addBatch();
+				if (i % BATCH_SIZE == 0) statement.executeBatch();
+			}
+			statement.executeBatch();
+		}
+	}
+
+	private long count(String table) throws SQLException {
+		return scalar("SELECT COUNT(*) FROM " + table);
+	}
+
+	private long scalar(String sql) throws SQLException {
+		try (Statement statement = connection.createStatement();
+			 ResultSet result = statement.executeQuery(sql)) {
+			result.next();
+			return result.getLong(1);
+		}
+	}
+
+	/**
+	 * Helper method: DataSource whose connections record the prepared statements executed while capturing
+	 */
+	private static DataSource capturing(DataSource target) {
+		return proxy(DataSource.class, target, (proxy, method, args) -> {
+			Object result = invoke(target, method, args);
+			return result instanceof Connection opened ? capturing(opened) : result;
+		});
+	}
+
+	private static Connection capturing(Connection target) {
+		return proxy(Connection.class, target, (proxy, method, args) -> {
+			Object result = invoke(target, method, args);
+			if (result instanceof PreparedStatement statement && method.getName().equals("prepareStatement")) {
+				return capturing(statement, (String) args[0]);
+			}
+			return result;
+		});
+	}
+
+	private static PreparedStatement capturing(PreparedStatement target, String sql) {
+		Map<Integer, Object> parameters = new TreeMap<>();
+		return proxy(PreparedStatement.class, target, (proxy, method, args) -> {
+			String name = method.getName();
+			if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+				parameters.put(index, name.equals("setNull") ? null : args[1]);
+			} else if (name.equals("clearParameters")) {
+				parameters.clear();
+			} else if (name.startsWith("execute") && CAPTURED.get() != null) {
+				CAPTURED.get().add(new CapturedStatement(sql, new TreeMap<>(parameters)));
+			}
+			return invoke(target, method, args);
+		});
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T> T proxy(Class<T> type, T target, InvocationHandler handler) {
+		return (T) Proxy.newProxyInstance(IndexUsageTests.class.getClassLoader(), new Class<?>[]{type}, handler);
+	}
+
+	private static Object invoke(Object target, java.lang.reflect.Method method, Object[] args) throws Throwable {
+		try {
+			return method.invoke(target, args);
+		} catch (InvocationTargetException e) {
+			throw e.getCause();
+		}
+	}
+
+	private record CapturedStatement(String sql, Map<Integer, Object> parameters) {
+	}
+
+	@FunctionalInterface
+	private interface RowBinder {
+		void bind(PreparedStatement statement, int row) throws SQLException;
+	}
+}
@@ -0,0 +1,78 @@
+package com.project.back_end.services;
+
+import com.project.back_end.models.Appointment;
+import com.project.back_end.models.Doctor;
+import com.project.back_end.models.Patient;
+import com.project.back_end.repo.AppointmentRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AppointmentServiceTests {
+
+	private static final long DOCTOR = 1L;
+	private static final LocalDate DAY = LocalDate.now().plusDays(7);
+
+	private final AppointmentRepository appointmentRepository = mock(AppointmentRepository.class);
+	private final ScheduleEngine scheduleEngine = mock(ScheduleEngine.class);
+	private final AppointmentService service = new AppointmentService();
+
+	AppointmentServiceTests() {
+		// Half-hour slots from 09:00; visits last the default 60 minutes
+		when(scheduleEngine.scheduleFor(eq(DOCTOR), any()))
+				.thenReturn(new DoctorSchedule(IntStream.range(0, 16).map(i -> 540 + i * 30).toArray(), 30));
+		ReflectionTestUtils.setField(service, "appointmentRepository", appointmentRepository);
+		ReflectionTestUtils.setField(service, "availabilityIndex",
+				new AvailabilityIndex(appointmentRepository, scheduleEngine, 366, 30));
+		ReflectionTestUtils.setField(service, "bookingLocks", new BookingLockStripes(64, 100));
+	}
+
+	@Test
+	void movingWithinTheSameDayIgnoresTheAppointmentItself() {
+		bookedAt(DAY.atTime(9, 0));
+
+		assertEquals(HttpStatus.OK, service.updateAppointment(appointment(DAY.atTime(9, 30))).getStatusCode());
+	}
+
+	@Test
+	void movingOntoAnotherAppointmentStillConflicts() {
+		bookedAt(DAY.atTime(9, 0), DAY.atTime(10, 30));
+
+		// 10:00-11:00 overlaps the 10:30 visit, even with the moved 09:00 visit left out
+		assertEquals(HttpStatus.CONFLICT, service.updateAppointment(appointment(DAY.atTime(10, 0))).getStatusCode());
+	}
+
+	/**
+	 * Appointment 5 of the doctor starts at the first time; the others are further appointments of that day
+	 */
+	private void bookedAt(LocalDateTime... times) {
+		Appointment existing = new Appointment(doctor(), new Patient(), times[0], 0);
+		ReflectionTestUtils.setField(existing, "id", 5L);
+		when(appointmentRepository.findById(5L)).thenReturn(Optional.of(existing));
+		when(appointmentRepository.findAppointmentTimesByDoctorId(eq(DOCTOR), any(), any())).thenReturn(List.of(times));
+	}
+
+	private static Appointment appointment(LocalDateTime time) {
+		Appointment moved = new Appointment(doctor(), new Patient(), time, 0);
+		ReflectionTestUtils.setField(moved, "id", 5L);
+		return moved;
+	}
+
+	private static Doctor doctor() {
+		Doctor doctor = new Doctor();
+		ReflectionTestUtils.setField(doctor, "id", DOCTOR);
+		return doctor;
+	}
+}
@@ -0,0 +1,75 @@
+package com.project.back_end.services;
+
+import com.project.back_end.repo.AppointmentRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AvailabilityIndexTests {
+
+	private static final long DOCTOR = 1L;
+	private static final LocalDate DAY = LocalDate.now().plusDays(7);
+
+	private final ScheduleEngine scheduleEngine = mock(ScheduleEngine.class);
+	private final AvailabilityIndex index = new AvailabilityIndex(mock(AppointmentRepository.class), scheduleEngine, 366, 30);
+
+	@Test
+	void holdOutsideTheNewScheduleBlocksNothingAndIsStillReleased() {
+		useSchedule(slots(540, 60, 8), 60); // 09:00-17:00
+		assertTrue(index.hold(DOCTOR, DAY.atTime(16, 0)));
+
+		// The doctor now works mornings only; the held 16:00 slot (bit 7) is gone
+		useSchedule(slots(540, 60, 4), 60);
+		index.evictDoctor(DOCTOR);
+		assertArrayEquals(slots(540, 60, 4), index.freeSlots(DOCTOR, DAY));
+
+		// Releasing under the new schedule still clears it, so it does not come back with the afternoon
+		index.releaseHold(DOCTOR, DAY.atTime(16, 0));
+		useSchedule(slots(540, 60, 8), 60);
+		index.evictDoctor(DOCTOR);
+		assertArrayEquals(slots(540, 60, 8), index.freeSlots(DOCTOR, DAY));
+	}
+
+	@Test
+	void holdFollowsItsStartTimeAcrossScheduleChanges() {
+		useSchedule(slots(540, 60, 8), 60);
+		LocalDateTime ten = DAY.atTime(10, 0);
+		assertTrue(index.hold(DOCTOR, ten));
+
+		// Half-hour slots: 10:00 is now slot 2, and 09:30 (slot 1) must stay free
+		useSchedule(slots(540, 30, 16), 30);
+		index.evictDoctor(DOCTOR);
+		int[] free = index.freeSlots(DOCTOR, DAY);
+		assertFalse(IntStream.of(free).anyMatch(minute -> minute == 600));
+		assertTrue(IntStream.of(free).anyMatch(minute -> minute == 570));
+		assertTrue(index.isHeld(DOCTOR, ten));
+
+		index.releaseHold(DOCTOR, ten);
+		assertFalse(index.isHeld(DOCTOR, ten));
+		assertArrayEquals(slots(540, 30, 16), index.freeSlots(DOCTOR, DAY));
+	}
+
+	@Test
+	void freeSlotsIgnoresBitsPastTheLastSlot() {
+		DoctorSchedule schedule = new DoctorSchedule(slots(540, 60, 4), 60);
+		assertArrayEquals(new int[]{600, 660, 720}, schedule.freeSlots(1L | 1L << 7));
+	}
+
+	private void useSchedule(int[] starts, int slotMinutes) {
+		when(scheduleEngine.scheduleFor(eq(DOCTOR), any())).thenReturn(new DoctorSchedule(starts, slotMinutes));
+	}
+
+	private static int[] slots(int first, int step, int count) {
+		return IntStream.range(0, count).map(i -> first + i * step).toArray();
+	}
+}
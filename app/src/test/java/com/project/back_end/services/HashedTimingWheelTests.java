@@ -0,0 +1,56 @@
+package com.project.back_end.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class HashedTimingWheelTests {
+
+	@Test
+	void itemExpiresOnceItsDeadlineTickHasPassed() {
+		HashedTimingWheel<String> wheel = new HashedTimingWheel<>(1000, 8);
+		long start = System.currentTimeMillis();
+		wheel.schedule("hold", start + 2500);
+
+		List<String> expired = new ArrayList<>();
+		wheel.advance(start + 2000, expired::add);
+		assertEquals(List.of(), expired);
+
+		wheel.advance(start + 4000, expired::add);
+		assertEquals(List.of("hold"), expired);
+
+		// Handed out once only
+		wheel.advance(start + 12000, expired::add);
+		assertEquals(List.of("hold"), expired);
+	}
+
+	@Test
+	void itemMoreThanOneRotationAheadWaitsForItsRound() {
+		HashedTimingWheel<String> wheel = new HashedTimingWheel<>(1000, 4);
+		long start = System.currentTimeMillis();
+		wheel.schedule("late", start + 6500);  // tick 7, same bucket as tick 3
+		wheel.schedule("early", start + 2500); // tick 3
+
+		List<String> expired = new ArrayList<>();
+		wheel.advance(start + 4000, expired::add);
+		assertEquals(List.of("early"), expired);
+
+		wheel.advance(start + 8000, expired::add);
+		assertEquals(List.of("early", "late"), expired);
+	}
+
+	@Test
+	void deadlineInThePastExpiresOnTheNextTick() {
+		HashedTimingWheel<String> wheel = new HashedTimingWheel<>(1000, 8);
+		long start = System.currentTimeMillis();
+		wheel.advance(start + 3000, item -> {});
+		wheel.schedule("overdue", start);
+
+		List<String> expired = new ArrayList<>();
+		wheel.advance(start + 4000, expired::add);
+		assertEquals(List.of("overdue"), expired);
+	}
+}
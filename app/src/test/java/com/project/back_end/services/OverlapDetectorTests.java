@@ -0,0 +1,144 @@
+package com.project.back_end.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OverlapDetectorTests {
+
+	@Test
+	void emptyDetectorOverlapsNothing() {
+		assertFalse(OverlapDetector.EMPTY.overlaps(0, 24 * 60));
+		assertSame(OverlapDetector.EMPTY, OverlapDetector.of(new int[0], new int[0], 0));
+	}
+
+	@Test
+	void intervalsAreHalfOpen() {
+		OverlapDetector detector = detector(540, 600);
+
+		assertFalse(detector.overlaps(480, 540), "ends where the interval starts");
+		assertFalse(detector.overlaps(600, 660), "starts where the interval ends");
+		assertTrue(detector.overlaps(599, 600));
+		assertTrue(detector.overlaps(480, 541));
+		assertTrue(detector.overlaps(560, 570), "inside");
+		assertTrue(detector.overlaps(500, 700), "around");
+	}
+
+	@Test
+	void offSlotStartBlocksBothNeighbours() {
+		// A 09:30 visit of 60 minutes overlaps the 09:00 and the 10:00 slot, not 08:00 or 11:00
+		OverlapDetector detector = detector(570, 630);
+
+		assertFalse(detector.overlaps(480, 540));
+		assertTrue(detector.overlaps(540, 600));
+		assertTrue(detector.overlaps(600, 660));
+		assertFalse(detector.overlaps(660, 720));
+	}
+
+	@Test
+	void longIntervalIsFoundBehindShorterLaterOnes() {
+		// The last interval starting before the query ends early; only the running maximum of ends sees 09:00-12:00
+		OverlapDetector detector = detector(540, 720, 600, 630, 640, 650);
+
+		assertTrue(detector.overlaps(690, 700));
+		assertFalse(detector.overlaps(720, 780));
+	}
+
+	@Test
+	void ofAcceptsUnsortedInput() {
+		OverlapDetector detector = OverlapDetector.of(new int[]{900, 540, 720}, new int[]{960, 600, 780}, 3);
+
+		assertEquals(3, detector.size());
+		assertTrue(detector.overlaps(550, 560));
+		assertTrue(detector.overlaps(730, 740));
+		assertTrue(detector.overlaps(950, 1000));
+		assertFalse(detector.overlaps(600, 720));
+		assertFalse(detector.overlaps(780, 900));
+	}
+
+	@Test
+	void withAddsWithoutChangingTheOriginal() {
+		OverlapDetector original = detector(540, 600, 720, 780);
+		OverlapDetector added = original.with(600, 660);
+
+		assertEquals(2, original.size());
+		assertFalse(original.overlaps(610, 620));
+		assertEquals(3, added.size());
+		assertTrue(added.overlaps(610, 620));
+		assertTrue(added.overlaps(550, 560));
+		assertTrue(added.overlaps(730, 740));
+		assertTrue(OverlapDetector.EMPTY.with(0, 10).overlaps(5, 6));
+	}
+
+	@Test
+	void withoutRemovesOneOccurrence() {
+		OverlapDetector twice = detector(540, 600).with(540, 600).with(540, 660);
+
+		OverlapDetector once = twice.without(540, 600);
+		assertEquals(2, once.size());
+		assertTrue(once.overlaps(550, 560));
+
+		OverlapDetector longOnly = once.without(540, 600);
+		assertEquals(1, longOnly.size());
+		assertTrue(longOnly.overlaps(620, 630), "the 540-660 interval stays");
+
+		assertSame(OverlapDetector.EMPTY, longOnly.without(540, 660));
+	}
+
+	@Test
+	void withoutMissingIntervalReturnsSameDetector() {
+		OverlapDetector detector = detector(540, 600, 720, 780);
+
+		assertSame(detector, detector.without(540, 660), "same start, other end");
+		assertSame(detector, detector.without(600, 660), "no such start");
+		assertSame(OverlapDetector.EMPTY, OverlapDetector.EMPTY.without(0, 10));
+	}
+
+	@Test
+	void matchesBruteForceOnRandomIntervals() {
+		Random random = new Random(42);
+		for (int round = 0; round < 200; round++) {
+			List<int[]> intervals = new ArrayList<>();
+			OverlapDetector detector = OverlapDetector.EMPTY;
+			int count = random.nextInt(20);
+			for (int i = 0; i < count; i++) {
+				int start = random.nextInt(24 * 60 - 180);
+				int end = start + 15 + random.nextInt(165);
+				intervals.add(new int[]{start, end});
+				detector = detector.with(start, end);
+			}
+			if (!intervals.isEmpty() && random.nextBoolean()) {
+				int[] removed = intervals.remove(random.nextInt(intervals.size()));
+				detector = detector.without(removed[0], removed[1]);
+			}
+
+			assertEquals(intervals.size(), detector.size());
+			for (int query = 0; query < 50; query++) {
+				int start = random.nextInt(24 * 60 - 120);
+				int end = start + 1 + random.nextInt(120);
+				boolean expected = intervals.stream().anyMatch(interval -> interval[0] < end && start < interval[1]);
+				assertEquals(expected, detector.overlaps(start, end), "query [" + start + ", " + end + ")");
+			}
+		}
+	}
+
+	/**
+	 * Detector over (start, end) pairs
+	 */
+	private static OverlapDetector detector(int... bounds) {
+		int[] starts = new int[bounds.length / 2];
+		int[] ends = new int[bounds.length / 2];
+		for (int i = 0; i < starts.length; i++) {
+			starts[i] = bounds[2 * i];
+			ends[i] = bounds[2 * i + 1];
+		}
+		return OverlapDetector.of(starts, ends, starts.length);
+	}
+}
@@ -0,0 +1,49 @@
+package com.project.back_end.services;
+
+import com.project.back_end.DTO.PatientName;
+import com.project.back_end.repo.PatientRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PatientNameIndexTests {
+
+	@Test
+	void putDuringReloadSurvivesTheSwap() {
+		PatientRepository patientRepository = mock(PatientRepository.class);
+		PatientNameIndex nameIndex = new PatientNameIndex(patientRepository);
+		when(patientRepository.findAllNames()).thenReturn(List.of(new PatientName(1L, "Anna Smith")));
+		assertEquals(Set.of(1L), nameIndex.search("anna"));
+
+		// A patient is created (and renamed) while the reload's query runs, after the rows were read
+		when(patientRepository.findAllNames()).thenAnswer(invocation -> {
+			nameIndex.put(2L, "Joanna Brown");
+			nameIndex.put(1L, "Anna Jones");
+			return List.of(new PatientName(1L, "Anna Smith"));
+		});
+		nameIndex.reload();
+
+		assertEquals(Set.of(1L, 2L), nameIndex.search("anna"));
+		assertEquals(Set.of(1L), nameIndex.search("jones"));
+		assertEquals(Set.of(), nameIndex.search("smith"));
+	}
+
+	@Test
+	void putAfterReloadIsNotReplayedIntoTheNextOne() {
+		PatientRepository patientRepository = mock(PatientRepository.class);
+		PatientNameIndex nameIndex = new PatientNameIndex(patientRepository);
+		when(patientRepository.findAllNames()).thenReturn(List.of());
+		nameIndex.reload();
+		nameIndex.put(3L, "Bob");
+
+		// The patient was deleted in the database before the next reload
+		nameIndex.reload();
+
+		assertEquals(Set.of(), nameIndex.search("bob"));
+	}
+}
@@ -0,0 +1,149 @@
+package com.project.back_end.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PrefixTrieTests {
+
+	private static final List<String> ITEMS = List.of("Carol", "Cart", "Carter", "Anna", "Annabel");
+
+	@Test
+	void singleKeyIsFoundFromEveryPrefixOfItsCompressedChain() {
+		PrefixTrie<String> trie = PrefixTrie.<String>builder(3).add("hello", 0, 0).build(List.of("Hello"));
+
+		assertEquals(List.of("Hello"), trie.search(""));
+		assertEquals(List.of("Hello"), trie.search("h"));
+		assertEquals(List.of("Hello"), trie.search("hel"));
+		assertEquals(List.of("Hello"), trie.search("hello"));
+		assertEquals(List.of(), trie.search("help"), "mismatch inside the edge");
+		assertEquals(List.of(), trie.search("hellos"), "prefix longer than the key");
+		assertEquals(List.of(), trie.search("x"));
+	}
+
+	@Test
+	void prefixEndingMidEdgeReturnsTheSubtreeBelowIt() {
+		PrefixTrie<String> trie = trie(10);
+
+		// "car" branches into "ol" and "t"; "cart" continues as "er"
+		assertEquals(List.of("Carol", "Cart", "Carter"), trie.search("ca"));
+		assertEquals(List.of("Carol"), trie.search("caro"));
+		assertEquals(List.of("Cart", "Carter"), trie.search("cart"));
+		assertEquals(List.of("Carter"), trie.search("carte"));
+		assertEquals(List.of(), trie.search("carx"));
+		assertEquals(List.of(), trie.search("carotx"));
+	}
+
+	@Test
+	void keyEndingInsideAChainKeepsItsOwnNode() {
+		PrefixTrie<String> trie = trie(10);
+
+		// "anna" is a key and a prefix of "annabel", so the chain a-n-n-a-b-e-l is cut after "anna"
+		assertEquals(List.of("Anna", "Annabel"), trie.search("anna"));
+		assertEquals(List.of("Annabel"), trie.search("annab"));
+		assertEquals(List.of("Anna", "Annabel"), trie.search("an"));
+	}
+
+	@Test
+	void itemsAreDistinctAndRankedByWeightThenIndex() {
+		// Item 0 matches "s" through two keys, and item 2 ranks first with its full-name weight
+		PrefixTrie<String> trie = PrefixTrie.<String>builder(10)
+				.add("smith anna", 2, 0)
+				.add("anna smith", 0, 0)
+				.add("smith", 0, 1)
+				.add("surgery", 0, 2)
+				.add("surgery", 1, 2)
+				.build(List.of("Anna Smith", "Bob Jones", "Smith Anna"));
+
+		assertEquals(List.of("Smith Anna", "Anna Smith", "Bob Jones"), trie.search("s"));
+		assertEquals(List.of("Anna Smith", "Bob Jones"), trie.search("su"));
+		assertEquals(List.of("Anna Smith"), trie.search("a"));
+	}
+
+	@Test
+	void topKLimitsEveryNodeAfterDeduplication() {
+		PrefixTrie.Builder<String> builder = PrefixTrie.builder(2);
+		List<String> items = new ArrayList<>();
+		for (int i = 0; i < 5; i++) {
+			items.add("item" + i);
+			// Every item twice under "a", so a top-2 before deduplication would repeat item 0
+			builder.add("ab" + i, i, 0);
+			builder.add("ac" + i, i, 1);
+		}
+		PrefixTrie<String> trie = builder.build(items);
+
+		assertEquals(List.of("item0", "item1"), trie.search("a"));
+		assertEquals(List.of("item0", "item1"), trie.search("ac"));
+		assertEquals(List.of("item3"), trie.search("ab3"));
+		assertThrows(IllegalArgumentException.class, () -> PrefixTrie.builder(0));
+	}
+
+	@Test
+	void matchesBruteForceOnRandomKeys() {
+		Random random = new Random(11);
+		for (int round = 0; round < 50; round++) {
+			int topK = 1 + random.nextInt(4);
+			PrefixTrie.Builder<Integer> builder = PrefixTrie.builder(topK);
+			List<Integer> items = new ArrayList<>();
+			List<Object[]> keys = new ArrayList<>();
+			int itemCount = 1 + random.nextInt(15);
+			for (int item = 0; item < itemCount; item++) {
+				items.add(item);
+				for (int k = random.nextInt(3); k >= 0; k--) {
+					String key = randomKey(random, 6);
+					int weight = random.nextInt(3);
+					builder.add(key, item, weight);
+					keys.add(new Object[]{key, item, weight});
+				}
+			}
+			PrefixTrie<Integer> trie = builder.build(items);
+
+			for (int query = 0; query < 40; query++) {
+				String prefix = randomKey(random, 4);
+				assertEquals(bruteForce(keys, prefix, topK), trie.search(prefix), "prefix '" + prefix + "'");
+			}
+		}
+	}
+
+	private static PrefixTrie<String> trie(int topK) {
+		PrefixTrie.Builder<String> builder = PrefixTrie.builder(topK);
+		for (int i = 0; i < ITEMS.size(); i++) {
+			builder.add(ITEMS.get(i).toLowerCase(), i, 0);
+		}
+		return builder.build(ITEMS);
+	}
+
+	/**
+	 * Reference: best (weight, item) per item over the keys starting with the prefix, top-K of those
+	 */
+	private static List<Integer> bruteForce(List<Object[]> keys, String prefix, int topK) {
+		Map<Integer, Integer> bestWeight = new HashMap<>();
+		for (Object[] key : keys) {
+			if (((String) key[0]).isEmpty() || !((String) key[0]).startsWith(prefix)) continue;
+			bestWeight.merge((Integer) key[1], (Integer) key[2], Math::min);
+		}
+		return bestWeight.entrySet().stream()
+				.sorted(Comparator.comparing((Map.Entry<Integer, Integer> entry) -> entry.getValue())
+						.thenComparing(Map.Entry::getKey))
+				.limit(topK)
+				.map(Map.Entry::getKey)
+				.toList();
+	}
+
+	private static String randomKey(Random random, int maxLength) {
+		StringBuilder key = new StringBuilder();
+		int length = random.nextInt(maxLength + 1);
+		for (int i = 0; i < length; i++) {
+			key.append("abc".charAt(random.nextInt(3)));
+		}
+		return key.toString();
+	}
+}
@@ -0,0 +1,53 @@
+package com.project.back_end.services;
+
+import com.project.back_end.DTO.WorkingHoursRange;
+import com.project.back_end.repo.DoctorRepository;
+import com.project.back_end.repo.DoctorWorkingHoursRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ScheduleEngineTests {
+
+	private final DoctorWorkingHoursRepository workingHoursRepository = mock(DoctorWorkingHoursRepository.class);
+
+	@Test
+	void overlappingWindowsShareTheirSlots() {
+		ScheduleEngine engine = engine(10, "09:00-12:00");
+		// 06:00-16:00 and 08:00-16:00 give 60 distinct ten-minute slots, not 108
+		assertTrue(engine.fitsSlotLimit(List.of("06:00-16:00", "08:00-16:00", "MON 06:00-16:00")));
+		assertEquals(60, engine.scheduleOf(List.of("06:00-16:00", "08:00-16:00")).slotCount());
+	}
+
+	@Test
+	void windowsBeyondOneBitmapAreRejectedNotTruncated() {
+		ScheduleEngine engine = engine(10, "09:00-12:00");
+		// 09:00-21:00 in ten-minute slots is 72 slots
+		assertFalse(engine.fitsSlotLimit(List.of("09:00-21:00")));
+		assertFalse(engine.fitsSlotLimit(List.of("09:00-12:00", "TUE 12:00-21:00")));
+		assertThrows(IllegalStateException.class, () -> engine.scheduleOf(List.of("09:00-21:00")));
+	}
+
+	@Test
+	void startupFailsOnDefaultWindowsOrStoredHoursBeyondTheLimit() {
+		assertThrows(IllegalStateException.class, () -> engine(10, "09:00-21:00"));
+
+		ScheduleEngine engine = engine(10, "09:00-12:00");
+		when(workingHoursRepository.findAllRanges()).thenReturn(List.of(
+				new WorkingHoursRange(7L, 2, 9 * 60, 14 * 60),
+				new WorkingHoursRange(7L, 2, 13 * 60, 21 * 60)));
+		IllegalStateException e = assertThrows(IllegalStateException.class, engine::checkSlotLimit);
+		assertTrue(e.getMessage().startsWith("Doctor 7 has 72 slots on day 2"), e.getMessage());
+	}
+
+	private ScheduleEngine engine(int slotMinutes, String defaultWindows) {
+		return new ScheduleEngine(workingHoursRepository, mock(DoctorRepository.class), slotMinutes, 0, List.of(defaultWindows));
+	}
+}
@@ -0,0 +1,117 @@
+package com.project.back_end.services;
+
+import com.project.back_end.DTO.UserPrincipal;
+import com.project.back_end.models.Appointment;
+import com.project.back_end.models.Doctor;
+import com.project.back_end.models.Patient;
+import com.project.back_end.repo.AppointmentRepository;
+import com.project.back_end.repo.DoctorRepository;
+import com.project.back_end.repo.PatientRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SlotHoldServiceTests {
+
+	private static final long DOCTOR = 1L;
+	private static final UserPrincipal PATIENT = new UserPrincipal(2L, "patient@example.com", "patient");
+	private static final LocalDateTime SLOT = LocalDateTime.now().plusDays(7).withHour(10).withMinute(0).withSecond(0).withNano(0);
+
+	private final ScheduleEngine scheduleEngine = mock(ScheduleEngine.class);
+	private final AppointmentService appointmentService = mock(AppointmentService.class);
+	private final DoctorRepository doctorRepository = mock(DoctorRepository.class);
+	private final PatientRepository patientRepository = mock(PatientRepository.class);
+	private final AvailabilityIndex availabilityIndex =
+			new AvailabilityIndex(mock(AppointmentRepository.class), scheduleEngine, 366, 30);
+
+	SlotHoldServiceTests() {
+		when(scheduleEngine.scheduleFor(eq(DOCTOR), any()))
+				.thenReturn(new DoctorSchedule(IntStream.range(0, 8).map(i -> 540 + i * 60).toArray(), 60));
+		when(scheduleEngine.isSlotStart(eq(DOCTOR), any())).thenReturn(true);
+		when(doctorRepository.findById(anyLong())).thenReturn(Optional.of(new Doctor()));
+		when(patientRepository.findById(anyLong())).thenReturn(Optional.of(new Patient()));
+	}
+
+	@Test
+	void unconfirmedHoldExpiresAndFreesTheSlot() throws InterruptedException {
+		SlotHoldService holds = service(0);
+		assertEquals(HttpStatus.CREATED, holds.placeHold(DOCTOR, SLOT, PATIENT).getStatusCode());
+		assertTrue(availabilityIndex.isHeld(DOCTOR, SLOT));
+
+		Thread.sleep(5);
+		holds.expireHolds();
+
+		assertEquals(0, holds.activeHolds());
+		assertFalse(availabilityIndex.isHeld(DOCTOR, SLOT));
+		assertTrue(availabilityIndex.isFree(DOCTOR, SLOT));
+	}
+
+	@Test
+	void confirmBooksTheHeldSlotAndEndsTheHold() {
+		SlotHoldService holds = service(300);
+		when(appointmentService.bookAppointment(any())).thenReturn(1);
+		String holdId = holdId(holds.placeHold(DOCTOR, SLOT, PATIENT));
+
+		// Other patients cannot hold the slot meanwhile
+		UserPrincipal other = new UserPrincipal(3L, "other@example.com", "patient");
+		assertEquals(HttpStatus.CONFLICT, holds.placeHold(DOCTOR, SLOT, other).getStatusCode());
+
+		assertEquals(HttpStatus.CREATED, holds.confirmHold(holdId, PATIENT).getStatusCode());
+		ArgumentCaptor<Appointment> booked = ArgumentCaptor.forClass(Appointment.class);
+		verify(appointmentService).bookAppointment(booked.capture());
+		assertEquals(SLOT, booked.getValue().getAppointmentTime());
+		assertEquals(0, holds.activeHolds());
+		assertFalse(availabilityIndex.isHeld(DOCTOR, SLOT));
+
+		// The hold is used up
+		assertEquals(HttpStatus.NOT_FOUND, holds.confirmHold(holdId, PATIENT).getStatusCode());
+	}
+
+	@Test
+	void expiredHoldCannotBeConfirmedBeforeTheWheelSweepsIt() throws InterruptedException {
+		SlotHoldService holds = service(0);
+		String holdId = holdId(holds.placeHold(DOCTOR, SLOT, PATIENT));
+		Thread.sleep(5);
+
+		assertEquals(HttpStatus.GONE, holds.confirmHold(holdId, PATIENT).getStatusCode());
+		verify(appointmentService, never()).bookAppointment(any());
+		assertFalse(availabilityIndex.isHeld(DOCTOR, SLOT));
+	}
+
+	@Test
+	void onlyTheOwnerCanConfirm() {
+		SlotHoldService holds = service(300);
+		String holdId = holdId(holds.placeHold(DOCTOR, SLOT, PATIENT));
+		UserPrincipal other = new UserPrincipal(3L, "other@example.com", "patient");
+
+		assertEquals(HttpStatus.NOT_FOUND, holds.confirmHold(holdId, other).getStatusCode());
+		assertEquals(1, holds.activeHolds());
+	}
+
+	private SlotHoldService service(long ttlSeconds) {
+		return new SlotHoldService(appointmentService, availabilityIndex, scheduleEngine, new BookingLockStripes(64, 100),
+				doctorRepository, patientRepository, ttlSeconds, 1, 64);
+	}
+
+	private static String holdId(ResponseEntity<Map<String, Object>> response) {
+		assertEquals(HttpStatus.CREATED, response.getStatusCode());
+		return (String) response.getBody().get("holdId");
+	}
+}
@@ -0,0 +1,147 @@
+package com.project.back_end.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TrigramIndexTests {
+
+	private static final Map<Long, String> NAMES = new LinkedHashMap<>();
+
+	static {
+		NAMES.put(1L, "Anna Smith");
+		NAMES.put(2L, "Hannah Banana");
+		NAMES.put(3L, "Joanna Nanan");
+		NAMES.put(4L, "Bob");
+		NAMES.put(5L, "ANNABEL LEE");
+		NAMES.put(6L, "Ab");
+		NAMES.put(7L, "");
+		NAMES.put(8L, "100% Pure_Name");
+		NAMES.put(9L, "abcab");
+	}
+
+	@Test
+	void shortFiltersMatchLikeWithoutTrigrams() {
+		TrigramIndex index = TrigramIndex.builder().build();
+		NAMES.forEach(index::put);
+
+		assertSearchMatchesLike(index, "");
+		assertSearchMatchesLike(index, "a");
+		assertSearchMatchesLike(index, "AB");
+		assertSearchMatchesLike(index, " l");
+		assertSearchMatchesLike(index, "zz");
+		assertArrayEquals(new long[]{1, 2, 3, 4, 5, 6, 7, 8, 9}, index.search(""));
+		assertArrayEquals(new long[]{5, 6, 9}, index.search("ab"));
+	}
+
+	@Test
+	void repeatedTrigramsMatchLike() {
+		TrigramIndex index = build();
+
+		// "anana" repeats "ana"; "nanan" repeats "nan"; both need the text check, not only the trigram intersection
+		assertSearchMatchesLike(index, "anana");
+		assertSearchMatchesLike(index, "nanan");
+		assertSearchMatchesLike(index, "ananana");
+		assertArrayEquals(new long[]{2}, index.search("anana"));
+		assertArrayEquals(new long[]{3}, index.search("nanan"));
+		assertArrayEquals(new long[0], index.search("ananana"));
+	}
+
+	@Test
+	void trigramsInAnotherOrderAreNotAMatch() {
+		TrigramIndex index = build();
+
+		// "abcab" contains "bca", "cab" and "abc", as does the filter "bcabc", but not the filter itself
+		assertArrayEquals(new long[0], index.search("bcabc"));
+		assertArrayEquals(new long[]{9}, index.search("bcab"));
+	}
+
+	@Test
+	void caseAndWildcardsAreLiteral() {
+		TrigramIndex index = build();
+
+		assertArrayEquals(new long[]{1, 2, 3, 5}, index.search("ANN"));
+		// User input is escaped before LIKE, so % and _ only match themselves
+		assertArrayEquals(new long[]{8}, index.search("0% p"));
+		assertArrayEquals(new long[]{8}, index.search("e_n"));
+		assertArrayEquals(new long[0], index.search("a%b"));
+	}
+
+	@Test
+	void putReplacesAndRemoveDrops() {
+		TrigramIndex index = build();
+
+		index.put(1L, "Zoe Quinn");
+		assertArrayEquals(new long[]{2, 3, 5}, index.search("anna"));
+		assertArrayEquals(new long[]{1}, index.search("quin"));
+
+		index.remove(2L);
+		index.remove(42L);
+		assertArrayEquals(new long[]{3, 5}, index.search("anna"));
+		assertEquals(NAMES.size() - 1, index.size());
+	}
+
+	@Test
+	void builderAndPutsBuildTheSameIndex() {
+		Random random = new Random(7);
+		TrigramIndex.Builder builder = TrigramIndex.builder();
+		TrigramIndex incremental = new TrigramIndex();
+		Map<Long, String> names = new LinkedHashMap<>();
+		for (long id = 1; id <= 300; id++) {
+			// Small alphabet, so trigrams repeat within and across names
+			String name = randomText(random, 12);
+			builder.put(id, name);
+			incremental.put(id, name);
+			names.put(id, name);
+		}
+		builder.put(5L, "renamed");
+		incremental.put(5L, "renamed");
+		names.put(5L, "renamed");
+		TrigramIndex bulk = builder.build();
+
+		assertEquals(names.size(), bulk.size());
+		for (int query = 0; query < 500; query++) {
+			String filter = randomText(random, 5);
+			long[] expected = like(names, filter);
+			assertArrayEquals(expected, bulk.search(filter), "bulk, filter '" + filter + "'");
+			assertArrayEquals(expected, incremental.search(filter), "incremental, filter '" + filter + "'");
+		}
+	}
+
+	private static TrigramIndex build() {
+		TrigramIndex.Builder builder = TrigramIndex.builder();
+		NAMES.forEach(builder::put);
+		return builder.build();
+	}
+
+	private static void assertSearchMatchesLike(TrigramIndex index, String filter) {
+		assertArrayEquals(like(NAMES, filter), index.search(filter), "filter '" + filter + "'");
+	}
+
+	/**
+	 * Reference: LOWER(name) LIKE CONCAT('%', LOWER(filter), '%') with the filter's wildcards escaped
+	 */
+	private static long[] like(Map<Long, String> names, String filter) {
+		String needle = filter.toLowerCase(Locale.ENGLISH);
+		return names.entrySet().stream()
+				.filter(entry -> entry.getValue().toLowerCase(Locale.ENGLISH).contains(needle))
+				.mapToLong(Map.Entry::getKey)
+				.sorted()
+				.toArray();
+	}
+
+	private static String randomText(Random random, int maxLength) {
+		StringBuilder text = new StringBuilder();
+		int length = random.nextInt(maxLength + 1);
+		for (int i = 0; i < length; i++) {
+			text.append("abAB n".charAt(random.nextInt(6)));
+		}
+		return text.toString();
+	}
+}